@@ -1,12 +1,28 @@
 package mvh;
 
+import mvh.enums.Faction;
+import mvh.enums.LogLevel;
+import mvh.enums.MovementMode;
+import mvh.enums.Outcome;
+import mvh.util.BinaryWorld;
+import mvh.util.Checkpoints;
+import mvh.util.DeltaLog;
+import mvh.util.EventLog;
+import mvh.util.FanOutSink;
+import mvh.util.OutputSink;
 import mvh.util.Reader;
+import mvh.util.StructuredSink;
+import mvh.world.SimulationMetrics;
+import mvh.world.Snapshot;
 import mvh.world.World;
 
+import java.io.Closeable;
 import java.io.File;
 import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.util.Arrays;
 import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
 
 /**
  * Monsters vs Heroes
@@ -23,14 +39,78 @@ public final class Main {
      */
     public static Random random;
 
+    /**
+     * Run to the end without showing every turn or asking the user anything (--batch)
+     */
+    private static boolean batch = false;
+
+    /**
+     * Stop after this many turns, negative for no limit (--max-turns=N)
+     */
+    private static long maxTurns = -1;
+
+    /**
+     * Resolve each turn in tiles on this many threads, 0 to take turns one entity at a time (--threads=N)
+     */
+    private static int threads = 0;
+
+    /**
+     * Rows and columns of each tile when resolving turns on several threads (--tile=N)
+     */
+    private static int tileSize = 32;
+
+    /**
+     * How entities decide where to move (--movement=LOCAL|PURSUIT), null to keep the world's own (LOCAL unless
+     * resuming a snapshot)
+     */
+    private static MovementMode movement = null;
+
+    /**
+     * Log a full frame every this many turns and only the rows that changed in between, 0 to log every full frame
+     * (--delta=K)
+     */
+    private static int keyframeInterval = 0;
+
+    /**
+     * Record every move, attack, death and end of turn to this binary event file so the run can be replayed (--events=FILE)
+     */
+    private static File eventsFile = null;
+
+    /**
+     * Save a snapshot every this many turns, 0 for none (--checkpoint=N[,KEEP])
+     */
+    private static int checkpointInterval = 0;
+
+    /**
+     * Number of snapshots kept on disk (--checkpoint=N,KEEP)
+     */
+    private static int checkpointsKept = 3;
+
+    /**
+     * Count moves, attacks and deaths and time every turn, publishing them over JMX and showing them at the end (--metrics)
+     */
+    private static boolean measure = false;
+
+    /**
+     * Also write every message as a record to this file, CSV if it ends in .csv and JSON lines otherwise (--structured=FILE)
+     */
+    private static File structuredFile = null;
+
+    /**
+     * Attack and perception radius of each side, indexed by Faction (--hero-radius=A,P and --monster-radius=A,P),
+     * null to keep the world's own
+     */
+    private static final int[][] radii = new int[Faction.values().length][];
+
     /**
      * Check arguments, read world, setup logger, and start simulation
      *
-     * @param args Program arguments, Usage: Main &lt;world&gt; &lt;log&gt; &lt;seed&gt;
+     * @param args Program arguments, Usage: Main &lt;world&gt; &lt;log&gt; &lt;seed&gt; [--batch] [--max-turns=N] [--threads=N] [--tile=N] [--movement=LOCAL|PURSUIT] [--hero-radius=A,P] [--monster-radius=A,P] [--delta=K] [--events=FILE] [--checkpoint=N[,KEEP]] [--metrics] [--log-level=TRACE|INFO|SUMMARY] [--structured=FILE]
      */
     public static void main(String[] args) {
         //Check for 3 arguments
         checkArgument(args);
+        checkOptions(args);
 
         //Get the two filenames
         File fileWorld = new File(args[0]);
@@ -44,11 +124,76 @@ public final class Main {
 
         //Set up Menu with logger and read world from file
         Menu.setup(fileLog);
-        Menu.println("Arguments: "+ Arrays.toString(args));
-        World world = Reader.loadWorld(fileWorld);
+        //Batch runs only show the final summary on screen
+        Menu.setEcho(!batch);
+        Menu.println(LogLevel.INFO, "Arguments: "+ Arrays.toString(args));
+        World world = loadWorld(fileWorld);
+        if (movement != null) {
+            world.setMovementMode(movement);
+        }
+        ForkJoinPool pool = null;
+        EventLog events = null;
+        Checkpoints checkpoints = null;
+        SimulationMetrics metrics = null;
+        OutputSink structured = null;
+        try {
+            for (Faction faction : Faction.values()) {
+                if (radii[faction.ordinal()] != null) {
+                    world.setAttackRadius(faction, radii[faction.ordinal()][0]);
+                    world.setPerceptionRadius(faction, radii[faction.ordinal()][1]);
+                }
+            }
+            if (threads > 0) {
+                pool = new ForkJoinPool(threads);
+                world.setParallel(pool, tileSize, Long.parseLong(args[2]));
+            }
+            if (eventsFile != null) {
+                events = new EventLog(world, eventsFile);
+            }
+            if (checkpointInterval > 0) {
+                checkpoints = new Checkpoints(fileLog, checkpointInterval, checkpointsKept);
+            }
+            if (structuredFile != null) {
+                structured = new StructuredSink(structuredFile).atLeast(Menu.getLevel());
+                world.setSink(new FanOutSink(Menu.sink(), structured));
+            }
+            if (measure) {
+                metrics = new SimulationMetrics();
+                metrics.register(fileWorld.getName());
+                world.setMetrics(metrics);
+            }
+        } catch (IllegalArgumentException | UncheckedIOException e) {
+            System.err.println(e.getMessage());
+            if (pool != null) {
+                pool.shutdown();
+            }
+            closeOpened(events, structured);
+            Menu.close();
+            System.exit(1);
+        }
 
         //Run simulation
-        runSimulation(world);
+        DeltaLog frames = keyframeInterval > 0 && Menu.isEnabled(LogLevel.INFO) ? new DeltaLog(world, keyframeInterval) : null;
+        if (batch) {
+            runBatch(world, frames, checkpoints);
+        } else {
+            runSimulation(world, frames, checkpoints);
+        }
+        if (pool != null) {
+            pool.shutdown();
+        }
+        if (events != null) {
+            events.close();
+        }
+        if (metrics != null) {
+            Menu.setEcho(true);
+            print(world, LogLevel.SUMMARY, metrics.snapshot());
+            metrics.unregister();
+        }
+        if (structured != null) {
+            structured.close();
+        }
+        Menu.close();
     }
 
     /**
@@ -57,13 +202,159 @@ public final class Main {
      * @param args The program arguments
      */
     private static void checkArgument(String[] args) {
-        if (args.length != 3) {
-            System.err.println("Program requires 2 arguments!");
-            System.err.println("Usage: Main <world> <log> <seed>");
+        if (args.length < 3) {
+            System.err.println("Program requires 3 arguments!");
+            System.err.println("Usage: Main <world> <log> <seed> [--batch] [--max-turns=N] [--threads=N] [--tile=N] [--movement=LOCAL|PURSUIT] [--hero-radius=A,P] [--monster-radius=A,P] [--delta=K] [--events=FILE] [--checkpoint=N[,KEEP]] [--metrics] [--log-level=TRACE|INFO|SUMMARY] [--structured=FILE]");
+            System.exit(1);
+        }
+    }
+
+    /**
+     * Read the optional arguments that come after the 3 required ones
+     *
+     * @param args The program arguments
+     */
+    private static void checkOptions(String[] args) {
+        for (int i = 3; i < args.length; i++) {
+            String option = args[i];
+            if (option.equals("--batch")) {
+                batch = true;
+            } else if (option.startsWith("--max-turns=")) {
+                try {
+                    maxTurns = Long.parseLong(option.substring("--max-turns=".length()));
+                } catch (NumberFormatException e) {
+                    System.err.printf("Option %s should be an integer number of turns!%n", option);
+                    System.exit(1);
+                }
+            } else if (option.startsWith("--threads=")) {
+                threads = parseCount(option, "--threads=");
+            } else if (option.startsWith("--tile=")) {
+                tileSize = parseCount(option, "--tile=");
+            } else if (option.startsWith("--movement=")) {
+                movement = parseMovement(option);
+            } else if (option.startsWith("--hero-radius=")) {
+                radii[Faction.HEROES.ordinal()] = parseRadii(option);
+            } else if (option.startsWith("--monster-radius=")) {
+                radii[Faction.MONSTERS.ordinal()] = parseRadii(option);
+            } else if (option.startsWith("--events=")) {
+                eventsFile = new File(option.substring("--events=".length()));
+            } else if (option.startsWith("--checkpoint=")) {
+                parseCheckpoint(option);
+            } else if (option.startsWith("--log-level=")) {
+                Menu.setLevel(parseLevel(option));
+            } else if (option.startsWith("--structured=")) {
+                structuredFile = new File(option.substring("--structured=".length()));
+            } else if (option.equals("--metrics")) {
+                measure = true;
+            } else if (option.startsWith("--delta=")) {
+                keyframeInterval = parseCount(option, "--delta=");
+            } else {
+                System.err.printf("Unknown option %s!%n", option);
+                System.err.println("Usage: Main <world> <log> <seed> [--batch] [--max-turns=N] [--threads=N] [--tile=N] [--movement=LOCAL|PURSUIT] [--hero-radius=A,P] [--monster-radius=A,P] [--delta=K] [--events=FILE] [--checkpoint=N[,KEEP]] [--metrics] [--log-level=TRACE|INFO|SUMMARY] [--structured=FILE]");
+                System.exit(1);
+            }
+        }
+    }
+
+    /**
+     * Read the positive whole number of an option, ending the program if it is not one
+     *
+     * @param option The option
+     * @param prefix The option name up to and including '='
+     * @return The number
+     */
+    private static int parseCount(String option, String prefix) {
+        try {
+            int count = Integer.parseInt(option.substring(prefix.length()));
+            if (count > 0) {
+                return count;
+            }
+        } catch (NumberFormatException e) {
+            //Reported below
+        }
+        System.err.printf("Option %s should be a positive integer!%n", option);
+        System.exit(1);
+        return 0;
+    }
+
+    /**
+     * Read the movement mode of a --movement= option, ending the program if it is not one
+     *
+     * @param option The option
+     * @return The movement mode
+     */
+    static MovementMode parseMovement(String option) {
+        try {
+            return MovementMode.valueOf(option.substring(option.indexOf('=') + 1).toUpperCase());
+        } catch (IllegalArgumentException e) {
+            System.err.printf("Option %s should be one of %s!%n", option, Arrays.toString(MovementMode.values()));
             System.exit(1);
+            return null;
         }
     }
 
+    /**
+     * Read the level of a --log-level= option, ending the program if it is not one
+     *
+     * @param option The option
+     * @return The log level
+     */
+    private static LogLevel parseLevel(String option) {
+        try {
+            return LogLevel.valueOf(option.substring(option.indexOf('=') + 1).toUpperCase());
+        } catch (IllegalArgumentException e) {
+            System.err.printf("Option %s should be one of %s!%n", option, Arrays.toString(LogLevel.values()));
+            System.exit(1);
+            return null;
+        }
+    }
+
+    /**
+     * Read the attack and perception radius of a --hero-radius= or --monster-radius= option, ending the program if
+     * they are not two whole numbers
+     *
+     * @param option The option
+     * @return {attack radius, perception radius}
+     */
+    private static int[] parseRadii(String option) {
+        String[] parts = option.substring(option.indexOf('=') + 1).split(",");
+        try {
+            if (parts.length == 2) {
+                return new int[]{Integer.parseInt(parts[0].trim()), Integer.parseInt(parts[1].trim())};
+            }
+        } catch (NumberFormatException e) {
+            //Reported below
+        }
+        System.err.printf("Option %s should be an attack radius and a perception radius, e.g. 3,10!%n", option);
+        System.exit(1);
+        return null;
+    }
+
+    /**
+     * Read the interval and number kept of a --checkpoint= option, ending the program if they are not positive whole
+     * numbers
+     *
+     * @param option The option
+     */
+    private static void parseCheckpoint(String option) {
+        String[] parts = option.substring("--checkpoint=".length()).split(",");
+        try {
+            if (parts.length <= 2) {
+                checkpointInterval = Integer.parseInt(parts[0].trim());
+                if (parts.length == 2) {
+                    checkpointsKept = Integer.parseInt(parts[1].trim());
+                }
+                if (checkpointInterval > 0 && checkpointsKept > 0) {
+                    return;
+                }
+            }
+        } catch (NumberFormatException e) {
+            //Reported below
+        }
+        System.err.printf("Option %s should be a positive number of turns and optionally how many to keep, e.g. 1000,3!%n", option);
+        System.exit(1);
+    }
+
     /**
      * Setup random number generator
      *
@@ -91,14 +382,18 @@ public final class Main {
             System.err.printf("The world file %s does not exist!%n", fileWorld.getAbsoluteFile());
             System.exit(1);
         }
-        //Check log file overwrite?
+        //Check log file overwrite? (batch runs never ask)
         if (fileLog.exists() && fileLog.isFile() && fileLog.canWrite()) {
-            System.out.println("Overwrite log file?");
-            if (Menu.checkYes()) {
+            if (batch) {
                 fileLog.delete();
             } else {
-                System.err.println("Ending program instead of overwriting log file!");
-                System.exit(0);
+                System.out.println("Overwrite log file?");
+                if (Menu.checkYes()) {
+                    fileLog.delete();
+                } else {
+                    System.err.println("Ending program instead of overwriting log file!");
+                    System.exit(0);
+                }
             }
         }
         //Create log file if the log file doesn't exist
@@ -118,22 +413,168 @@ public final class Main {
         //We should trust both of our input files at this point
     }
 
+    /**
+     * Read the world file (text, binary or a snapshot to carry on from), ending the program with the reason if it
+     * cannot be loaded
+     *
+     * @param fileWorld The world file storing the game setup
+     * @return The loaded world
+     */
+    static World loadWorld(File fileWorld) {
+        try {
+            if (Snapshot.isSnapshot(fileWorld)) {
+                return Snapshot.load(fileWorld);
+            }
+            if (BinaryWorld.isBinary(fileWorld)) {
+                return BinaryWorld.load(fileWorld);
+            }
+            return Reader.loadWorld(fileWorld);
+        } catch (IllegalArgumentException | UncheckedIOException e) {
+            System.err.println(e.getMessage());
+            Menu.close();
+            System.exit(1);
+            return null;
+        }
+    }
+
     /**
      * Run the Monsters versus Heroes simulation
      *
-     * @param world The loaded world state to simulate
+     * @param world       The loaded world state to simulate
+     * @param frames      Logs each turn as a keyframe or delta instead of the full gameString (null to log gameString)
+     * @param checkpoints Saves a snapshot every few turns (null for none)
      */
-    private static void runSimulation(World world) {
+    private static void runSimulation(World world, DeltaLog frames, Checkpoints checkpoints) {
         while (world.isActive()) {
-            String message = world.gameString();
-            Menu.println(message);
+            printFrame(world, frames);
             if (Menu.continueSimulation()) {
                 world.advanceSimulation();
+                if (checkpoints != null) {
+                    checkpoints.afterTurn(world);
+                }
             } else {
                 world.endSimulation();
             }
         }
-        String message = world.gameString();
-        Menu.println(message);
+        printFrame(world, frames);
+    }
+
+    /**
+     * Show the gameString of the current turn and log it (as a keyframe or delta when there is a delta log), if the
+     * INFO level is logged
+     *
+     * @param world  The world
+     * @param frames The delta log, null to log the full gameString
+     */
+    private static void printFrame(World world, DeltaLog frames) {
+        if (!Menu.isEnabled(LogLevel.INFO)) {
+            return;
+        }
+        if (frames == null) {
+            print(world, LogLevel.INFO, world.gameString());
+        } else {
+            Menu.show(world.gameString());
+            //The screen already shows the full gameString, the frame record is only for the world's sink outputs
+            Menu.setEcho(false);
+            print(world, LogLevel.INFO, frames.nextFrame());
+            Menu.setEcho(!batch);
+        }
+    }
+
+    /**
+     * Close outputs opened before setup failed, reporting any that can not be closed instead of stopping
+     *
+     * @param opened The outputs (null for ones that were not opened)
+     */
+    private static void closeOpened(Closeable... opened) {
+        for (Closeable output : opened) {
+            if (output == null) {
+                continue;
+            }
+            try {
+                output.close();
+            } catch (IOException | UncheckedIOException e) {
+                System.err.println(e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Run the Monsters versus Heroes simulation to the end without showing each turn or asking to continue
+     * Only the final outcome summary is shown (every action is still logged)
+     *
+     * @param world       The loaded world state to simulate
+     * @param frames      Logs every turn as a keyframe or delta (null to log only the actions)
+     * @param checkpoints Saves a snapshot every few turns (null for none)
+     */
+    private static void runBatch(World world, DeltaLog frames, Checkpoints checkpoints) {
+        long start = System.nanoTime();
+        runToEnd(world, maxTurns, frames, checkpoints);
+        long elapsed = System.nanoTime() - start;
+        Menu.setEcho(true);
+        print(world, LogLevel.SUMMARY, summary(world, elapsed));
+    }
+
+    /**
+     * Write a message to the world's sink
+     *
+     * @param world   The world
+     * @param level   The level of the message
+     * @param message The message
+     */
+    private static void print(World world, LogLevel level, String message) {
+        OutputSink sink = world.getSink();
+        if (sink.isEnabled(level)) {
+            sink.write(level, message);
+        }
+    }
+
+    /**
+     * Advance a world until it is no longer active or has played a number of turns
+     *
+     * @param world    The world to simulate
+     * @param maxTurns Stop after playing this many more turns (negative for no limit)
+     */
+    static void runToEnd(World world, long maxTurns) {
+        runToEnd(world, maxTurns, null, null);
+    }
+
+    /**
+     * Advance a world until it is no longer active or has played a number of turns, logging a frame for every turn
+     *
+     * @param world       The world to simulate
+     * @param maxTurns    Stop after playing this many more turns (negative for no limit)
+     * @param frames      Logs the first and every following turn as a keyframe or delta to the world's sink (null to log no frames)
+     * @param checkpoints Saves a snapshot every few turns (null for none)
+     */
+    static void runToEnd(World world, long maxTurns, DeltaLog frames, Checkpoints checkpoints) {
+        if (frames != null) {
+            print(world, LogLevel.INFO, frames.nextFrame());
+        }
+        //Turns are counted from where the world is now (a restored snapshot may be far along)
+        long start = world.getTurn();
+        while (world.isActive() && (maxTurns < 0 || world.getTurn() - start < maxTurns)) {
+            world.advanceSimulation();
+            if (frames != null) {
+                print(world, LogLevel.INFO, frames.nextFrame());
+            }
+            if (checkpoints != null) {
+                checkpoints.afterTurn(world);
+            }
+        }
+        world.endSimulation();
+    }
+
+    /**
+     * Describe how a finished simulation ended up
+     *
+     * @param world   The finished world
+     * @param elapsed How long the simulation took in nanoseconds
+     * @return Outcome summary (winner, turns, survivors, time)
+     */
+    static String summary(World world, long elapsed) {
+        Outcome outcome = world.getOutcome();
+        return String.format("Winner: %s%nTurns: %d%nSurviving heroes: %d%nSurviving monsters: %d%nTime: %.3f ms",
+                outcome, world.getTurn(), world.getLivingHeroes(), world.getLivingMonsters(), elapsed / 1e6);
     }
 }
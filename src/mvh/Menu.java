@@ -1,9 +1,16 @@
 package mvh;
 
-import mvh.util.Logger;
+import mvh.enums.LogLevel;
+import mvh.util.AsyncLogger;
+import mvh.util.OutputSink;
 
+import java.io.BufferedOutputStream;
 import java.io.File;
+import java.io.FileDescriptor;
+import java.io.FileOutputStream;
+import java.io.PrintStream;
 import java.util.Scanner;
+import java.util.function.Supplier;
 
 /**
  * Simple menu so user can enter commands to continue or stop simulation
@@ -17,9 +24,18 @@ public final class Menu {
      */
     private static final Scanner scanner = new Scanner(System.in);
     /**
-     * A Logger for logging program execution to an output file
+     * A Logger for logging program execution to an output file (written in the background)
      */
-    private static Logger logger;
+    private static AsyncLogger logger;
+    /**
+     * Has the shutdown hook that closes the logger been registered (only one is ever registered)
+     */
+    private static boolean hooked = false;
+
+    /**
+     * Buffered screen output, flushed whenever we wait on the user and when the program ends
+     */
+    private static final PrintStream out = new PrintStream(new BufferedOutputStream(new FileOutputStream(FileDescriptor.out), 1 << 16), false);
 
     /**
      * Should this program ignore future user input?
@@ -27,12 +43,59 @@ public final class Menu {
     private static boolean ignore = false;
 
     /**
-     * Set up the logger with a filename
+     * Should println also show messages on the screen (the log file always gets them)
+     */
+    private static boolean echo = true;
+
+    /**
+     * Least detailed level that is still logged (messages of a level before it are dropped without being built)
+     */
+    private static volatile LogLevel level = LogLevel.TRACE;
+
+    /**
+     * Writes to the screen and log file through println, for worlds that have not been given a sink of their own
+     */
+    private static final OutputSink sink = new OutputSink() {
+        @Override
+        public void write(LogLevel level, String message) {
+            println(message);
+        }
+
+        @Override
+        public boolean isEnabled(LogLevel level) {
+            return Menu.isEnabled(level);
+        }
+
+        @Override
+        public void close() {
+            //The screen and log file are closed by Menu.close
+        }
+    };
+
+    /**
+     * Set up the logger with a filename (closing the logger of an earlier setup)
+     * Menu owns the logger, it is closed by close or by the one shutdown hook registered on the first setup
      * @param fileLog The file to log to
      */
     public static void setup(File fileLog) {
-        logger = new Logger(fileLog);
+        if (logger != null) {
+            logger.close();
+        }
+        logger = new AsyncLogger(fileLog);
+        if (!hooked) {
+            hooked = true;
+            Runtime.getRuntime().addShutdownHook(new Thread(Menu::close));
+        }
+    }
 
+    /**
+     * Flush the screen and write out everything still waiting to be logged
+     */
+    public static void close() {
+        out.flush();
+        if (logger != null) {
+            logger.close();
+        }
     }
 
     /**
@@ -44,10 +107,119 @@ public final class Menu {
         if(logger == null){
             throw new RuntimeException("Cannot log until log file has been setup(File)!");
         }
-        System.out.println(obj);
+        if (echo) {
+            out.println(obj);
+        }
         logger.log(obj);
     }
 
+    /**
+     * Print the following object to the screen if its level is being logged
+     *
+     * @param level The level of the message
+     * @param obj   The object to print to screen (note, a new line is added on the end)
+     */
+    public static void println(LogLevel level, Object obj) {
+        if (isEnabled(level)) {
+            println(obj);
+        }
+    }
+
+    /**
+     * Build and print a message only if its level is being logged
+     *
+     * @param level   The level of the message
+     * @param message Builds the message (not called if the level is not logged)
+     */
+    public static void println(LogLevel level, Supplier<?> message) {
+        if (isEnabled(level)) {
+            println(message.get());
+        }
+    }
+
+    /**
+     * Format and print a message only if its level is being logged
+     *
+     * @param level    The level of the message
+     * @param template A String.format template
+     * @param args     The values for the template (not formatted if the level is not logged)
+     */
+    public static void printf(LogLevel level, String template, Object... args) {
+        if (isEnabled(level)) {
+            println(String.format(template, args));
+        }
+    }
+
+    /**
+     * Is a level being logged, check this before building a message in a loop
+     *
+     * @param level The level
+     * @return True if messages of that level are logged
+     */
+    public static boolean isEnabled(LogLevel level) {
+        return level.compareTo(Menu.level) >= 0;
+    }
+
+    /**
+     * Set the least detailed level still logged
+     *
+     * @param level The level, TRACE to log everything
+     */
+    public static void setLevel(LogLevel level) {
+        if (level == null) {
+            throw new IllegalArgumentException("Log level can not be null!");
+        }
+        Menu.level = level;
+    }
+
+    /**
+     * @return The least detailed level still logged
+     */
+    public static LogLevel getLevel() {
+        return level;
+    }
+
+    /**
+     * The screen and log file as an output sink (messages go through println at Menu's level)
+     *
+     * @return The sink
+     */
+    public static OutputSink sink() {
+        return sink;
+    }
+
+    /**
+     * Only log the following object (nothing is shown on the screen)
+     *
+     * @param obj The object to log (note, a new line is added on the end)
+     */
+    public static void log(Object obj) {
+        if(logger == null){
+            throw new RuntimeException("Cannot log until log file has been setup(File)!");
+        }
+        logger.log(obj);
+    }
+
+    /**
+     * Only show the following object on the screen, if messages are being shown (nothing is logged)
+     *
+     * @param obj The object to print to screen (note, a new line is added on the end)
+     */
+    public static void show(Object obj) {
+        if (echo) {
+            out.println(obj);
+        }
+    }
+
+    /**
+     * Turn showing println messages on the screen on or off (they are still logged)
+     *
+     * @param echo True to show messages on the screen
+     */
+    public static void setEcho(boolean echo) {
+        Menu.echo = echo;
+    }
+
     /**
      * Should the simulation (E)xit, (C)omplete, or anything else go step by step
      * (Note, if 'C' is selected the answer will always be true for rest of simulation
@@ -56,7 +228,8 @@ public final class Menu {
      */
     public static boolean continueSimulation() {
         if (!ignore) {
-            System.out.println("(E)xit / (C)omplete/: Anything else to step once");
+            out.println("(E)xit / (C)omplete/: Anything else to step once");
+            out.flush();
             String line = scanner.nextLine();
             if (line.equals("E")) {
                 return false;
@@ -72,7 +245,8 @@ public final class Menu {
      * @return True if 'Y', otherwise False
      */
     public static boolean checkYes() {
-        System.out.println("(Y)es: Anything else is No");
+        out.println("(Y)es: Anything else is No");
+        out.flush();
         return scanner.nextLine().equals("Y");
     }
 }
@@ -0,0 +1,227 @@
+package mvh;
+
+import mvh.enums.MovementMode;
+import mvh.enums.Outcome;
+import mvh.world.World;
+
+import java.io.File;
+import java.util.Arrays;
+import java.util.Random;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Monte Carlo runner for Monsters vs Heroes
+ * Plays one world many times, each run on its own copy of the world with its own random number generator, spread over
+ * a pool of threads, and reports how often each side wins and how long the games last
+ * Every run's seed comes from the master seed, so the results do not depend on the number of threads
+ * @author Hasan Salhi
+ * @version 1.0
+ */
+public final class MonteCarlo {
+
+    /**
+     * Usage message
+     */
+    private static final String USAGE = "Usage: MonteCarlo <world> <runs> <seed> [--threads=N] [--max-turns=N] [--movement=LOCAL|PURSUIT]";
+
+    /**
+     * Outcome and length of every run, indexed by run
+     */
+    static final class Results {
+        /**
+         * Who won each run
+         */
+        final Outcome[] outcomes;
+        /**
+         * How many turns each run lasted
+         */
+        final long[] turns;
+
+        /**
+         * Room for the results of a number of runs
+         *
+         * @param runs Number of runs
+         */
+        Results(int runs) {
+            this.outcomes = new Outcome[runs];
+            this.turns = new long[runs];
+        }
+    }
+
+    /**
+     * Check arguments, read world, play it many times and report
+     *
+     * @param args Program arguments, Usage: MonteCarlo &lt;world&gt; &lt;runs&gt; &lt;seed&gt; [--threads=N] [--max-turns=N] [--movement=LOCAL|PURSUIT]
+     */
+    public static void main(String[] args) {
+        if (args.length < 3) {
+            System.err.println("Program requires 3 arguments!");
+            System.err.println(USAGE);
+            System.exit(1);
+        }
+        int runs = parse(args[1], "Second argument %s should be a positive number of runs!%n");
+        long seed = parse(args[2], "Third argument %s should be integer seed!%n");
+        int threads = Runtime.getRuntime().availableProcessors();
+        long maxTurns = -1;
+        MovementMode movement = MovementMode.LOCAL;
+        for (int i = 3; i < args.length; i++) {
+            String option = args[i];
+            if (option.startsWith("--threads=")) {
+                threads = parse(option.substring("--threads=".length()), "Option " + option + " should be a positive number of threads!%n");
+            } else if (option.startsWith("--max-turns=")) {
+                maxTurns = parse(option.substring("--max-turns=".length()), "Option " + option + " should be an integer number of turns!%n");
+            } else if (option.startsWith("--movement=")) {
+                movement = Main.parseMovement(option);
+            } else {
+                System.err.printf("Unknown option %s!%n", option);
+                System.err.println(USAGE);
+                System.exit(1);
+            }
+        }
+        if (runs < 1 || threads < 1) {
+            System.err.println(USAGE);
+            System.exit(1);
+        }
+
+        File fileWorld = new File(args[0]);
+        if (!fileWorld.exists() || !fileWorld.isFile() || !fileWorld.canRead()) {
+            System.err.printf("The world file %s does not exist!%n", fileWorld.getAbsoluteFile());
+            System.exit(1);
+        }
+        World world = Main.loadWorld(fileWorld);
+        world.setMovementMode(movement);
+
+        long start = System.nanoTime();
+        Results results = run(world, runs, seed, threads, maxTurns);
+        long elapsed = System.nanoTime() - start;
+        System.out.println(report(results, threads, elapsed));
+    }
+
+    /**
+     * Parse a whole number argument, ending the program if it is not one
+     *
+     * @param value   The argument
+     * @param message Error message format (given the argument)
+     * @return The number
+     */
+    private static int parse(String value, String message) {
+        try {
+            return Integer.parseInt(value);
+        } catch (NumberFormatException e) {
+            System.err.printf(message, value);
+            System.exit(1);
+            return 0;
+        }
+    }
+
+    /**
+     * Play a world many times, each run on a quiet copy of the world with its own random number generator
+     * The world itself is never changed
+     *
+     * @param world    The starting world
+     * @param runs     Number of runs
+     * @param seed     Master seed, run seeds are drawn from it in run order
+     * @param threads  Number of threads to spread the runs over
+     * @param maxTurns Stop each run after this many turns (negative for no limit)
+     * @return The outcome and length of every run
+     */
+    static Results run(World world, int runs, long seed, int threads, long maxTurns) {
+        if (runs < 0 || threads < 1) {
+            throw new IllegalArgumentException("Runs must be >= 0 and threads must be > 0. Values given were " + runs + " and " + threads + "!");
+        }
+        //Draw every seed up front so which thread plays a run never changes its result
+        SplittableRandom master = new SplittableRandom(seed);
+        long[] seeds = new long[runs];
+        for (int i = 0; i < runs; i++) {
+            seeds[i] = master.nextLong();
+        }
+        Results results = new Results(runs);
+        AtomicInteger next = new AtomicInteger();
+        Runnable worker = () -> {
+            int i;
+            while ((i = next.getAndIncrement()) < runs) {
+                World copy = world.copy();
+                copy.setRandom(new Random(seeds[i]));
+                copy.setQuiet(true);
+                Main.runToEnd(copy, maxTurns);
+                results.outcomes[i] = copy.getOutcome();
+                results.turns[i] = copy.getTurn();
+            }
+        };
+        if (threads == 1) {
+            worker.run();
+            return results;
+        }
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        try {
+            Future<?>[] futures = new Future<?>[threads];
+            for (int t = 0; t < threads; t++) {
+                futures[t] = pool.submit(worker);
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for runs to finish!", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("A run failed! " + e.getCause(), e.getCause());
+        } finally {
+            pool.shutdownNow();
+        }
+        return results;
+    }
+
+    /**
+     * Describe the results of many runs
+     *
+     * @param results The results
+     * @param threads Number of threads used
+     * @param elapsed How long all the runs took in nanoseconds
+     * @return Win rates, turn distribution and speed
+     */
+    static String report(Results results, int threads, long elapsed) {
+        int runs = results.turns.length;
+        int[] wins = new int[Outcome.values().length];
+        for (Outcome outcome : results.outcomes) {
+            wins[outcome.ordinal()]++;
+        }
+        long[] sorted = Arrays.copyOf(results.turns, runs);
+        Arrays.sort(sorted);
+        double mean = 0;
+        for (long turns : sorted) {
+            mean += turns;
+        }
+        mean = runs == 0 ? 0 : mean / runs;
+
+        StringBuilder report = new StringBuilder();
+        report.append(String.format("Runs: %d on %d threads%n", runs, threads));
+        for (Outcome outcome : Outcome.values()) {
+            report.append(String.format("%s: %d (%.2f%%)%n", outcome, wins[outcome.ordinal()], runs == 0 ? 0 : 100.0 * wins[outcome.ordinal()] / runs));
+        }
+        report.append(String.format("Turns: min %d, p50 %d, p90 %d, p99 %d, max %d, mean %.2f%n",
+                percentile(sorted, 0), percentile(sorted, 50), percentile(sorted, 90), percentile(sorted, 99), percentile(sorted, 100), mean));
+        report.append(String.format("Time: %.3f ms (%.1f runs/s)", elapsed / 1e6, elapsed == 0 ? 0 : runs / (elapsed / 1e9)));
+        return report.toString();
+    }
+
+    /**
+     * Nearest-rank percentile of sorted values
+     *
+     * @param sorted  Values in increasing order
+     * @param percent Which percentile (0 to 100)
+     * @return The value at that percentile (0 if there are no values)
+     */
+    private static long percentile(long[] sorted, int percent) {
+        if (sorted.length == 0) {
+            return 0;
+        }
+        int rank = (int) Math.ceil(percent / 100.0 * sorted.length);
+        return sorted[Math.max(0, rank - 1)];
+    }
+}
@@ -0,0 +1,114 @@
+package mvh.bench;
+
+import mvh.enums.WeaponType;
+import mvh.world.Entity;
+import mvh.world.Hero;
+import mvh.world.Monster;
+import mvh.world.Wall;
+import mvh.world.World;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Random;
+
+/**
+ * Worlds for the benchmarks, generated in-process from a size, an entity density and a seed
+ * Every spot is a wall with probability WALL_DENSITY, otherwise a hero or monster (even odds) with probability density,
+ * otherwise floor. The same arguments always give the same world
+ * @author Hasan Salhi
+ * @version 1.0
+ */
+final class BenchWorlds {
+
+    /**
+     * Chance of a spot being a wall
+     */
+    private static final double WALL_DENSITY = 0.05;
+
+    /**
+     * Only static helpers
+     */
+    private BenchWorlds() {
+    }
+
+    /**
+     * A square world ready to be simulated (quiet, with its own random number generator)
+     *
+     * @param size    Rows and columns of the world
+     * @param density Chance of a non-wall spot holding a hero or monster
+     * @param seed    Seed for the layout and for the world's random number generator
+     * @return The world
+     */
+    static World generate(int size, double density, long seed) {
+        Random random = new Random(seed);
+        World world = new World(size, size);
+        for (int row = 0; row < size; row++) {
+            for (int column = 0; column < size; column++) {
+                Entity entity = spot(random, density);
+                if (entity != null) {
+                    world.addEntity(row, column, entity);
+                }
+            }
+        }
+        world.setQuiet(true);
+        world.setRandom(new Random(seed));
+        return world;
+    }
+
+    /**
+     * Write the world generate would make as a world file Reader.loadWorld can read (every spot gets a line)
+     *
+     * @param file    The file to write
+     * @param size    Rows and columns of the world
+     * @param density Chance of a non-wall spot holding a hero or monster
+     * @param seed    Seed for the layout
+     */
+    static void write(File file, int size, double density, long seed) {
+        Random random = new Random(seed);
+        try (BufferedWriter out = new BufferedWriter(new FileWriter(file), 1 << 16)) {
+            out.write(size + "\n" + size + "\n");
+            for (int row = 0; row < size; row++) {
+                for (int column = 0; column < size; column++) {
+                    Entity entity = spot(random, density);
+                    out.write(row + "," + column);
+                    if (entity instanceof Wall) {
+                        out.write(",WALL");
+                    } else if (entity instanceof Hero) {
+                        out.write(",HERO," + entity.getSymbol() + "," + entity.getHealth() + "," + entity.weaponStrength() + "," + entity.armorStrength());
+                    } else if (entity instanceof Monster) {
+                        out.write(",MONSTER," + entity.getSymbol() + "," + entity.getHealth() + "," + ((Monster) entity).getWeaponType().name().charAt(0));
+                    }
+                    out.write('\n');
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Unable to write benchmark world " + file.getAbsoluteFile(), e);
+        }
+    }
+
+    /**
+     * What goes on the next spot
+     *
+     * @param random  The layout's random number generator
+     * @param density Chance of a non-wall spot holding a hero or monster
+     * @return A wall, hero or monster, null for floor
+     */
+    private static Entity spot(Random random, double density) {
+        double roll = random.nextDouble();
+        if (roll < WALL_DENSITY) {
+            return Wall.getWall();
+        }
+        if (roll < WALL_DENSITY + (1 - WALL_DENSITY) * density) {
+            int health = 10 + random.nextInt(20);
+            if (random.nextBoolean()) {
+                return new Hero(health, 'H', 1 + random.nextInt(5), random.nextInt(3));
+            }
+            WeaponType[] weapons = WeaponType.values();
+            return new Monster(health, 'M', weapons[random.nextInt(weapons.length)]);
+        }
+        return null;
+    }
+}
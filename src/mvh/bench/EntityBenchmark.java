@@ -0,0 +1,154 @@
+package mvh.bench;
+
+import mvh.enums.Direction;
+import mvh.world.Entity;
+import mvh.world.Hero;
+import mvh.world.LocalView;
+import mvh.world.Monster;
+import mvh.world.World;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Throughput of the hero and monster decisions (chooseMove on the 5x5 view, attackWhere on the 3x3 view)
+ * Decisions are made in turn for every hero (or monster) of the generated world, so the views are the real mix of
+ * crowded and empty surroundings. Run with -prof gc to see allocation per decision
+ * @author Hasan Salhi
+ * @version 1.0
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class EntityBenchmark {
+
+    /**
+     * Rows and columns of the generated world
+     */
+    @Param({"64", "256"})
+    public int size;
+
+    /**
+     * Chance of a non-wall spot holding a hero or monster
+     */
+    @Param({"0.05", "0.3"})
+    public double density;
+
+    /**
+     * Heroes of the world
+     */
+    private Entity[] heroes;
+    /**
+     * 5x5 and 3x3 views centered on each hero
+     */
+    private LocalView[][] heroViews;
+    /**
+     * Monsters of the world
+     */
+    private Entity[] monsters;
+    /**
+     * 5x5 and 3x3 views centered on each monster
+     */
+    private LocalView[][] monsterViews;
+    /**
+     * Next hero to decide
+     */
+    private int nextHero;
+    /**
+     * Next monster to decide
+     */
+    private int nextMonster;
+
+    /**
+     * Generate the world and the views of every hero and monster
+     */
+    @Setup(Level.Trial)
+    public void generate() {
+        World world = BenchWorlds.generate(size, density, 42);
+        List<Entity> heroList = new ArrayList<>();
+        List<LocalView[]> heroViewList = new ArrayList<>();
+        List<Entity> monsterList = new ArrayList<>();
+        List<LocalView[]> monsterViewList = new ArrayList<>();
+        for (int row = 0; row < size; row++) {
+            for (int column = 0; column < size; column++) {
+                Entity entity = world.getEntity(row, column);
+                LocalView[] views = {world.getLocalView(5, row, column), world.getLocalView(3, row, column)};
+                if (entity instanceof Hero) {
+                    heroList.add(entity);
+                    heroViewList.add(views);
+                } else if (entity instanceof Monster) {
+                    monsterList.add(entity);
+                    monsterViewList.add(views);
+                }
+            }
+        }
+        heroes = heroList.toArray(new Entity[0]);
+        heroViews = heroViewList.toArray(new LocalView[0][]);
+        monsters = monsterList.toArray(new Entity[0]);
+        monsterViews = monsterViewList.toArray(new LocalView[0][]);
+    }
+
+    /**
+     * A hero decides where to move
+     *
+     * @return The direction
+     */
+    @Benchmark
+    public Direction heroChooseMove() {
+        int i = nextHero;
+        nextHero = i + 1 == heroes.length ? 0 : i + 1;
+        return heroes[i].chooseMove(heroViews[i][0]);
+    }
+
+    /**
+     * A hero decides where to attack
+     *
+     * @return The direction
+     */
+    @Benchmark
+    public Direction heroAttackWhere() {
+        int i = nextHero;
+        nextHero = i + 1 == heroes.length ? 0 : i + 1;
+        return heroes[i].attackWhere(heroViews[i][1]);
+    }
+
+    /**
+     * A monster decides where to move
+     *
+     * @return The direction
+     */
+    @Benchmark
+    public Direction monsterChooseMove() {
+        int i = nextMonster;
+        nextMonster = i + 1 == monsters.length ? 0 : i + 1;
+        return monsters[i].chooseMove(monsterViews[i][0]);
+    }
+
+    /**
+     * A monster decides where to attack
+     *
+     * @return The direction
+     */
+    @Benchmark
+    public Direction monsterAttackWhere() {
+        int i = nextMonster;
+        nextMonster = i + 1 == monsters.length ? 0 : i + 1;
+        return monsters[i].attackWhere(monsterViews[i][1]);
+    }
+}
@@ -0,0 +1,82 @@
+package mvh.bench;
+
+import mvh.util.Reader;
+import mvh.world.World;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Time to load a text world file with Reader.loadWorld (the file is generated once per trial, every spot has a line)
+ * Run with -prof gc to see allocation per load
+ * @author Hasan Salhi
+ * @version 1.0
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class ReaderBenchmark {
+
+    /**
+     * Rows and columns of the generated world
+     */
+    @Param({"64", "256", "1024"})
+    public int size;
+
+    /**
+     * Chance of a non-wall spot holding a hero or monster
+     */
+    @Param({"0.05", "0.3"})
+    public double density;
+
+    /**
+     * The generated world file
+     */
+    private File file;
+
+    /**
+     * Write the world file
+     *
+     * @throws IOException If the temporary file cannot be made
+     */
+    @Setup(Level.Trial)
+    public void generate() throws IOException {
+        file = File.createTempFile("mvh-bench", ".txt");
+        BenchWorlds.write(file, size, density, 42);
+    }
+
+    /**
+     * Delete the world file
+     */
+    @TearDown(Level.Trial)
+    public void delete() {
+        file.delete();
+    }
+
+    /**
+     * Load the world file
+     *
+     * @return The loaded world
+     */
+    @Benchmark
+    public World loadWorld() {
+        return Reader.loadWorld(file);
+    }
+}
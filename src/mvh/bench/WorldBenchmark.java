@@ -0,0 +1,196 @@
+package mvh.bench;
+
+import mvh.world.LocalView;
+import mvh.world.World;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Throughput of the World hot paths: advancing a turn, local views, checkActive and rendering
+ * Run with the gc profiler to see allocation per operation as well: java -jar benchmarks.jar WorldBenchmark -prof gc
+ * @author Hasan Salhi
+ * @version 1.0
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class WorldBenchmark {
+
+    /**
+     * Rows and columns of the generated world
+     */
+    @Param({"64", "256", "1024"})
+    public int size;
+
+    /**
+     * Chance of a non-wall spot holding a hero or monster
+     */
+    @Param({"0.05", "0.3"})
+    public double density;
+
+    /**
+     * Untouched generated world, copied whenever a fresh one is needed
+     */
+    private World template;
+    /**
+     * The world being advanced
+     */
+    private World world;
+    /**
+     * Spots to center local views on (row, column pairs)
+     */
+    private int[] centers;
+    /**
+     * Next center to use
+     */
+    private int next;
+
+    /**
+     * Generate the world and the local view centers
+     */
+    @Setup(Level.Trial)
+    public void generate() {
+        template = BenchWorlds.generate(size, density, 42);
+        Random random = new Random(7);
+        centers = new int[2048];
+        for (int i = 0; i < centers.length; i++) {
+            centers[i] = random.nextInt(size);
+        }
+    }
+
+    /**
+     * Start every iteration from the generated world
+     */
+    @Setup(Level.Iteration)
+    public void reset() {
+        world = copyOfTemplate();
+        world.gameString();
+    }
+
+    /**
+     * A fresh copy of the generated world that can be simulated
+     *
+     * @return The copy
+     */
+    private World copyOfTemplate() {
+        World copy = template.copy();
+        copy.setQuiet(true);
+        copy.setRandom(new Random(42));
+        return copy;
+    }
+
+    /**
+     * One turn (starting over from the generated world if the last one ended the simulation)
+     *
+     * @return The turn played
+     */
+    @Benchmark
+    public long advanceSimulation() {
+        if (!world.isActive()) {
+            world = copyOfTemplate();
+        }
+        world.advanceSimulation();
+        return world.getTurn();
+    }
+
+    /**
+     * The copying 5x5 local view
+     *
+     * @return The view
+     */
+    @Benchmark
+    public World getLocal() {
+        int i = next;
+        next = (next + 2) & (centers.length - 1);
+        return world.getLocal(5, centers[i], centers[i + 1]);
+    }
+
+    /**
+     * The zero-copy 5x5 local view
+     *
+     * @return The view
+     */
+    @Benchmark
+    public LocalView getLocalView() {
+        int i = next;
+        next = (next + 2) & (centers.length - 1);
+        return world.getLocalView(5, centers[i], centers[i + 1]);
+    }
+
+    /**
+     * End of turn check of who is still alive
+     *
+     * @return True if the simulation is still active
+     */
+    @Benchmark
+    public boolean checkActive() {
+        world.checkActive();
+        return world.isActive();
+    }
+
+    /**
+     * worldString of a world that has not changed since it was last rendered
+     *
+     * @return The map
+     */
+    @Benchmark
+    public String worldStringCached() {
+        return world.worldString();
+    }
+
+    /**
+     * gameString of a world that has not changed since it was last rendered
+     *
+     * @return The map and entity table
+     */
+    @Benchmark
+    public String gameStringCached() {
+        return world.gameString();
+    }
+
+    /**
+     * Copy the world without rendering it (subtract from the fresh render benchmarks to get the render cost)
+     *
+     * @return The copy
+     */
+    @Benchmark
+    public World copy() {
+        return template.copy();
+    }
+
+    /**
+     * worldString of a world that has never been rendered (includes copying the world)
+     *
+     * @return The map
+     */
+    @Benchmark
+    public String worldStringFresh() {
+        return template.copy().worldString();
+    }
+
+    /**
+     * gameString of a world that has never been rendered (includes copying the world)
+     *
+     * @return The map and entity table
+     */
+    @Benchmark
+    public String gameStringFresh() {
+        return template.copy().gameString();
+    }
+}
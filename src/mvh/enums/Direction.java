@@ -2,6 +2,10 @@ package mvh.enums;
 
 import mvh.Main;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
 /**
  * Enumeration of directions in 2D grid
  * Helper class contains index adjustments if movement is wanted in that direction
@@ -56,7 +60,17 @@ public enum Direction {
      * @return A random Direction from the available 9 directions
      */
     public static Direction getRandomDirection() {
-        return Direction.values()[Main.random.nextInt(Direction.values().length)];
+        return BY_SIGN[Main.random.nextInt(BY_SIGN.length)];
+    }
+
+    /**
+     * Get a random direction from the set of 9 available options using the given random number generator
+     *
+     * @param random The random number generator to use
+     * @return A random Direction from the available 9 directions
+     */
+    public static Direction getRandomDirection(Random random) {
+        return BY_SIGN[random.nextInt(BY_SIGN.length)];
     }
 
     /**
@@ -67,26 +81,9 @@ public enum Direction {
      * @return A direction that matches the requested rowChange/col change
      */
     public static Direction getDirection(int rowChange, int columnChange) {
-        if (rowChange < 0 && columnChange < 0) {
-            return Direction.NORTHWEST;
-        } else if (rowChange < 0 && columnChange == 0) {
-            return Direction.NORTH;
-        } else if (rowChange < 0) {
-            return Direction.NORTHEAST;
-        } else if (rowChange == 0 && columnChange < 0) {
-            return Direction.WEST;
-        } else if (rowChange == 0 && columnChange == 0) {
-            return Direction.STAY;
-        } else if (rowChange == 0) {
-            return Direction.EAST;
-        } else if (columnChange < 0) {
-            return Direction.SOUTHWEST;
-        } else if (columnChange == 0) {
-            return Direction.SOUTH;
-        } else {
-            return Direction.SOUTHEAST;
-        }
+        return BY_SIGN[index(rowChange, columnChange)];
     }
+
     /**
      * Get list of directions that matches an i,j adjustment to current location
      *
@@ -95,24 +92,60 @@ public enum Direction {
      * @return A direction array that matches the requested rowChange/col change
      */
     public static Direction[] getDirections(int rowChange, int columnChange) {
-        if (rowChange < 0 && columnChange < 0) {
-            return new Direction[]{Direction.NORTHWEST,Direction.NORTH, Direction.WEST};
-        } else if (rowChange < 0 && columnChange == 0) {
-            return new Direction[]{Direction.NORTH,Direction.NORTHWEST, Direction.NORTHEAST};
-        } else if (rowChange < 0) {
-            return new Direction[]{Direction.NORTHEAST,Direction.NORTH, Direction.EAST};
-        } else if (rowChange == 0 && columnChange < 0) {
-            return new Direction[]{Direction.WEST,Direction.NORTHWEST, Direction.SOUTHWEST};
-        } else if (rowChange == 0 && columnChange == 0) {
-            return new Direction[]{Direction.STAY};
-        } else if (rowChange == 0) {
-            return new Direction[]{Direction.EAST,Direction.NORTHEAST, Direction.SOUTHEAST};
-        } else if (columnChange < 0) {
-            return new Direction[]{Direction.SOUTHWEST,Direction.SOUTH, Direction.WEST};
-        } else if (columnChange == 0) {
-            return new Direction[]{Direction.SOUTH,Direction.SOUTHWEST, Direction.SOUTHEAST};
-        } else {
-            return new Direction[]{Direction.SOUTHEAST,Direction.SOUTH, Direction.EAST};
+        return PREFERENCES.get(index(rowChange, columnChange)).toArray(new Direction[0]);
+    }
+
+    /**
+     * Directions to try, best first, when heading toward an i,j adjustment to current location (nothing is allocated)
+     * The direction itself, then for a diagonal the two straight directions it is made of, and for a straight direction
+     * the two diagonals either side of it
+     *
+     * @param rowChange    The rowChange change
+     * @param columnChange The column change
+     * @return Read-only list of the directions in order of preference
+     */
+    public static List<Direction> getPreferences(int rowChange, int columnChange) {
+        return PREFERENCES.get(index(rowChange, columnChange));
+    }
+
+    /**
+     * Position of the direction matching an i,j adjustment in the tables (only the signs matter)
+     *
+     * @param rowChange    The rowChange change
+     * @param columnChange The column change
+     * @return Index of the direction in values()
+     */
+    private static int index(int rowChange, int columnChange) {
+        return (Integer.signum(rowChange) + 1) * 3 + Integer.signum(columnChange) + 1;
+    }
+
+    /**
+     * Every direction, indexed by (sign of row change + 1) * 3 + (sign of column change + 1)
+     */
+    private static final Direction[] BY_SIGN = values();
+
+    /**
+     * Read-only preference list of each direction, indexed the same as BY_SIGN
+     */
+    private static final List<List<Direction>> PREFERENCES;
+
+    static {
+        List<List<Direction>> preferencesByDirection = new ArrayList<>(BY_SIGN.length);
+        for (Direction direction : BY_SIGN) {
+            int row = direction.rowChange;
+            int column = direction.columnChange;
+            List<Direction> preferences;
+            if (row == 0 && column == 0) {
+                preferences = List.of(direction);
+            } else if (row != 0 && column != 0) {
+                preferences = List.of(direction, getDirection(row, 0), getDirection(0, column));
+            } else if (row != 0) {
+                preferences = List.of(direction, getDirection(row, -1), getDirection(row, 1));
+            } else {
+                preferences = List.of(direction, getDirection(-1, column), getDirection(1, column));
+            }
+            preferencesByDirection.add(preferences);
         }
+        PREFERENCES = List.copyOf(preferencesByDirection);
     }
 }
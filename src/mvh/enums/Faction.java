@@ -0,0 +1,17 @@
+package mvh.enums;
+
+/**
+ * Enumeration of the two sides of the battle
+ * @author Hasan Salhi
+ * @version 1.0
+ */
+public enum Faction {
+    /**
+     * Heroes (they fight monsters)
+     */
+    HEROES,
+    /**
+     * Monsters (they fight heroes)
+     */
+    MONSTERS
+}
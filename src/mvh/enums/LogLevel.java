@@ -0,0 +1,22 @@
+package mvh.enums;
+
+/**
+ * Enumeration of how much of a run is logged, from most to least detail
+ * Setting a level logs it and every level after it
+ * @author Hasan Salhi
+ * @version 1.0
+ */
+public enum LogLevel {
+    /**
+     * Every move and attack of every entity
+     */
+    TRACE,
+    /**
+     * The map and entity table of every turn
+     */
+    INFO,
+    /**
+     * Only the outcome of the run
+     */
+    SUMMARY
+}
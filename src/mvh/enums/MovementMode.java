@@ -0,0 +1,18 @@
+package mvh.enums;
+
+/**
+ * Enumeration of the ways entities decide where to move
+ * @author Hasan Salhi
+ * @version 1.0
+ */
+public enum MovementMode {
+    /**
+     * Entities only react to what they can see in their 5x5 local view (Hero/Monster chooseMove)
+     */
+    LOCAL,
+    /**
+     * Entities with no enemy next to them walk toward the nearest enemy anywhere on the map, following a distance
+     * field shared by their whole side (falling back to chooseMove if no enemy can be reached)
+     */
+    PURSUIT
+}
@@ -0,0 +1,25 @@
+package mvh.enums;
+
+/**
+ * Enumeration of how a simulation can end up
+ * @author Hasan Salhi
+ * @version 1.0
+ */
+public enum Outcome {
+    /**
+     * Only heroes are still ALIVE
+     */
+    HEROES,
+    /**
+     * Only monsters are still ALIVE
+     */
+    MONSTERS,
+    /**
+     * Nobody is ALIVE
+     */
+    DRAW,
+    /**
+     * Both heroes and monsters are still ALIVE (simulation was stopped early)
+     */
+    UNDECIDED
+}
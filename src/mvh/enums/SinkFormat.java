@@ -0,0 +1,27 @@
+package mvh.enums;
+
+/**
+ * Enumeration of the record formats a StructuredSink can write
+ * @author Hasan Salhi
+ * @version 1.0
+ */
+public enum SinkFormat {
+    /**
+     * A header line then sequence,level,message per line (messages quoted, quotes doubled)
+     */
+    CSV,
+    /**
+     * One JSON object per line: {"seq":N,"level":"...","message":"..."}
+     */
+    JSON_LINES;
+
+    /**
+     * The format to use for a file, by its extension (.csv is CSV, anything else JSON lines)
+     *
+     * @param name The file name
+     * @return The format
+     */
+    public static SinkFormat forName(String name) {
+        return name.toLowerCase().endsWith(".csv") ? CSV : JSON_LINES;
+    }
+}
@@ -0,0 +1,21 @@
+package mvh.enums;
+
+/**
+ * Enumeration of the ways a World can store its grid
+ * @author Hasan Salhi
+ * @version 1.0
+ */
+public enum Storage {
+    /**
+     * One Entity reference per spot (the original Entity[][])
+     */
+    ARRAY,
+    /**
+     * One packed int per spot holding kind and entity handle (faster kind and symbol scans, entities are still objects)
+     */
+    PACKED,
+    /**
+     * Sparse, fixed size chunks that are only allocated while something is in them (for huge, mostly floor worlds)
+     */
+    CHUNKED
+}
@@ -1,12 +1,43 @@
 package mvh.test;
 
+import mvh.Main;
+import mvh.Menu;
 import mvh.enums.Direction;
+import mvh.enums.Faction;
+import mvh.enums.LogLevel;
+import mvh.enums.MovementMode;
+import mvh.enums.Outcome;
+import mvh.enums.SinkFormat;
+import mvh.enums.Storage;
 import mvh.enums.WeaponType;
+import mvh.util.AsyncLogger;
+import mvh.util.BinaryWorld;
+import mvh.util.Checkpoints;
+import mvh.util.DeltaLog;
+import mvh.util.EventLog;
+import mvh.util.EventReplay;
+import mvh.util.FanOutSink;
+import mvh.util.NullSink;
 import mvh.util.Reader;
+import mvh.util.RingSink;
+import mvh.util.StructuredSink;
+import mvh.util.WorldGenerator;
 import mvh.world.*;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
 import org.junit.jupiter.api.Test;
 
+import java.io.ByteArrayOutputStream;
 import java.io.File;
+import java.io.IOException;
+import java.io.StringWriter;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -502,4 +533,828 @@ class MvHTest {
         assertEquals(expected, actual);
     }
 
-}
\ No newline at end of file
+    /*
+     * The local view should see exactly what getLocal copies, including walls off the edge of the world
+     */
+    @Test
+    void getLocalViewMatchesGetLocal() {
+        Entity.resetIDCounter();
+        World testWorld = Reader.loadWorld(new File("worldbig2.txt"));
+
+        for (int row = 0; row < testWorld.getRows(); row++) {
+            for (int column = 0; column < testWorld.getColumns(); column++) {
+                World copy = testWorld.getLocal(5, row, column);
+                LocalView view = testWorld.getLocalView(5, row, column);
+                for (int i = 0; i < 5; i++) {
+                    for (int j = 0; j < 5; j++) {
+                        assertSame(copy.getEntity(i, j), view.getEntity(i, j));
+                    }
+                }
+            }
+        }
+
+        //Decisions made from the view should match decisions made from the copied world
+        assertEquals(testWorld.getEntity(3, 3).attackWhere(testWorld.getLocal(3, 3, 3)), testWorld.getEntity(3, 3).attackWhere(testWorld.getLocalView(3, 3, 3)));
+        assertEquals(testWorld.getEntity(4, 2).chooseMove(testWorld.getLocal(5, 4, 2)), testWorld.getEntity(4, 2).chooseMove(testWorld.getLocalView(5, 4, 2)));
+    }
+
+    /*
+     * Living counts should follow adds, overwrites and moves without scanning the map
+     */
+    @Test
+    void livingCountsMH() {
+        Entity.resetIDCounter();
+        World testWorld = Reader.loadWorld(new File("worldbig2.txt"));
+        testWorld.setDebug(true);
+
+        assertEquals(3, testWorld.getLivingHeroes());
+        assertEquals(4, testWorld.getLivingMonsters());
+
+        //Overwriting a living monster with a dead one removes it from the count
+        testWorld.addEntity(3, 3, new Monster(0, '$', WeaponType.AXE));
+        assertEquals(3, testWorld.getLivingMonsters());
+
+        //Moving on top of a corpse does not change the counts
+        testWorld.moveEntity(4, 3, Direction.NORTH);
+        assertEquals(3, testWorld.getLivingHeroes());
+
+        //Debug mode cross-checks the counts against a full scan
+        testWorld.checkActive();
+        assertTrue(testWorld.isActive());
+    }
+
+    /*
+     * Damage done straight to an entity after the world was rendered must show in the next render and in the counts
+     */
+    @Test
+    void directDamageRerendersRow() {
+        Entity.resetIDCounter();
+        Monster monster = new Monster(10, 'M', WeaponType.SWORD);
+        Hero hero = new Hero(10, 'H', 3, 1);
+        World world = new World(3, 3);
+        world.addEntity(0, 0, monster);
+        world.addEntity(2, 2, hero);
+        world.gameString();
+        world.takeChangedRows();
+        hero.damage(4);
+        monster.damage(10);
+        String expected = """
+                #####
+                #$..#
+                #...#
+                #..H#
+                #####
+                NAME   \tS\tH\tSTATE\tINFO
+                Mons(1)\tM\t0\tDEAD\tSWORD
+                Hero(2)\tH\t6\tALIVE\t3\t1
+                """;
+        assertEquals(expected, world.gameString());
+        int[] changed = world.takeChangedRows();
+        Arrays.sort(changed);
+        assertArrayEquals(new int[]{0, 2}, changed);
+        assertEquals("#$..#", world.mapRow(0));
+
+        //The kill is counted, so the heroes have won
+        assertEquals(0, world.getLivingMonsters());
+        assertEquals(1, world.getLivingHeroes());
+        assertEquals(Outcome.HEROES, world.getOutcome());
+        world.setDebug(true);
+        world.checkActive();
+        assertFalse(world.isActive());
+    }
+
+    /*
+     * Packed and chunked storage must play out exactly the same game as the original Entity[][] storage
+     */
+    @Test
+    void storagesMatchArray() throws IOException {
+        File log = File.createTempFile("mvh", ".log");
+        log.deleteOnExit();
+        Menu.setup(log);
+
+        for (String file : new String[]{"world.txt", "worldbig.txt", "worldbig2.txt"}) {
+            List<String> expected = playOut(file, Storage.ARRAY);
+            assertEquals(expected, playOut(file, Storage.PACKED));
+            assertEquals(expected, playOut(file, Storage.CHUNKED));
+        }
+    }
+
+    /**
+     * Load a world and advance it to the end with a fixed seed
+     *
+     * @param file    The world file
+     * @param storage The storage to load into
+     * @return gameString of every turn
+     */
+    private List<String> playOut(String file, Storage storage) {
+        Entity.resetIDCounter();
+        Main.random = new Random(12345);
+        World world = Reader.loadWorld(new File(file), storage);
+        List<String> turns = new ArrayList<>();
+        turns.add(world.gameString());
+        while (world.isActive()) {
+            world.advanceSimulation();
+            turns.add(world.gameString());
+        }
+        return turns;
+    }
+
+    /*
+     * Chunked storage should handle a huge world and work across chunk boundaries
+     */
+    @Test
+    void chunkedStorageHugeWorld() {
+        Entity.resetIDCounter();
+        World world = new World(100000, 100000, Storage.CHUNKED);
+        Hero hero = new Hero(10, 'H', 3, 1);
+        Monster monster = new Monster(10, 'M', WeaponType.AXE);
+        //Both sit on the corner of four chunks
+        world.addEntity(63, 63, hero);
+        world.addEntity(64, 65, monster);
+
+        LocalView view = world.getLocalView(5, 64, 64);
+        assertSame(hero, view.getEntity(1, 1));
+        assertSame(monster, view.getEntity(2, 3));
+
+        world.moveEntity(63, 63, Direction.SOUTHEAST);
+        assertNull(world.getEntity(63, 63));
+        assertSame(hero, world.getEntity(64, 64));
+        assertNull(world.getEntity(99999, 99999));
+
+        //The monster now sees the hero right next to it, across the chunk boundary
+        assertEquals(Direction.WEST, monster.attackWhere(world.getLocalView(3, 64, 65)));
+    }
+
+    /*
+     * Everything logged must be in the file once the logger is closed, even when the buffer keeps filling up
+     */
+    @Test
+    void asyncLoggerDrainsOnClose() throws IOException {
+        File log = File.createTempFile("mvh", ".log");
+        log.deleteOnExit();
+        AsyncLogger logger = new AsyncLogger(log, 4, 1000, false);
+        for (int i = 0; i < 1000; i++) {
+            logger.log("line " + i);
+        }
+        logger.close();
+
+        List<String> lines = Files.readAllLines(log.toPath());
+        assertEquals(1000, lines.size());
+        assertEquals("line 0", lines.get(0));
+        assertEquals("line 999", lines.get(999));
+        assertEquals(0, logger.getDropped());
+    }
+
+    /*
+     * Setting Menu up again must close (and so write out) the log of the earlier setup
+     */
+    @Test
+    void menuSetupClosesEarlierLog() throws IOException {
+        File first = File.createTempFile("mvh", ".log");
+        first.deleteOnExit();
+        File second = File.createTempFile("mvh", ".log");
+        second.deleteOnExit();
+        Menu.setup(first);
+        Menu.log("first");
+        Menu.setup(second);
+        assertEquals(List.of("first"), Files.readAllLines(first.toPath()));
+    }
+
+    /*
+     * Malformed world files are reported with the line they are on instead of ending the program
+     */
+    @Test
+    void loadWorldMalformed() throws IOException {
+        File bad = File.createTempFile("mvh", ".txt");
+        bad.deleteOnExit();
+        Files.writeString(bad.toPath(), "3\n3\n0,0,MONSTER,M,10,S\n0,1\n2,2,HERO,H,ten,3,1\n");
+
+        IllegalArgumentException e = assertThrows(IllegalArgumentException.class, () -> Reader.loadWorld(bad));
+        assertTrue(e.getMessage().contains("line 5"));
+    }
+
+    /*
+     * A world saved in the binary format should load back exactly the same
+     */
+    @Test
+    void binaryWorldRoundTrip() throws IOException {
+        Entity.resetIDCounter();
+        World expected = Reader.loadWorld(new File("worldbig2.txt"));
+        expected.addEntity(2, 0, Wall.getWall());
+        expected.addEntity(2, 3, Wall.getWall());
+        File binary = File.createTempFile("mvh", ".mvhw");
+        binary.deleteOnExit();
+        BinaryWorld.save(expected, binary);
+
+        assertTrue(BinaryWorld.isBinary(binary));
+        assertFalse(BinaryWorld.isBinary(new File("worldbig2.txt")));
+        Entity.resetIDCounter();
+        World actual = BinaryWorld.load(binary);
+        assertEquals(expected.gameString(), actual.gameString());
+    }
+
+    /*
+     * A copied world with its own seed plays exactly like the original with the same seed, and leaves the original alone
+     */
+    @Test
+    void copyPlaysIndependently() {
+        Entity.resetIDCounter();
+        World original = Reader.loadWorld(new File("worldbig.txt"));
+        original.setQuiet(true);
+        String start = original.gameString();
+
+        World copy = original.copy();
+        assertEquals(start, copy.gameString());
+        copy.setRandom(new Random(7));
+        while (copy.isActive()) {
+            copy.advanceSimulation();
+        }
+        assertEquals(start, original.gameString());
+        assertTrue(original.isActive());
+
+        original.setRandom(new Random(7));
+        while (original.isActive()) {
+            original.advanceSimulation();
+        }
+        assertEquals(copy.gameString(), original.gameString());
+        assertEquals(copy.getTurn(), original.getTurn());
+    }
+
+    /*
+     * Tiled parallel turns must play out the same whatever the number of threads
+     */
+    @Test
+    void parallelTurnsMatchAcrossThreadCounts() {
+        ForkJoinPool one = new ForkJoinPool(1);
+        ForkJoinPool four = new ForkJoinPool(4);
+        try {
+            List<String> expected = playParallel(one, Storage.ARRAY);
+            assertEquals(expected, playParallel(four, Storage.ARRAY));
+            //Packed storage frees handles when entities move onto corpses, which happens in several tiles at once
+            assertEquals(expected, playParallel(one, Storage.PACKED));
+            assertEquals(expected, playParallel(four, Storage.PACKED));
+        } finally {
+            one.shutdown();
+            four.shutdown();
+        }
+    }
+
+    /**
+     * Play out a random 64x64 battle with tiled parallel turns
+     *
+     * @param pool    The pool to resolve tiles on
+     * @param storage The storage to play on
+     * @return gameString of every turn
+     */
+    private List<String> playParallel(ForkJoinPool pool, Storage storage) {
+        Entity.resetIDCounter();
+        Random layout = new Random(42);
+        World world = new World(64, 64, storage);
+        for (int i = 0; i < 600; i++) {
+            int row = layout.nextInt(64);
+            int column = layout.nextInt(64);
+            if (world.getEntity(row, column) == null) {
+                if (layout.nextBoolean()) {
+                    world.addEntity(row, column, new Hero(5 + layout.nextInt(10), 'H', 4, 1));
+                } else {
+                    world.addEntity(row, column, new Monster(5 + layout.nextInt(10), 'M', WeaponType.SWORD));
+                }
+            }
+        }
+        world.setQuiet(true);
+        world.setDebug(true);
+        world.setParallel(pool, 4, 99);
+        List<String> turns = new ArrayList<>();
+        while (world.isActive()) {
+            world.advanceSimulation();
+            turns.add(world.gameString());
+        }
+        return turns;
+    }
+
+    /*
+     * In pursuit mode heroes and monsters far apart walk toward each other around walls until one side wins
+     */
+    @Test
+    void pursuitClosesDistance() {
+        Entity.resetIDCounter();
+        World world = new World(10, 10);
+        Hero hero = new Hero(50, 'H', 3, 0);
+        Monster monster = new Monster(50, 'M', WeaponType.CLUB);
+        world.addEntity(0, 0, hero);
+        world.addEntity(9, 9, monster);
+        //A wall across the middle with a gap at the far end
+        for (int column = 0; column < 9; column++) {
+            world.addEntity(5, column, Wall.getWall());
+        }
+        world.setQuiet(true);
+        world.setRandom(new Random(12));
+        world.setMovementMode(MovementMode.PURSUIT);
+
+        //Both take a step toward the gap (heroes first as they were added first)
+        world.advanceSimulation();
+        assertArrayEquals(new int[]{0, 1}, world.locate(hero));
+        assertEquals(8, world.locate(monster)[0]);
+        while (world.isActive() && world.getTurn() < 200) {
+            world.advanceSimulation();
+        }
+        assertFalse(world.isActive());
+        assertTrue(hero.isDead() || monster.isDead());
+    }
+
+    /*
+     * Direction tables: only the signs of an adjustment matter, and each direction is tried before its neighbours
+     */
+    @Test
+    void directionTables() {
+        assertEquals(Direction.NORTHWEST, Direction.getDirection(-2, -7));
+        assertEquals(Direction.STAY, Direction.getDirection(0, 0));
+        assertEquals(Direction.EAST, Direction.getDirection(0, 3));
+        assertArrayEquals(new Direction[]{Direction.SOUTHEAST, Direction.SOUTH, Direction.EAST}, Direction.getDirections(2, 1));
+        assertArrayEquals(new Direction[]{Direction.NORTH, Direction.NORTHWEST, Direction.NORTHEAST}, Direction.getDirections(-2, 0));
+        assertArrayEquals(new Direction[]{Direction.WEST, Direction.NORTHWEST, Direction.SOUTHWEST}, Direction.getDirections(0, -1));
+        for (Direction direction : Direction.values()) {
+            assertArrayEquals(Direction.getDirections(direction.getRowChange(), direction.getColumnChange()),
+                    Direction.getPreferences(direction.getRowChange(), direction.getColumnChange()).toArray());
+        }
+        assertThrows(UnsupportedOperationException.class, () -> Direction.getPreferences(1, 1).set(0, Direction.STAY));
+    }
+
+    /*
+     * Longer attack radii shoot the nearest enemy in range, longer perception radii walk toward enemies out of view
+     */
+    @Test
+    void attackAndPerceptionRadii() {
+        Entity.resetIDCounter();
+        World world = new World(30, 30);
+        Hero archer = new Hero(100, 'A', 20, 0);
+        Monster near = new Monster(100, 'N', WeaponType.CLUB);
+        Monster far = new Monster(100, 'F', WeaponType.CLUB);
+        world.addEntity(0, 0, archer);
+        world.addEntity(4, 3, near);
+        world.addEntity(0, 5, far);
+        world.setQuiet(true);
+        world.setRandom(new Random(14));
+        world.setAttackRadius(Faction.HEROES, 5);
+        world.setAttackRadius(Faction.MONSTERS, 5);
+        world.advanceSimulation();
+        //Nobody attacked themselves or moved, the archer hit the nearer monster and both monsters hit the archer
+        assertTrue(archer.getHealth() < 100);
+        assertTrue(near.getHealth() < 100);
+        assertEquals(100, far.getHealth());
+        assertArrayEquals(new int[]{0, 0}, world.locate(archer));
+
+        Entity.resetIDCounter();
+        World scouting = new World(30, 30);
+        Hero scout = new Hero(100, 'S', 3, 0);
+        scouting.addEntity(0, 0, scout);
+        scouting.addEntity(15, 15, new Monster(100, 'M', WeaponType.CLUB));
+        scouting.setQuiet(true);
+        scouting.setRandom(new Random(14));
+        scouting.setPerceptionRadius(Faction.HEROES, 20);
+        scouting.advanceSimulation();
+        assertArrayEquals(new int[]{1, 1}, scouting.locate(scout));
+        assertEquals(100, scout.getHealth());
+
+        assertThrows(IllegalArgumentException.class, () -> scouting.setAttackRadius(Faction.HEROES, 0));
+        assertThrows(IllegalArgumentException.class, () -> scouting.setPerceptionRadius(Faction.MONSTERS, 1));
+    }
+
+    /*
+     * The cached map and entity table must always match a fresh render (a copy has no cache yet)
+     */
+    @Test
+    void cachedRenderMatchesFreshRender() {
+        Entity.resetIDCounter();
+        World world = Reader.loadWorld(new File("worldbig.txt"));
+        world.setQuiet(true);
+        world.setRandom(new Random(3));
+        world.setMovementMode(MovementMode.PURSUIT);
+        while (world.isActive()) {
+            assertEquals(world.copy().gameString(), world.gameString());
+            assertEquals(world.copy().worldString(), world.worldString());
+            world.advanceSimulation();
+        }
+        world.addEntity(0, 0, new Hero(3, 'Z', 1, 1));
+        assertEquals(world.copy().gameString(), world.gameString());
+    }
+
+    @Test
+    void deltaLogRebuildsEveryTurn() throws IOException {
+        Entity.resetIDCounter();
+        World world = Reader.loadWorld(new File("worldbig.txt"));
+        world.setQuiet(true);
+        world.setRandom(new Random(5));
+        world.setMovementMode(MovementMode.PURSUIT);
+        DeltaLog frames = new DeltaLog(world, 4);
+        List<String> expected = new ArrayList<>();
+        StringBuilder log = new StringBuilder("Arguments: other lines are skipped\n");
+        while (world.isActive()) {
+            expected.add(world.gameString());
+            log.append(frames.nextFrame()).append('\n');
+            world.advanceSimulation();
+        }
+        File file = File.createTempFile("mvh", ".log");
+        file.deleteOnExit();
+        Files.writeString(file.toPath(), log);
+        for (int turn = 0; turn < expected.size(); turn++) {
+            assertEquals(expected.get(turn), DeltaLog.rebuild(file, turn));
+        }
+        assertThrows(IllegalArgumentException.class, () -> DeltaLog.rebuild(file, expected.size()));
+    }
+
+    @Test
+    void eventReplayMatchesRecordedRun() throws IOException {
+        Entity.resetIDCounter();
+        World world = Reader.loadWorld(new File("worldbig.txt"));
+        world.setQuiet(true);
+        world.setRandom(new Random(9));
+        world.setMovementMode(MovementMode.PURSUIT);
+        File events = File.createTempFile("mvh", ".events");
+        events.deleteOnExit();
+        EventLog.indexOf(events).deleteOnExit();
+        List<String> expected = new ArrayList<>();
+        EventLog log = new EventLog(world, events);
+        try {
+            expected.add(world.gameString());
+            while (world.isActive()) {
+                world.advanceSimulation();
+                expected.add(world.gameString());
+            }
+        } finally {
+            log.close();
+        }
+        try (EventReplay replay = new EventReplay(new File("worldbig.txt"), events)) {
+            assertEquals(expected.size() - 1, replay.getTurns());
+            for (int turn = 0; turn < expected.size(); turn++) {
+                assertEquals(expected.get(turn), replay.seek(turn).gameString());
+            }
+            assertEquals(expected.get(2), replay.seek(2).gameString());
+            assertFalse(replay.seek(replay.getTurns()).isActive());
+            assertThrows(IllegalArgumentException.class, () -> replay.seek(expected.size()));
+        }
+    }
+
+    /*
+     * Seeking with the run's checkpoints must give the same worlds in any order and leave the ID counter alone
+     */
+    @Test
+    void eventReplaySeeksFromCheckpoints() throws IOException {
+        Entity.resetIDCounter();
+        World world = Reader.loadWorld(new File("worldbig.txt"));
+        world.setQuiet(true);
+        world.setRandom(new Random(9));
+        File events = File.createTempFile("mvh", ".events");
+        events.deleteOnExit();
+        EventLog.indexOf(events).deleteOnExit();
+        File base = File.createTempFile("mvh", ".log");
+        base.deleteOnExit();
+        Checkpoints checkpoints = new Checkpoints(base, 3, 100);
+        List<String> expected = new ArrayList<>();
+        EventLog log = new EventLog(world, events);
+        try {
+            expected.add(world.gameString());
+            while (world.isActive()) {
+                world.advanceSimulation();
+                expected.add(world.gameString());
+                checkpoints.afterTurn(world);
+                new File(base.getPath() + "." + world.getTurn() + ".ckpt").deleteOnExit();
+            }
+        } finally {
+            log.close();
+        }
+        int next = Entity.nextID();
+        try (EventReplay replay = new EventReplay(new File("worldbig.txt"), events, base)) {
+            for (int turn = expected.size() - 1; turn >= 0; turn--) {
+                assertEquals(expected.get(turn), replay.seek(turn).gameString());
+            }
+            assertEquals(expected.get(expected.size() - 1), replay.seek(expected.size() - 1).gameString());
+            assertEquals(expected.get(4), replay.seek(4).gameString());
+        }
+        assertEquals(next, Entity.nextID());
+    }
+
+    @Test
+    void snapshotRestoresExactly() throws IOException {
+        Entity.resetIDCounter();
+        World world = Reader.loadWorld(new File("worldbig.txt"));
+        world.setQuiet(true);
+        world.setRandom(new Random(11));
+        world.setMovementMode(MovementMode.PURSUIT);
+        for (int i = 0; i < 5; i++) {
+            world.advanceSimulation();
+        }
+        File base = File.createTempFile("mvh", ".log");
+        base.deleteOnExit();
+        Checkpoints checkpoints = new Checkpoints(base, 1, 2);
+        File first = checkpoints.save(world);
+        first.deleteOnExit();
+        String nextHero = new Hero(1, 'A', 1, 1).shortString();
+
+        Entity.resetIDCounter();
+        World restored = Snapshot.load(first);
+        //Output settings are not part of a snapshot
+        restored.setQuiet(true);
+        assertEquals(nextHero, new Hero(1, 'A', 1, 1).shortString());
+        assertEquals(world.gameString(), restored.gameString());
+        assertEquals(MovementMode.PURSUIT, restored.getMovementMode());
+        assertEquals(5, restored.getTurn());
+        while (world.isActive()) {
+            world.advanceSimulation();
+            restored.advanceSimulation();
+            assertEquals(world.gameString(), restored.gameString());
+            new File(base.getPath() + "." + world.getTurn() + ".ckpt").deleteOnExit();
+            checkpoints.afterTurn(world);
+        }
+        assertEquals(world.getOutcome(), restored.getOutcome());
+        assertFalse(first.exists());
+        assertTrue(new File(base.getPath() + "." + world.getTurn() + ".ckpt").exists());
+        assertTrue(new File(base.getPath() + "." + (world.getTurn() - 1) + ".ckpt").exists());
+        assertFalse(new File(base.getPath() + "." + (world.getTurn() - 2) + ".ckpt").exists());
+    }
+
+    /*
+     * Snapshots left by an earlier run of the same base are rotated out too
+     */
+    @Test
+    void checkpointsRotateEarlierRuns() throws IOException {
+        File base = File.createTempFile("mvh", ".log");
+        base.deleteOnExit();
+        File[] earlier = new File[3];
+        for (int i = 0; i < earlier.length; i++) {
+            earlier[i] = new File(base.getPath() + "." + (i + 1) * 10 + ".ckpt");
+            earlier[i].deleteOnExit();
+            Files.writeString(earlier[i].toPath(), "old");
+        }
+        File other = new File(base.getPath() + ".x.ckpt");
+        other.deleteOnExit();
+        Files.writeString(other.toPath(), "not a snapshot of this run");
+
+        Checkpoints checkpoints = new Checkpoints(base, 1, 2);
+        World world = new World(2, 2);
+        world.setQuiet(true);
+        File saved = checkpoints.save(world);
+        saved.deleteOnExit();
+        assertFalse(earlier[0].exists());
+        assertFalse(earlier[1].exists());
+        assertTrue(earlier[2].exists());
+        assertTrue(saved.exists());
+        assertTrue(other.exists());
+    }
+
+    @Test
+    void generatedWorldLoads() throws IOException {
+        WorldGenerator generator = new WorldGenerator(40, 30, 4);
+        generator.setHeroDensity(0.1);
+        generator.setMonsterDensity(0.1);
+        generator.setClusterSize(8);
+        generator.setWeaponWeights(new double[]{0, 1, 0});
+        File file = File.createTempFile("mvh", ".txt");
+        file.deleteOnExit();
+        generator.write(file);
+        ByteArrayOutputStream again = new ByteArrayOutputStream();
+        generator.write(again);
+        assertArrayEquals(Files.readAllBytes(file.toPath()), again.toByteArray());
+
+        World world = Reader.loadWorld(file);
+        assertEquals(40, world.getRows());
+        assertEquals(30, world.getColumns());
+        assertTrue(world.getLivingHeroes() > 0);
+        assertTrue(world.getLivingMonsters() > 0);
+        for (Entity entity : world.getEntities()) {
+            if (entity instanceof Monster) {
+                assertEquals(WeaponType.AXE, ((Monster) entity).getWeaponType());
+            }
+        }
+        assertThrows(IllegalArgumentException.class, () -> generator.setWallDensity(0.9));
+    }
+
+    @Test
+    void metricsCountTheRun() {
+        Entity.resetIDCounter();
+        World world = Reader.loadWorld(new File("worldbig.txt"));
+        world.setQuiet(true);
+        world.setRandom(new Random(5));
+        world.setMovementMode(MovementMode.PURSUIT);
+        int living = world.getLivingHeroes() + world.getLivingMonsters();
+        SimulationMetrics metrics = new SimulationMetrics();
+        world.setMetrics(metrics);
+        while (world.isActive()) {
+            world.advanceSimulation();
+        }
+        assertEquals(world.getTurn(), metrics.getTurns());
+        assertEquals(living - world.getLivingHeroes() - world.getLivingMonsters(), metrics.getDeaths());
+        assertTrue(metrics.getMoves() > 0);
+        assertTrue(metrics.getAttacks() >= metrics.getZeroDamageHits());
+        assertTrue(metrics.getEntitiesActed() >= metrics.getMoves() + metrics.getFailedMoves());
+        assertTrue(metrics.getTurnP50Micros() <= metrics.getTurnP99Micros());
+        assertTrue(metrics.getTurnP99Micros() <= metrics.getTurnMaxMicros());
+        assertTrue(metrics.getDecisionNanos() > 0);
+        assertTrue(metrics.snapshot().startsWith("Turns: " + world.getTurn()));
+        metrics.reset();
+        assertEquals(0, metrics.getTurns());
+        assertEquals(0, metrics.turnPercentileNanos(50));
+    }
+
+    @Test
+    void flightEventsRecordTheRun() throws IOException {
+        Entity.resetIDCounter();
+        File file = File.createTempFile("mvh", ".jfr");
+        file.deleteOnExit();
+        SimulationMetrics metrics = new SimulationMetrics();
+        try (Recording recording = new Recording()) {
+            recording.enable("mvh.Turn");
+            recording.enable("mvh.Move");
+            recording.enable("mvh.Attack");
+            recording.enable("mvh.Death");
+            recording.enable("mvh.LoadWorld");
+            recording.start();
+            World world = Reader.loadWorld(new File("worldbig.txt"));
+            world.setQuiet(true);
+            world.setRandom(new Random(5));
+            world.setMovementMode(MovementMode.PURSUIT);
+            world.setMetrics(metrics);
+            while (world.isActive()) {
+                world.advanceSimulation();
+            }
+            recording.stop();
+            recording.dump(file.toPath());
+        }
+        int turns = 0, moves = 0, attacks = 0, deaths = 0, loads = 0;
+        for (RecordedEvent event : RecordingFile.readAllEvents(file.toPath())) {
+            switch (event.getEventType().getName()) {
+                case "mvh.Turn" -> turns++;
+                case "mvh.Move" -> moves++;
+                case "mvh.Attack" -> {
+                    attacks++;
+                    assertNotEquals("None", event.getString("targetKind"));
+                }
+                case "mvh.Death" -> deaths++;
+                case "mvh.LoadWorld" -> {
+                    loads++;
+                    assertEquals(5, event.getInt("rows"));
+                }
+                default -> {
+                }
+            }
+        }
+        assertEquals(metrics.getTurns(), turns);
+        assertEquals(metrics.getMoves(), moves);
+        assertEquals(metrics.getAttacks(), attacks);
+        assertEquals(metrics.getDeaths(), deaths);
+        assertEquals(1, loads);
+    }
+
+    @Test
+    void disabledLevelsBuildNothing() {
+        try {
+            Menu.setLevel(LogLevel.SUMMARY);
+            assertFalse(Menu.isEnabled(LogLevel.TRACE));
+            assertFalse(Menu.isEnabled(LogLevel.INFO));
+            assertTrue(Menu.isEnabled(LogLevel.SUMMARY));
+            Menu.println(LogLevel.TRACE, () -> {
+                fail("A TRACE message was built while logging SUMMARY");
+                return "";
+            });
+            Menu.printf(LogLevel.INFO, "%s", new Object() {
+                @Override
+                public String toString() {
+                    fail("An INFO message was formatted while logging SUMMARY");
+                    return "";
+                }
+            });
+            assertThrows(IllegalArgumentException.class, () -> Menu.setLevel(null));
+        } finally {
+            Menu.setLevel(LogLevel.TRACE);
+        }
+        assertTrue(Menu.isEnabled(LogLevel.TRACE));
+    }
+
+    @Test
+    void worldsWriteToTheirOwnSinks() {
+        RingSink first = new RingSink(1000);
+        RingSink second = new RingSink(1000);
+        RingSink summaries = new RingSink(10);
+        for (RingSink sink : new RingSink[]{first, second}) {
+            Entity.resetIDCounter();
+            World world = Reader.loadWorld(new File("worldbig.txt"));
+            world.setRandom(new Random(3));
+            world.setSink(new FanOutSink(sink, summaries.atLeast(LogLevel.SUMMARY)));
+            while (world.isActive()) {
+                world.advanceSimulation();
+            }
+        }
+        assertTrue(first.getWritten() > 0);
+        assertEquals(first.lines(), second.lines());
+        assertEquals(0, summaries.getWritten());
+
+        RingSink last = new RingSink(2);
+        last.write(LogLevel.TRACE, "a");
+        last.write(LogLevel.TRACE, "b");
+        last.write(LogLevel.TRACE, "c");
+        assertEquals(List.of("b", "c"), last.lines());
+        assertFalse(NullSink.INSTANCE.isEnabled(LogLevel.SUMMARY));
+
+        StringWriter json = new StringWriter();
+        try (StructuredSink sink = new StructuredSink(json, SinkFormat.JSON_LINES, "test")) {
+            sink.write(LogLevel.INFO, "say \"hi\"\n\tnow");
+        }
+        assertEquals("{\"seq\":1,\"level\":\"INFO\",\"message\":\"say \\\"hi\\\"\\n\\tnow\"}\n", json.toString());
+    }
+
+    @Test
+    void scheduleDropsTheDead() {
+        Entity.resetIDCounter();
+        World world = Reader.loadWorld(new File("worldbig.txt"));
+        world.setQuiet(true);
+        world.setRandom(new Random(11));
+        world.setMovementMode(MovementMode.PURSUIT);
+        assertEquals(world.getLivingHeroes(), world.getActing(Faction.HEROES));
+        assertEquals(world.getLivingMonsters(), world.getActing(Faction.MONSTERS));
+        World copy = world.copy();
+        copy.setRandom(new Random(11));
+        while (world.isActive()) {
+            world.advanceSimulation();
+            int heroes = 0, monsters = 0;
+            for (Entity entity : world.getEntities()) {
+                if (entity instanceof Hero && entity.isAlive()) {
+                    heroes++;
+                } else if (entity instanceof Monster && entity.isAlive()) {
+                    monsters++;
+                }
+            }
+            assertEquals(heroes, world.getActing(Faction.HEROES));
+            assertEquals(monsters, world.getActing(Faction.MONSTERS));
+        }
+        while (copy.isActive()) {
+            copy.advanceSimulation();
+        }
+        assertEquals(world.gameString(), copy.gameString());
+
+        //Killed from outside a turn, gone from the schedule once the turn ends
+        Entity.resetIDCounter();
+        World replayed = Reader.loadWorld(new File("world.txt"));
+        replayed.damageEntity(0, 0, 100);
+        assertEquals(1, replayed.getActing(Faction.MONSTERS));
+        replayed.endTurn();
+        assertEquals(0, replayed.getActing(Faction.MONSTERS));
+        assertEquals(1, replayed.getActing(Faction.HEROES));
+    }
+
+    /*
+     * The random fallback move must check the spot next to the entity (the centre of its view), not the view's corner
+     */
+    @Test
+    void randomFallbackChecksNextToCentre() {
+        assertFallback(new Hero(10, 'H', 1, 1), Direction.SOUTH);
+        assertFallback(new Monster(10, 'M', WeaponType.CLUB), Direction.NORTH);
+    }
+
+    /**
+     * Wall in an entity in the middle of a 5x5 view except for one open spot next to it, every move must be that
+     * spot or STAY
+     *
+     * @param entity The entity to move
+     * @param open   The only direction it can move
+     */
+    private void assertFallback(Entity entity, Direction open) {
+        boolean moved = false;
+        for (int seed = 0; seed < 200; seed++) {
+            Entity.resetIDCounter();
+            World local = new World(5, 5);
+            for (int row = 0; row < 5; row++) {
+                for (int column = 0; column < 5; column++) {
+                    if (row == 2 && column == 2) {
+                        local.addEntity(row, column, entity);
+                    } else if (row != 2 + open.getRowChange() || column != 2 + open.getColumnChange()) {
+                        local.addEntity(row, column, Wall.getWall());
+                    }
+                }
+            }
+            local.setRandom(new Random(seed));
+            Direction move = entity.chooseMove(local);
+            assertTrue(move == open || move == Direction.STAY, "Moved " + move + " with seed " + seed);
+            moved |= move == open;
+        }
+        assertTrue(moved);
+    }
+
+    /*
+     * A getLocal view holds its parent's entities without taking over their slots in the parent
+     */
+    @Test
+    void localCopiesDoNotTakeSlots() {
+        Entity.resetIDCounter();
+        World world = new World(6, 6);
+        Hero hero = new Hero(10, 'H', 1, 1);
+        world.addEntity(4, 4, hero);
+        world.addEntity(0, 0, Wall.getWall());
+        World local = world.getLocal(5, 4, 4);
+        assertArrayEquals(new int[]{2, 2}, local.locate(hero));
+        world.moveEntity(4, 4, Direction.NORTH);
+        assertArrayEquals(new int[]{3, 4}, world.locate(hero));
+        assertArrayEquals(new int[]{2, 2}, local.locate(hero));
+        assertNull(new World(2, 2).locate(hero));
+    }
+
+}
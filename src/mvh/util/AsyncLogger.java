@@ -0,0 +1,262 @@
+package mvh.util;
+
+import mvh.enums.LogLevel;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Class to handle logging information out to a log file without making the program wait on the disk
+ * Messages are handed to a background writer through a bounded ring buffer and written out in large batches
+ * Everything logged is written out when the logger is closed, which is up to whoever made it (no shutdown hook is
+ * registered here, so a logger is never closed behind its owner's back)
+ * @author Hasan Salhi
+ * @version 1.0
+ */
+public final class AsyncLogger implements OutputSink {
+
+    /**
+     * Default number of messages the ring buffer can hold
+     */
+    public static final int DEFAULT_CAPACITY = 8192;
+    /**
+     * Default longest time a message waits in the buffer before being written
+     */
+    public static final long DEFAULT_FLUSH_MILLIS = 100;
+
+    /**
+     * Where batches are written
+     */
+    private final Writer writer;
+    /**
+     * The ring buffer of messages waiting to be written
+     */
+    private final String[] ring;
+    /**
+     * Index of the oldest message in the ring
+     */
+    private int head;
+    /**
+     * Number of messages in the ring
+     */
+    private int count;
+    /**
+     * Once this many messages are waiting the writer is woken up early
+     */
+    private final int batchSize;
+    /**
+     * Longest time a message waits in the buffer before being written
+     */
+    private final long flushNanos;
+    /**
+     * Drop messages (and count them) when the buffer is full instead of making the caller wait
+     */
+    private final boolean dropWhenFull;
+    /**
+     * Messages that were dropped because the buffer was full (or the logger was closed)
+     */
+    private long dropped;
+    /**
+     * Has close been called
+     */
+    private boolean closed;
+    /**
+     * Guards the ring buffer
+     */
+    private final ReentrantLock lock = new ReentrantLock();
+    /**
+     * Signalled when there are messages for the writer
+     */
+    private final Condition notEmpty = lock.newCondition();
+    /**
+     * Signalled when the writer has made room in the ring
+     */
+    private final Condition notFull = lock.newCondition();
+    /**
+     * The background writer
+     */
+    private final Thread thread;
+
+    /**
+     * Constructs a logger with the default buffer size and flush interval that waits when the buffer is full
+     * Prints error message to System Error and exits if log file cannot be found
+     *
+     * @param fileLog The log file
+     */
+    public AsyncLogger(File fileLog) {
+        this(fileLog, DEFAULT_CAPACITY, DEFAULT_FLUSH_MILLIS, false);
+    }
+
+    /**
+     * Constructs a logger
+     * Prints error message to System Error and exits if log file cannot be found
+     *
+     * @param fileLog      The log file
+     * @param capacity     Number of messages the buffer can hold
+     * @param flushMillis  Longest time a message waits in the buffer before being written
+     * @param dropWhenFull True to drop (and count) messages when the buffer is full, false to make the caller wait
+     */
+    public AsyncLogger(File fileLog, int capacity, long flushMillis, boolean dropWhenFull) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("Capacity must be > 0. Value given was " + capacity + "!");
+        }
+        Writer opened = null;
+        try {
+            opened = new BufferedWriter(new OutputStreamWriter(new FileOutputStream(fileLog)), 1 << 16);
+        } catch (FileNotFoundException e) {
+            System.err.printf("Unable to open log file %s!%n", fileLog.getAbsoluteFile());
+            System.exit(1);
+        }
+        this.writer = opened;
+        this.ring = new String[capacity];
+        this.batchSize = Math.max(1, capacity / 2);
+        this.flushNanos = TimeUnit.MILLISECONDS.toNanos(flushMillis);
+        this.dropWhenFull = dropWhenFull;
+        this.thread = new Thread(this::writeLoop, "mvh-logger");
+        this.thread.setDaemon(true);
+        this.thread.start();
+    }
+
+    /**
+     * Stores the given Object into the log file (written out later by the background writer)
+     * The object is converted to a string when added to the buffer
+     *
+     * @param obj The object to store in the log file (note, a new line is added on the end)
+     */
+    public void log(Object obj) {
+        String message = String.valueOf(obj);
+        lock.lock();
+        try {
+            while (count == ring.length && !closed) {
+                if (dropWhenFull) {
+                    dropped++;
+                    return;
+                }
+                notFull.awaitUninterruptibly();
+            }
+            if (closed) {
+                dropped++;
+                return;
+            }
+            ring[(head + count) % ring.length] = message;
+            count++;
+            if (count >= batchSize) {
+                notEmpty.signal();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Log a message as an output sink (every level is logged)
+     *
+     * @param level   The level of the message
+     * @param message The message
+     */
+    @Override
+    public void write(LogLevel level, String message) {
+        log(message);
+    }
+
+    /**
+     * Number of messages dropped because the buffer was full or the logger was already closed
+     *
+     * @return The number of messages that never made it to the log file
+     */
+    public long getDropped() {
+        lock.lock();
+        try {
+            return dropped;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Write out everything still buffered and close the log file (safe to call more than once)
+     */
+    @Override
+    public void close() {
+        lock.lock();
+        try {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            notEmpty.signalAll();
+            notFull.signalAll();
+        } finally {
+            lock.unlock();
+        }
+        try {
+            thread.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        try {
+            writer.close();
+        } catch (IOException e) {
+            System.err.println("Unable to close log file! " + e.getMessage());
+        }
+        if (dropped > 0) {
+            System.err.printf("Log buffer was full, %d messages were dropped!%n", dropped);
+        }
+    }
+
+    /**
+     * The background writer, waits for a batch (or the flush interval) then writes everything buffered in one go
+     */
+    private void writeLoop() {
+        String[] batch = new String[ring.length];
+        boolean failed = false;
+        while (true) {
+            int taken;
+            boolean last;
+            lock.lock();
+            try {
+                if (count < batchSize && !closed) {
+                    notEmpty.awaitNanos(flushNanos);
+                }
+                taken = count;
+                for (int i = 0; i < taken; i++) {
+                    int index = (head + i) % ring.length;
+                    batch[i] = ring[index];
+                    ring[index] = null;
+                }
+                head = (head + taken) % ring.length;
+                count = 0;
+                last = closed;
+                notFull.signalAll();
+            } catch (InterruptedException e) {
+                continue;
+            } finally {
+                lock.unlock();
+            }
+            if (taken > 0 && !failed) {
+                try {
+                    for (int i = 0; i < taken; i++) {
+                        writer.write(batch[i]);
+                        writer.write(System.lineSeparator());
+                        batch[i] = null;
+                    }
+                    writer.flush();
+                } catch (IOException e) {
+                    System.err.println("Unable to write to log file! " + e.getMessage());
+                    failed = true;
+                }
+            }
+            if (last) {
+                return;
+            }
+        }
+    }
+}
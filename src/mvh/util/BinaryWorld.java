@@ -0,0 +1,298 @@
+package mvh.util;
+
+import mvh.enums.Storage;
+import mvh.enums.WeaponType;
+import mvh.world.Entity;
+import mvh.world.Hero;
+import mvh.world.Monster;
+import mvh.world.Wall;
+import mvh.world.World;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+/**
+ * Compact binary world files
+ * Layout (big-endian):
+ * <pre>
+ * header   "MVHW" magic, short version, short reserved, int rows, int columns, int entity count
+ * walls    rows*columns bits, row-major, 1 = wall (padded to a whole byte)
+ * entities fixed width records in turn order:
+ *          int row, int column, byte kind (1 hero, 2 monster), char symbol, int health,
+ *          int weapon (hero strength or monster WeaponType ordinal), int armor, byte reserved
+ * </pre>
+ * Can be run as a program to convert a text world file: BinaryWorld &lt;world.txt&gt; &lt;world.mvhw&gt;
+ * @author Hasan Salhi
+ * @version 1.0
+ */
+public final class BinaryWorld {
+
+    /**
+     * First 4 bytes of every binary world file
+     */
+    private static final int MAGIC = ('M' << 24) | ('V' << 16) | ('H' << 8) | 'W';
+    /**
+     * Version of the layout written by this class
+     */
+    private static final short VERSION = 1;
+    /**
+     * Bytes in the header
+     */
+    private static final int HEADER_SIZE = 20;
+    /**
+     * Bytes in one entity record
+     */
+    private static final int RECORD_SIZE = 24;
+    /**
+     * Entity record kind for a hero
+     */
+    private static final byte KIND_HERO = 1;
+    /**
+     * Entity record kind for a monster
+     */
+    private static final byte KIND_MONSTER = 2;
+
+    /**
+     * Convert a text world file to a binary world file
+     *
+     * @param args Program arguments, Usage: BinaryWorld &lt;world.txt&gt; &lt;world.mvhw&gt;
+     */
+    public static void main(String[] args) {
+        if (args.length != 2) {
+            System.err.println("Usage: BinaryWorld <world.txt> <world.mvhw>");
+            System.exit(1);
+        }
+        try {
+            long start = System.nanoTime();
+            World world = Reader.loadWorld(new File(args[0]));
+            save(world, new File(args[1]));
+            System.out.printf("Converted %s to %s in %.3f ms%n", args[0], args[1], (System.nanoTime() - start) / 1e6);
+        } catch (IllegalArgumentException | UncheckedIOException e) {
+            System.err.println(e.getMessage());
+            System.exit(1);
+        }
+    }
+
+    /**
+     * Is a file a binary world file (starts with the magic bytes)
+     *
+     * @param file The file to check
+     * @return True if the file starts with the binary world magic
+     */
+    public static boolean isBinary(File file) {
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            ByteBuffer magic = ByteBuffer.allocate(4);
+            while (magic.hasRemaining() && channel.read(magic) > 0) {
+                //Keep reading until we have 4 bytes or the file ends
+            }
+            return !magic.hasRemaining() && magic.getInt(0) == MAGIC;
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Write the current state of a world as a binary world file
+     * Walls go in the wall bitmap, heroes and monsters still on the map become entity records in turn order
+     *
+     * @param world The world to save
+     * @param file  The file to write
+     */
+    public static void save(World world, File file) {
+        try (OutputStream stream = new BufferedOutputStream(new FileOutputStream(file), 1 << 16)) {
+            write(world, stream);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Unable to write binary world file " + file.getAbsoluteFile(), e);
+        }
+    }
+
+    /**
+     * Write the current state of a world in binary world layout to a stream
+     *
+     * @param world  The world to save
+     * @param stream Where to write (not closed)
+     * @throws IOException If the stream cannot be written
+     */
+    public static void write(World world, OutputStream stream) throws IOException {
+        DataOutputStream out = new DataOutputStream(stream);
+        int rows = world.getRows();
+        int columns = world.getColumns();
+        List<Entity> entities = world.getEntities();
+
+        int count = 0;
+        for (Entity entity : entities) {
+            if ((entity instanceof Hero || entity instanceof Monster) && world.locate(entity) != null) {
+                count++;
+            }
+        }
+        out.writeInt(MAGIC);
+        out.writeShort(VERSION);
+        out.writeShort(0);
+        out.writeInt(rows);
+        out.writeInt(columns);
+        out.writeInt(count);
+
+        int bits = 0;
+        int used = 0;
+        for (int row = 0; row < rows; row++) {
+            for (int column = 0; column < columns; column++) {
+                if (world.getEntity(row, column) instanceof Wall) {
+                    bits |= 0x80 >>> used;
+                }
+                used++;
+                if (used == 8) {
+                    out.writeByte(bits);
+                    bits = 0;
+                    used = 0;
+                }
+            }
+        }
+        if (used > 0) {
+            out.writeByte(bits);
+        }
+
+        for (Entity entity : entities) {
+            if (!(entity instanceof Hero || entity instanceof Monster)) {
+                continue;
+            }
+            int[] location = world.locate(entity);
+            if (location == null) {
+                continue;
+            }
+            out.writeInt(location[0]);
+            out.writeInt(location[1]);
+            if (entity instanceof Hero) {
+                out.writeByte(KIND_HERO);
+                out.writeChar(entity.getSymbol());
+                out.writeInt(entity.getHealth());
+                out.writeInt(entity.weaponStrength());
+                out.writeInt(entity.armorStrength());
+            } else {
+                out.writeByte(KIND_MONSTER);
+                out.writeChar(entity.getSymbol());
+                out.writeInt(entity.getHealth());
+                out.writeInt(((Monster) entity).getWeaponType().ordinal());
+                out.writeInt(entity.armorStrength());
+            }
+            out.writeByte(0);
+        }
+        out.flush();
+    }
+
+    /**
+     * Load a binary world file in one bulk read
+     *
+     * @param file The binary world file
+     * @return The loaded world
+     */
+    public static World load(File file) {
+        return load(file, Storage.ARRAY);
+    }
+
+    /**
+     * Load a binary world file in one bulk read into a world with the requested grid storage
+     * Throws an IllegalArgumentException if the file is not a valid binary world, and an UncheckedIOException if it
+     * cannot be read
+     *
+     * @param file    The binary world file
+     * @param storage How the loaded World should store its grid
+     * @return The loaded world
+     */
+    public static World load(File file, Storage storage) {
+        ByteBuffer buffer;
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size > Integer.MAX_VALUE) {
+                throw new IllegalArgumentException("Binary world file " + file.getName() + " is too big to load!");
+            }
+            buffer = ByteBuffer.allocate((int) size);
+            while (buffer.hasRemaining() && channel.read(buffer) >= 0) {
+                //Keep reading until the whole file is in the buffer
+            }
+            buffer.flip();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Unable to read binary world file " + file.getAbsoluteFile(), e);
+        }
+        try {
+            return read(buffer, storage, file.getName());
+        } catch (BufferUnderflowException e) {
+            throw new IllegalArgumentException("Binary world file " + file.getName() + " is cut short!");
+        }
+    }
+
+    /**
+     * Build a world from binary world layout
+     *
+     * @param buffer  The bytes of a binary world (position at the magic)
+     * @param storage How the loaded World should store its grid
+     * @param name    Name of where the bytes came from (for error messages)
+     * @return The loaded world
+     */
+    static World read(ByteBuffer buffer, Storage storage, String name) {
+        if (buffer.remaining() < HEADER_SIZE || buffer.getInt() != MAGIC) {
+            throw new IllegalArgumentException("File " + name + " is not a binary world file!");
+        }
+        short version = buffer.getShort();
+        if (version != VERSION) {
+            throw new IllegalArgumentException("Binary world file " + name + " is version " + version + ", expected " + VERSION + "!");
+        }
+        buffer.getShort();
+        int rows = buffer.getInt();
+        int columns = buffer.getInt();
+        int count = buffer.getInt();
+        long cells = (long) rows * columns;
+        if (rows < 0 || columns < 0 || count < 0 || buffer.remaining() < (cells + 7) / 8 + (long) count * RECORD_SIZE) {
+            throw new IllegalArgumentException("Binary world file " + name + " is cut short or has a bad header!");
+        }
+        World world = new World(rows, columns, storage);
+
+        Wall wall = Wall.getWall();
+        long cell = 0;
+        int bitmapBytes = (int) ((cells + 7) / 8);
+        for (int i = 0; i < bitmapBytes; i++) {
+            int bits = buffer.get() & 0xFF;
+            if (bits == 0) {
+                cell += 8;
+                continue;
+            }
+            for (int bit = 0; bit < 8 && cell < cells; bit++, cell++) {
+                if ((bits & (0x80 >>> bit)) != 0) {
+                    world.addEntity((int) (cell / columns), (int) (cell % columns), wall);
+                }
+            }
+        }
+
+        WeaponType[] weapons = WeaponType.values();
+        for (int i = 0; i < count; i++) {
+            int row = buffer.getInt();
+            int column = buffer.getInt();
+            byte kind = buffer.get();
+            char symbol = buffer.getChar();
+            int health = buffer.getInt();
+            int weapon = buffer.getInt();
+            int armor = buffer.getInt();
+            buffer.get();
+            if (row < 0 || row >= rows || column < 0 || column >= columns || health < 0) {
+                throw new IllegalArgumentException("Binary world file " + name + " entity record " + i + " is invalid!");
+            }
+            if (kind == KIND_HERO) {
+                world.addEntity(row, column, new Hero(health, symbol, weapon, armor));
+            } else if (kind == KIND_MONSTER && weapon >= 0 && weapon < weapons.length) {
+                world.addEntity(row, column, new Monster(health, symbol, weapons[weapon]));
+            } else {
+                throw new IllegalArgumentException("Binary world file " + name + " entity record " + i + " is invalid!");
+            }
+        }
+        return world;
+    }
+}
@@ -0,0 +1,130 @@
+package mvh.util;
+
+import mvh.world.Snapshot;
+import mvh.world.World;
+
+import java.io.File;
+import java.util.ArrayDeque;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+
+/**
+ * Saves a snapshot of a World every few turns, keeping only the newest few on disk
+ * Snapshots are named after a base file and the turn they were taken at (base.TURN.ckpt), the oldest is deleted once
+ * there are more than the number to keep, so disk use stays bounded however long the simulation runs
+ * Snapshots already on disk for the same base (left by an earlier run) are counted too, so restarting does not leave
+ * them behind
+ * @author Hasan Salhi
+ * @version 1.0
+ */
+public final class Checkpoints {
+
+    /**
+     * Snapshot files are named after this file
+     */
+    private final File base;
+    /**
+     * A snapshot is taken every this many turns
+     */
+    private final int interval;
+    /**
+     * Number of snapshots kept on disk
+     */
+    private final int keep;
+    /**
+     * Snapshots on disk, oldest first (ones found on disk come first, by turn)
+     */
+    private final ArrayDeque<File> saved = new ArrayDeque<>();
+
+    /**
+     * Checkpoints for a simulation
+     *
+     * @param base     Snapshot files are named after this file
+     * @param interval A snapshot is taken every this many turns
+     * @param keep     Number of snapshots kept on disk
+     */
+    public Checkpoints(File base, int interval, int keep) {
+        if (interval < 1) {
+            throw new IllegalArgumentException("Checkpoint interval must be >= 1. Value given was " + interval + "!");
+        }
+        if (keep < 1) {
+            throw new IllegalArgumentException("Checkpoints kept must be >= 1. Value given was " + keep + "!");
+        }
+        this.base = base;
+        this.interval = interval;
+        this.keep = keep;
+        saved.addAll(onDisk(base).values());
+    }
+
+    /**
+     * Snapshot files of a base already on disk
+     *
+     * @param base Snapshot files are named after this file
+     * @return The files by the turn they were taken at
+     */
+    static NavigableMap<Long, File> onDisk(File base) {
+        NavigableMap<Long, File> found = new TreeMap<>();
+        File directory = base.getAbsoluteFile().getParentFile();
+        File[] files = directory == null ? null : directory.listFiles();
+        if (files != null) {
+            for (File file : files) {
+                long turn = turnOf(base, file);
+                if (turn >= 0) {
+                    found.put(turn, file);
+                }
+            }
+        }
+        return found;
+    }
+
+    /**
+     * Turn a snapshot file of a base was taken at
+     *
+     * @param base Snapshot files are named after this file
+     * @param file The file
+     * @return The turn, -1 if the file is not named base.TURN.ckpt
+     */
+    private static long turnOf(File base, File file) {
+        String name = file.getName();
+        String prefix = base.getName() + ".";
+        if (!name.startsWith(prefix) || !name.endsWith(".ckpt")) {
+            return -1;
+        }
+        String turn = name.substring(prefix.length(), name.length() - ".ckpt".length());
+        if (turn.isEmpty() || turn.length() > 18 || !turn.chars().allMatch(Character::isDigit)) {
+            return -1;
+        }
+        return Long.parseLong(turn);
+    }
+
+    /**
+     * Take a snapshot if the world is at a checkpoint turn (call once each turn is done)
+     *
+     * @param world The world being simulated
+     */
+    public void afterTurn(World world) {
+        if (world.getTurn() % interval == 0) {
+            save(world);
+        }
+    }
+
+    /**
+     * Take a snapshot now, deleting the oldest if there are too many
+     *
+     * @param world The world being simulated
+     * @return The snapshot file
+     */
+    public File save(World world) {
+        File file = new File(base.getPath() + "." + world.getTurn() + ".ckpt");
+        Snapshot.save(world, file);
+        saved.remove(file);
+        saved.addLast(file);
+        while (saved.size() > keep) {
+            File oldest = saved.removeFirst();
+            if (!oldest.delete()) {
+                oldest.deleteOnExit();
+            }
+        }
+        return file;
+    }
+}
@@ -0,0 +1,47 @@
+package mvh.util;
+
+import mvh.enums.LogLevel;
+
+import java.io.PrintStream;
+
+/**
+ * Shows messages on the screen (or any PrintStream), only flushing when asked
+ * @author Hasan Salhi
+ * @version 1.0
+ */
+public final class ConsoleSink implements OutputSink {
+
+    /**
+     * Where messages are printed
+     */
+    private final PrintStream out;
+
+    /**
+     * Show messages on System.out
+     */
+    public ConsoleSink() {
+        this(System.out);
+    }
+
+    /**
+     * Print messages to a stream
+     *
+     * @param out Where messages are printed (not closed with the sink)
+     */
+    public ConsoleSink(PrintStream out) {
+        if (out == null) {
+            throw new IllegalArgumentException("Console sink needs a stream!");
+        }
+        this.out = out;
+    }
+
+    @Override
+    public void write(LogLevel level, String message) {
+        out.println(message);
+    }
+
+    @Override
+    public void flush() {
+        out.flush();
+    }
+}
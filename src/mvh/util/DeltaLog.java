@@ -0,0 +1,243 @@
+package mvh.util;
+
+import mvh.enums.Symbol;
+import mvh.world.World;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileReader;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Arrays;
+
+/**
+ * Logs a World one turn at a time as a full keyframe every few turns and only the rows that changed in between
+ * Layout (one record per logged turn, any other lines in the log are skipped):
+ * <pre>
+ * ~KEYFRAME turn rows columns   followed by a ~ROW record for every row of the world
+ * ~DELTA turn count             followed by count ~ROW records, one for each row that changed since the last frame
+ * ~ROW row lines                followed by the bordered map row and then lines entity table lines for that row
+ * </pre>
+ * A delta only holds what changed, so log volume follows how much happens each turn instead of the size of the map
+ * Can be run as a program to rebuild the full gameString of one turn: DeltaLog &lt;log&gt; &lt;turn&gt;
+ * @author Hasan Salhi
+ * @version 1.0
+ */
+public final class DeltaLog {
+
+    /**
+     * Starts a keyframe record
+     */
+    private static final String KEYFRAME = "~KEYFRAME";
+    /**
+     * Starts a delta record
+     */
+    private static final String DELTA = "~DELTA";
+    /**
+     * Starts the text of one row
+     */
+    private static final String ROW = "~ROW";
+
+    /**
+     * The world being logged
+     */
+    private final World world;
+    /**
+     * A keyframe is written every this many frames
+     */
+    private final int keyframeInterval;
+    /**
+     * Frames written so far
+     */
+    private long frames;
+
+    /**
+     * Log a world, starting with a keyframe
+     *
+     * @param world            The world to log
+     * @param keyframeInterval A keyframe is written every this many frames (1 writes only keyframes)
+     */
+    public DeltaLog(World world, int keyframeInterval) {
+        if (keyframeInterval < 1) {
+            throw new IllegalArgumentException("Keyframe interval must be >= 1. Value given was " + keyframeInterval + "!");
+        }
+        this.world = world;
+        this.keyframeInterval = keyframeInterval;
+    }
+
+    /**
+     * The record for the world as it is now
+     *
+     * @return A keyframe or delta record (without a new line at the end)
+     */
+    public String nextFrame() {
+        int[] changed = world.takeChangedRows();
+        StringBuilder output = new StringBuilder();
+        if (frames++ % keyframeInterval == 0) {
+            output.append(KEYFRAME).append(' ').append(world.getTurn()).append(' ').append(world.getRows()).append(' ').append(world.getColumns());
+            for (int row = 0; row < world.getRows(); row++) {
+                appendRow(output, row);
+            }
+        } else {
+            Arrays.sort(changed);
+            output.append(DELTA).append(' ').append(world.getTurn()).append(' ').append(changed.length);
+            for (int row : changed) {
+                appendRow(output, row);
+            }
+        }
+        return output.toString();
+    }
+
+    /**
+     * Add the ~ROW record of one row
+     *
+     * @param output Where to add it
+     * @param row    The row of the world
+     */
+    private void appendRow(StringBuilder output, int row) {
+        String lines = world.tableRows(row);
+        output.append('\n').append(ROW).append(' ').append(row).append(' ').append(countLines(lines));
+        output.append('\n').append(world.mapRow(row));
+        if (!lines.isEmpty()) {
+            output.append('\n').append(lines, 0, lines.length() - 1);
+        }
+    }
+
+    /**
+     * Number of new line ended lines in some text
+     *
+     * @param text The text
+     * @return How many new lines it has
+     */
+    private static int countLines(String text) {
+        int count = 0;
+        for (int i = 0; i < text.length(); i++) {
+            if (text.charAt(i) == '\n') {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Rebuild the full gameString of a turn from a log holding keyframe and delta records
+     *
+     * @param args Program arguments, Usage: DeltaLog &lt;log&gt; &lt;turn&gt;
+     */
+    public static void main(String[] args) {
+        if (args.length != 2) {
+            System.err.println("Usage: DeltaLog <log> <turn>");
+            System.exit(1);
+        }
+        try {
+            System.out.print(rebuild(new File(args[0]), Long.parseLong(args[1])));
+        } catch (NumberFormatException e) {
+            System.err.printf("Turn %s should be an integer!%n", args[1]);
+            System.exit(1);
+        } catch (IllegalArgumentException | UncheckedIOException e) {
+            System.err.println(e.getMessage());
+            System.exit(1);
+        }
+    }
+
+    /**
+     * Rebuild the gameString a world had at a turn by applying the deltas after the last keyframe up to that turn
+     * If a turn was logged more than once the last record of it wins
+     *
+     * @param file The log
+     * @param turn The turn to rebuild
+     * @return The same text gameString gave for that turn
+     */
+    public static String rebuild(File file, long turn) {
+        try (BufferedReader reader = new BufferedReader(new FileReader(file), 1 << 16)) {
+            String[] map = null;
+            String[] table = null;
+            int columns = 0;
+            long last = -1;
+            String line;
+            while ((line = reader.readLine()) != null) {
+                boolean keyframe = line.startsWith(KEYFRAME + " ");
+                if (!keyframe && !line.startsWith(DELTA + " ")) {
+                    continue;
+                }
+                String[] header = line.split(" ");
+                long recordTurn = Long.parseLong(header[1]);
+                if (recordTurn > turn) {
+                    break;
+                }
+                int count;
+                if (keyframe) {
+                    int rows = Integer.parseInt(header[2]);
+                    columns = Integer.parseInt(header[3]);
+                    map = new String[rows];
+                    table = new String[rows];
+                    count = rows;
+                } else if (map == null) {
+                    continue;
+                } else {
+                    count = Integer.parseInt(header[2]);
+                }
+                for (int i = 0; i < count; i++) {
+                    String[] row = readLine(reader, file).split(" ");
+                    if (row.length != 3 || !row[0].equals(ROW)) {
+                        throw new IllegalArgumentException("Expected a " + ROW + " record in " + file + " for turn " + recordTurn + "!");
+                    }
+                    int r = Integer.parseInt(row[1]);
+                    int lines = Integer.parseInt(row[2]);
+                    map[r] = readLine(reader, file);
+                    StringBuilder entities = new StringBuilder();
+                    for (int j = 0; j < lines; j++) {
+                        entities.append(readLine(reader, file)).append('\n');
+                    }
+                    table[r] = entities.toString();
+                }
+                last = recordTurn;
+            }
+            if (map == null || last != turn) {
+                throw new IllegalArgumentException("Turn " + turn + " is not in " + file + "!");
+            }
+            return frame(map, table, columns);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Unable to read delta log " + file.getAbsoluteFile(), e);
+        }
+    }
+
+    /**
+     * Read a line that must be there
+     *
+     * @param reader The log being read
+     * @param file   The log file (for the error message)
+     * @return The line
+     * @throws IOException If the log cannot be read
+     */
+    private static String readLine(BufferedReader reader, File file) throws IOException {
+        String line = reader.readLine();
+        if (line == null) {
+            throw new IllegalArgumentException("Delta log " + file + " ends in the middle of a record!");
+        }
+        return line;
+    }
+
+    /**
+     * Put rebuilt rows back together the way gameString lays them out
+     *
+     * @param map     The bordered map rows
+     * @param table   The entity table lines of each row
+     * @param columns Columns of the world
+     * @return The full gameString
+     */
+    private static String frame(String[] map, String[] table, int columns) {
+        char[] border = new char[columns + 2];
+        Arrays.fill(border, Symbol.WALL.getSymbol());
+        StringBuilder output = new StringBuilder();
+        output.append(border).append('\n');
+        for (String row : map) {
+            output.append(row).append('\n');
+        }
+        output.append(border).append('\n').append(World.TABLE_HEADER);
+        for (String lines : table) {
+            output.append(lines);
+        }
+        return output.toString();
+    }
+}
@@ -0,0 +1,190 @@
+package mvh.util;
+
+import mvh.enums.Direction;
+import mvh.world.Entity;
+import mvh.world.World;
+import mvh.world.WorldListener;
+
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+
+/**
+ * Records everything that happens while a World is advanced as an append-only binary event file, with a turn index
+ * beside it so any turn can be found without reading the events before it
+ * Layout (big-endian):
+ * <pre>
+ * header   "MVHE" magic, short version, short reserved
+ * events   byte kind followed by
+ *          MOVE     int row, int column, byte direction ordinal (where the entity moved from)
+ *          ATTACK   int row, int column, int damage rolled, int damage taken (where the attacked entity is)
+ *          DEATH    int row, int column
+ *          END_TURN long turn
+ * index    (the events file name + ".idx") one long per turn: the offset in the events file just past that turn's
+ *          events, turn 0 (the world as loaded) first
+ * </pre>
+ * Damage is recorded as rolled, so a replay never rolls again (see EventReplay)
+ * @author Hasan Salhi
+ * @version 1.0
+ */
+public final class EventLog implements WorldListener, Closeable {
+
+    /**
+     * First 4 bytes of every event file
+     */
+    static final int MAGIC = ('M' << 24) | ('V' << 16) | ('H' << 8) | 'E';
+    /**
+     * Version of the layout written by this class
+     */
+    static final short VERSION = 1;
+    /**
+     * Bytes in the header
+     */
+    static final int HEADER_SIZE = 8;
+    /**
+     * Event kind of an entity moving
+     */
+    static final byte MOVE = 1;
+    /**
+     * Event kind of an entity being attacked
+     */
+    static final byte ATTACK = 2;
+    /**
+     * Event kind of an entity dying
+     */
+    static final byte DEATH = 3;
+    /**
+     * Event kind of a turn ending
+     */
+    static final byte END_TURN = 4;
+
+    /**
+     * The event file
+     */
+    private final File file;
+    /**
+     * Where events are written
+     */
+    private final DataOutputStream events;
+    /**
+     * Where the turn index is written
+     */
+    private final DataOutputStream index;
+    /**
+     * Bytes written to the event file so far
+     */
+    private long offset;
+
+    /**
+     * Start recording a world that has not been advanced yet (the log becomes the world's listener)
+     *
+     * @param world The world to record
+     * @param file  The event file to write (the index is written beside it)
+     */
+    public EventLog(World world, File file) {
+        if (world.getTurn() != 0) {
+            throw new IllegalArgumentException("Events can only be recorded from turn 0. World is at turn " + world.getTurn() + "!");
+        }
+        this.file = file;
+        try {
+            this.events = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(file), 1 << 16));
+            this.index = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(indexOf(file)), 1 << 12));
+            events.writeInt(MAGIC);
+            events.writeShort(VERSION);
+            events.writeShort(0);
+            offset = HEADER_SIZE;
+            index.writeLong(offset);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Unable to write event file " + file.getAbsoluteFile(), e);
+        }
+        world.setListener(this);
+    }
+
+    /**
+     * The turn index file of an event file
+     *
+     * @param events The event file
+     * @return The index file beside it
+     */
+    public static File indexOf(File events) {
+        return new File(events.getPath() + ".idx");
+    }
+
+    @Override
+    public void moved(Entity entity, int row, int column, Direction direction) {
+        try {
+            events.writeByte(MOVE);
+            events.writeInt(row);
+            events.writeInt(column);
+            events.writeByte(direction.ordinal());
+            offset += 10;
+        } catch (IOException e) {
+            throw failed(e);
+        }
+    }
+
+    @Override
+    public void attacked(Entity attacker, Entity attacked, int row, int column, int damage, int trueDamage) {
+        try {
+            events.writeByte(ATTACK);
+            events.writeInt(row);
+            events.writeInt(column);
+            events.writeInt(damage);
+            events.writeInt(trueDamage);
+            offset += 17;
+        } catch (IOException e) {
+            throw failed(e);
+        }
+    }
+
+    @Override
+    public void died(Entity entity, int row, int column) {
+        try {
+            events.writeByte(DEATH);
+            events.writeInt(row);
+            events.writeInt(column);
+            offset += 9;
+        } catch (IOException e) {
+            throw failed(e);
+        }
+    }
+
+    @Override
+    public void turnEnded(long turn) {
+        try {
+            events.writeByte(END_TURN);
+            events.writeLong(turn);
+            offset += 9;
+            index.writeLong(offset);
+        } catch (IOException e) {
+            throw failed(e);
+        }
+    }
+
+    /**
+     * Write out everything still buffered and close both files
+     */
+    @Override
+    public void close() {
+        try {
+            events.close();
+            index.close();
+        } catch (IOException e) {
+            throw failed(e);
+        }
+    }
+
+    /**
+     * Wrap a write failure
+     *
+     * @param e The failure
+     * @return An unchecked exception naming the event file
+     */
+    private UncheckedIOException failed(IOException e) {
+        return new UncheckedIOException("Unable to write event file " + file.getAbsoluteFile(), e);
+    }
+}
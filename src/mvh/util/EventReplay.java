@@ -0,0 +1,346 @@
+package mvh.util;
+
+import mvh.enums.Direction;
+import mvh.world.Entity;
+import mvh.world.Snapshot;
+import mvh.world.World;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+
+/**
+ * Rebuilds the World of a recorded run (see EventLog) at any turn by applying the recorded moves and damage to the
+ * world as it was loaded, no entity decides anything and nothing is rolled again
+ * The turn index gives where each turn's events end, so a seek starts from the closest of the world as it is now, the
+ * latest checkpoint snapshot of the run (see Checkpoints) at or before the turn, or the loaded world, and reads only the
+ * events after it. Loading a world keeps the Entity ID counter as it was, so other worlds in the program are unaffected
+ * Can be run as a program to show one turn: EventReplay &lt;world&gt; &lt;events&gt; &lt;turn&gt; [checkpoint base]
+ * @author Hasan Salhi
+ * @version 1.0
+ */
+public final class EventReplay implements Closeable {
+
+    /**
+     * Events are read in blocks of this many bytes
+     */
+    private static final int BLOCK_SIZE = 1 << 20;
+    /**
+     * Directions by ordinal
+     */
+    private static final Direction[] DIRECTIONS = Direction.values();
+
+    /**
+     * The world file the run started from
+     */
+    private final File worldFile;
+    /**
+     * The event file
+     */
+    private final FileChannel events;
+    /**
+     * The turn index
+     */
+    private final FileChannel index;
+    /**
+     * Read buffer for events
+     */
+    private final ByteBuffer block = ByteBuffer.allocate(BLOCK_SIZE);
+    /**
+     * Read buffer for one index entry
+     */
+    private final ByteBuffer entry = ByteBuffer.allocate(Long.BYTES);
+    /**
+     * Checkpoint snapshots of the run by turn (empty if there are none)
+     */
+    private final NavigableMap<Long, File> checkpoints;
+    /**
+     * The world being replayed
+     */
+    private World world;
+
+    /**
+     * Open a recorded run without checkpoints (seeks start from the loaded world or the last turn sought)
+     *
+     * @param worldFile  The text or binary world file the run started from
+     * @param eventsFile The event file (its index must be beside it)
+     */
+    public EventReplay(File worldFile, File eventsFile) {
+        this(worldFile, eventsFile, null);
+    }
+
+    /**
+     * Open a recorded run along with the checkpoint snapshots saved while it was recorded
+     *
+     * @param worldFile      The text or binary world file the run started from
+     * @param eventsFile     The event file (its index must be beside it)
+     * @param checkpointBase The base the run's snapshots are named after (base.TURN.ckpt, the log file for Main), null
+     *                       for none. Snapshots must come from the same run as the events
+     */
+    public EventReplay(File worldFile, File eventsFile, File checkpointBase) {
+        this.worldFile = worldFile;
+        this.checkpoints = checkpointBase == null ? new TreeMap<>() : Checkpoints.onDisk(checkpointBase);
+        try {
+            this.events = FileChannel.open(eventsFile.toPath(), StandardOpenOption.READ);
+            this.index = FileChannel.open(EventLog.indexOf(eventsFile).toPath(), StandardOpenOption.READ);
+            ByteBuffer header = ByteBuffer.allocate(EventLog.HEADER_SIZE);
+            events.read(header, 0);
+            if (header.position() < EventLog.HEADER_SIZE || header.getInt(0) != EventLog.MAGIC) {
+                close();
+                throw new IllegalArgumentException(eventsFile + " is not an event file!");
+            }
+            if (header.getShort(4) != EventLog.VERSION) {
+                close();
+                throw new IllegalArgumentException("Event file " + eventsFile + " has unsupported version " + header.getShort(4) + "!");
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Unable to read event file " + eventsFile.getAbsoluteFile(), e);
+        }
+        reload();
+    }
+
+    /**
+     * Show the game at one turn of a recorded run
+     *
+     * @param args Program arguments, Usage: EventReplay &lt;world&gt; &lt;events&gt; &lt;turn&gt; [checkpoint base]
+     */
+    public static void main(String[] args) {
+        if (args.length != 3 && args.length != 4) {
+            System.err.println("Usage: EventReplay <world> <events> <turn> [checkpoint base]");
+            System.exit(1);
+        }
+        File checkpointBase = args.length == 4 ? new File(args[3]) : null;
+        try (EventReplay replay = new EventReplay(new File(args[0]), new File(args[1]), checkpointBase)) {
+            long start = System.nanoTime();
+            World world = replay.seek(Long.parseLong(args[2]));
+            long elapsed = System.nanoTime() - start;
+            System.out.print(world.gameString());
+            System.out.printf("Replayed to turn %d of %d (%d heroes and %d monsters alive) in %.3f ms%n", world.getTurn(), replay.getTurns(),
+                    world.getLivingHeroes(), world.getLivingMonsters(), elapsed / 1e6);
+        } catch (NumberFormatException e) {
+            System.err.printf("Turn %s should be an integer!%n", args[2]);
+            System.exit(1);
+        } catch (IllegalArgumentException | IllegalStateException | UncheckedIOException e) {
+            System.err.println(e.getMessage());
+            System.exit(1);
+        }
+    }
+
+    /**
+     * Number of turns recorded
+     *
+     * @return The last turn that can be sought
+     */
+    public long getTurns() {
+        try {
+            return index.size() / Long.BYTES - 1;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Unable to read event index", e);
+        }
+    }
+
+    /**
+     * The world as of the last seek (turn 0 until seek is called)
+     *
+     * @return The world being replayed
+     */
+    public World getWorld() {
+        return world;
+    }
+
+    /**
+     * Bring the world to the state it was in at the end of a turn
+     *
+     * @param turn The turn (0 for the world as loaded)
+     * @return The world being replayed
+     */
+    public World seek(long turn) {
+        if (turn < 0 || turn > getTurns()) {
+            throw new IllegalArgumentException("Turn must be between 0 and " + getTurns() + ". Value given was " + turn + "!");
+        }
+        Map.Entry<Long, File> checkpoint = checkpoints.floorEntry(turn);
+        //Carry on from the world as it is unless the turn is behind it or a checkpoint is closer
+        if (turn < world.getTurn() || (checkpoint != null && checkpoint.getKey() > world.getTurn())) {
+            if (checkpoint == null) {
+                reload();
+            } else {
+                restore(checkpoint.getValue(), checkpoint.getKey());
+            }
+        }
+        if (turn > world.getTurn()) {
+            apply(offsetOf(world.getTurn()), offsetOf(turn));
+        }
+        return world;
+    }
+
+    /**
+     * Load the world the run started from again (entity IDs start from 1 as they did for the run, the ID counter is
+     * put back afterwards)
+     */
+    private void reload() {
+        int next = Entity.nextID();
+        Entity.resetIDCounter();
+        try {
+            world = BinaryWorld.isBinary(worldFile) ? BinaryWorld.load(worldFile) : Reader.loadWorld(worldFile);
+        } finally {
+            Entity.setNextID(next);
+        }
+    }
+
+    /**
+     * Load a checkpoint snapshot of the run (the ID counter is put back afterwards)
+     *
+     * @param file The snapshot
+     * @param turn The turn it was taken at
+     */
+    private void restore(File file, long turn) {
+        int next = Entity.nextID();
+        World restored;
+        try {
+            restored = Snapshot.load(file);
+        } finally {
+            Entity.setNextID(next);
+        }
+        if (restored.getTurn() != turn) {
+            throw new IllegalStateException("Checkpoint " + file + " is at turn " + restored.getTurn() + " instead of " + turn + "!");
+        }
+        world = restored;
+    }
+
+    /**
+     * Where a turn's events end in the event file
+     *
+     * @param turn The turn
+     * @return The offset just past that turn's events
+     */
+    private long offsetOf(long turn) {
+        try {
+            entry.clear();
+            while (entry.hasRemaining() && index.read(entry, turn * Long.BYTES + entry.position()) > 0) {
+                //Keep reading until we have the whole entry
+            }
+            return entry.getLong(0);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Unable to read event index", e);
+        }
+    }
+
+    /**
+     * Apply the events in part of the event file to the world
+     *
+     * @param from Offset of the first event
+     * @param to   Offset just past the last event
+     */
+    private void apply(long from, long to) {
+        try {
+            long position = from;
+            block.clear();
+            while (position < to || block.position() > 0) {
+                if (position < to) {
+                    int wanted = (int) Math.min(block.remaining(), to - position);
+                    int saved = block.limit();
+                    block.limit(block.position() + wanted);
+                    int read = events.read(block, position);
+                    block.limit(saved);
+                    if (read < 0) {
+                        throw new IllegalStateException("Event file ends before the index says it should!");
+                    }
+                    position += read;
+                }
+                block.flip();
+                while (applyNext()) {
+                    //Apply every whole event in the block
+                }
+                if (position >= to && block.hasRemaining()) {
+                    throw new IllegalStateException("Event file ends in the middle of an event!");
+                }
+                block.compact();
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Unable to read event file", e);
+        }
+    }
+
+    /**
+     * Apply the next event in the block if all of it has been read
+     *
+     * @return True if an event was applied
+     */
+    private boolean applyNext() {
+        if (!block.hasRemaining()) {
+            return false;
+        }
+        byte kind = block.get(block.position());
+        int size;
+        switch (kind) {
+            case EventLog.MOVE:
+                size = 10;
+                break;
+            case EventLog.ATTACK:
+                size = 17;
+                break;
+            case EventLog.DEATH:
+            case EventLog.END_TURN:
+                size = 9;
+                break;
+            default:
+                throw new IllegalStateException("Unknown event kind " + kind + " at turn " + world.getTurn() + "!");
+        }
+        if (block.remaining() < size) {
+            return false;
+        }
+        block.get();
+        switch (kind) {
+            case EventLog.MOVE: {
+                int row = block.getInt();
+                int column = block.getInt();
+                world.moveEntity(row, column, DIRECTIONS[block.get()]);
+                break;
+            }
+            case EventLog.ATTACK: {
+                int row = block.getInt();
+                int column = block.getInt();
+                block.getInt();
+                world.damageEntity(row, column, block.getInt());
+                break;
+            }
+            case EventLog.DEATH: {
+                int row = block.getInt();
+                int column = block.getInt();
+                Entity entity = world.getEntity(row, column);
+                if (entity == null || entity.isAlive()) {
+                    throw new IllegalStateException("Event file does not match the world: nothing died at " + row + "," + column + " in turn " + (world.getTurn() + 1) + "!");
+                }
+                break;
+            }
+            default: {
+                long turn = block.getLong();
+                world.endTurn();
+                if (world.getTurn() != turn) {
+                    throw new IllegalStateException("Event file does not match the world: turn " + turn + " ended but the world is at turn " + world.getTurn() + "!");
+                }
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Close the event file and its index
+     */
+    @Override
+    public void close() {
+        try {
+            events.close();
+            index.close();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Unable to close event file", e);
+        }
+    }
+}
@@ -0,0 +1,63 @@
+package mvh.util;
+
+import mvh.enums.LogLevel;
+
+/**
+ * Writes every message to several sinks (e.g. the screen and a file), each still filtering by its own level
+ * @author Hasan Salhi
+ * @version 1.0
+ */
+public final class FanOutSink implements OutputSink {
+
+    /**
+     * Where messages go
+     */
+    private final OutputSink[] sinks;
+
+    /**
+     * Write to several sinks
+     *
+     * @param sinks Where messages go, in order
+     */
+    public FanOutSink(OutputSink... sinks) {
+        for (OutputSink sink : sinks) {
+            if (sink == null) {
+                throw new IllegalArgumentException("Fan out sink can not write to a null sink!");
+            }
+        }
+        this.sinks = sinks.clone();
+    }
+
+    @Override
+    public void write(LogLevel level, String message) {
+        for (OutputSink sink : sinks) {
+            if (sink.isEnabled(level)) {
+                sink.write(level, message);
+            }
+        }
+    }
+
+    @Override
+    public boolean isEnabled(LogLevel level) {
+        for (OutputSink sink : sinks) {
+            if (sink.isEnabled(level)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @Override
+    public void flush() {
+        for (OutputSink sink : sinks) {
+            sink.flush();
+        }
+    }
+
+    @Override
+    public void close() {
+        for (OutputSink sink : sinks) {
+            sink.close();
+        }
+    }
+}
@@ -0,0 +1,76 @@
+package mvh.util;
+
+import mvh.enums.LogLevel;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Writes messages to a file through a large buffer, so the disk is only touched once the buffer fills or on flush
+ * @author Hasan Salhi
+ * @version 1.0
+ */
+public final class FileSink implements OutputSink {
+
+    /**
+     * Size of the write buffer in chars
+     */
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    /**
+     * Where messages are written
+     */
+    private final Writer writer;
+    /**
+     * The file being written (for error messages)
+     */
+    private final File file;
+
+    /**
+     * Write messages to a file (replacing what was in it)
+     *
+     * @param file The file
+     */
+    public FileSink(File file) {
+        this.file = file;
+        try {
+            this.writer = new BufferedWriter(new OutputStreamWriter(new FileOutputStream(file), StandardCharsets.UTF_8), BUFFER_SIZE);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Unable to open log file " + file.getAbsoluteFile(), e);
+        }
+    }
+
+    @Override
+    public synchronized void write(LogLevel level, String message) {
+        try {
+            writer.write(message);
+            writer.write(System.lineSeparator());
+        } catch (IOException e) {
+            throw new UncheckedIOException("Unable to write log file " + file.getAbsoluteFile(), e);
+        }
+    }
+
+    @Override
+    public synchronized void flush() {
+        try {
+            writer.flush();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Unable to write log file " + file.getAbsoluteFile(), e);
+        }
+    }
+
+    @Override
+    public synchronized void close() {
+        try {
+            writer.close();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Unable to close log file " + file.getAbsoluteFile(), e);
+        }
+    }
+}
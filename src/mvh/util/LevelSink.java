@@ -0,0 +1,56 @@
+package mvh.util;
+
+import mvh.enums.LogLevel;
+
+/**
+ * Passes on only the messages of a level or less detailed to another sink
+ * @author Hasan Salhi
+ * @version 1.0
+ */
+public final class LevelSink implements OutputSink {
+
+    /**
+     * Where messages that pass go
+     */
+    private final OutputSink sink;
+    /**
+     * The most detailed level still written
+     */
+    private final LogLevel level;
+
+    /**
+     * Filter a sink by level
+     *
+     * @param sink  Where messages that pass go
+     * @param level The most detailed level still written
+     */
+    public LevelSink(OutputSink sink, LogLevel level) {
+        if (sink == null || level == null) {
+            throw new IllegalArgumentException("Level sink needs a sink and a level!");
+        }
+        this.sink = sink;
+        this.level = level;
+    }
+
+    @Override
+    public void write(LogLevel level, String message) {
+        if (isEnabled(level)) {
+            sink.write(level, message);
+        }
+    }
+
+    @Override
+    public boolean isEnabled(LogLevel level) {
+        return level.compareTo(this.level) >= 0 && sink.isEnabled(level);
+    }
+
+    @Override
+    public void flush() {
+        sink.flush();
+    }
+
+    @Override
+    public void close() {
+        sink.close();
+    }
+}
@@ -0,0 +1,32 @@
+package mvh.util;
+
+import mvh.enums.LogLevel;
+
+/**
+ * Throws every message away, and says so, so nothing is built for it
+ * @author Hasan Salhi
+ * @version 1.0
+ */
+public final class NullSink implements OutputSink {
+
+    /**
+     * The only null sink (it holds nothing)
+     */
+    public static final NullSink INSTANCE = new NullSink();
+
+    /**
+     * Use INSTANCE
+     */
+    private NullSink() {
+    }
+
+    @Override
+    public void write(LogLevel level, String message) {
+        //Nothing to do
+    }
+
+    @Override
+    public boolean isEnabled(LogLevel level) {
+        return false;
+    }
+}
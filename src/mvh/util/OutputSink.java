@@ -0,0 +1,56 @@
+package mvh.util;
+
+import mvh.enums.LogLevel;
+
+import java.io.Closeable;
+
+/**
+ * Where a simulation's messages go (the screen, a file, memory, nowhere, or several of these)
+ * Each World writes to its own sink, so several simulations can run in one program without sharing output
+ * @author Hasan Salhi
+ * @version 1.0
+ */
+public interface OutputSink extends Closeable {
+
+    /**
+     * Write one message
+     *
+     * @param level   The level of the message
+     * @param message The message (a new line is added on the end)
+     */
+    void write(LogLevel level, String message);
+
+    /**
+     * Does this sink want messages of a level, check this before building a message
+     *
+     * @param level The level
+     * @return True if messages of that level are written
+     */
+    default boolean isEnabled(LogLevel level) {
+        return true;
+    }
+
+    /**
+     * Write out anything held back
+     */
+    default void flush() {
+    }
+
+    /**
+     * Flush and let go of anything the sink holds open
+     */
+    @Override
+    default void close() {
+        flush();
+    }
+
+    /**
+     * Only pass on messages of a level or less detailed
+     *
+     * @param level The most detailed level still written
+     * @return A sink writing to this one
+     */
+    default OutputSink atLeast(LogLevel level) {
+        return new LevelSink(this, level);
+    }
+}
@@ -1,80 +1,427 @@
 package mvh.util;
+import mvh.enums.Storage;
 import mvh.enums.WeaponType;
+import mvh.world.FlightEvents;
 import mvh.world.Hero;
 import mvh.world.Monster;
 import mvh.world.Wall;
 import mvh.world.World;
 import java.io.File;
-import java.io.FileNotFoundException;
-import java.util.Scanner;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
 
 /**
  * Class to assist reading in world file
+ * The file is streamed through a buffered FileChannel and decoded straight from bytes (no Scanner, no substrings)
  * @author Jonathan Hudson, Hasan Salhi
- * @version 1.1
+ * @version 1.2
  */
 public final class Reader {
+
+    /**
+     * Size of the read buffer
+     */
+    private static final int BUFFER_SIZE = 1 << 16;
+    /**
+     * Longest entity type name we need to recognise
+     */
+    private static final int MAX_TYPE_LENGTH = 16;
+    /**
+     * Monster type name as bytes, so it can be matched without making Strings
+     */
+    private static final byte[] MONSTER = "MONSTER".getBytes(StandardCharsets.US_ASCII);
+    /**
+     * Hero type name as bytes
+     */
+    private static final byte[] HERO = "HERO".getBytes(StandardCharsets.US_ASCII);
+    /**
+     * Wall type name as bytes
+     */
+    private static final byte[] WALL = "WALL".getBytes(StandardCharsets.US_ASCII);
+
     /**
      * Function to read the lines of the world.txt and load them into a World class
      *
+     * @param fileWorld The world file
      * @return World loaded with all data from the text file
      */
     public static World loadWorld(File fileWorld) {
-        World world = null;
-        try {
-            Scanner fr = new Scanner(fileWorld);
-            int row = fr.nextInt();
-            int col = fr.nextInt();
-            world = new World(row, col);
-            String line = null;
-
-            do {
-                line = fr.next();
-                if (line.length() > 3) {
-                    String[] split = line.split(",");
-                    int x = Integer.parseInt(split[0]);
-                    int y = Integer.parseInt(split[1]);
-                    String type = split[2];
-                    if (type.equals("MONSTER")) {
-                        char symbol = split[3].charAt(0);
-                        int health = Integer.parseInt(split[4]);
-                        String weaponSymbol = Character.toString(split[5].charAt(0));
-                        WeaponType weapon = null;
-                        if (weaponSymbol.equals("C")) {
-                            weapon = WeaponType.CLUB;
-                        } else if (weaponSymbol.equals("A")) {
-                            weapon = WeaponType.AXE;
-                        } else if (weaponSymbol.equals("S")) {
-                            weapon = WeaponType.SWORD;
-                        }
-
-                        Monster newMons = new Monster(health,symbol,weapon);
-
-                        world.addEntity(x,y,newMons);
-
-                    } else if (type.equals("HERO")) {
-                        char symbol = split[3].charAt(0);
-                        int health = Integer.parseInt(split[4]);
-                        int weaponStrength = Integer.parseInt(split[5]);
-                        int armorStrength = Integer.parseInt(split[6]);
-
-                        Hero newHero = new Hero(health,symbol,weaponStrength,armorStrength);
-
-                        world.addEntity(x,y,newHero);
-
-                    } else if (type.equals("WALL")) {
-                        char symbol = split[3].charAt(0);
-
-                        world.addEntity(x,y,Wall.getWall());
+        return loadWorld(fileWorld, Storage.ARRAY);
+    }
+
+    /**
+     * Function to read the lines of the world.txt and load them into a World class with the requested grid storage
+     * Throws an IllegalArgumentException naming the line if the file is malformed, and an UncheckedIOException if it
+     * cannot be read
+     *
+     * @param fileWorld The world file
+     * @param storage   How the loaded World should store its grid
+     * @return World loaded with all data from the text file
+     */
+    public static World loadWorld(File fileWorld, Storage storage) {
+        FlightEvents.LoadWorld event = new FlightEvents.LoadWorld();
+        event.begin();
+        try (FileChannel channel = FileChannel.open(fileWorld.toPath(), StandardOpenOption.READ)) {
+            ByteScanner in = new ByteScanner(channel, fileWorld.getName());
+            int rows = in.nextHeaderInt("rows");
+            int columns = in.nextHeaderInt("columns");
+            World world = new World(rows, columns, storage);
+            byte[] type = new byte[MAX_TYPE_LENGTH];
+
+            while (in.skipWhitespace()) {
+                int x = in.nextInt();
+                in.expectComma();
+                int y = in.nextInt();
+                if (x < 0 || x >= rows || y < 0 || y >= columns) {
+                    throw in.error("location (" + x + "," + y + ") is outside of " + rows + "x" + columns + " world");
+                }
+                //Floor spots are just x,y
+                if (!in.nextIsComma()) {
+                    in.endOfRecord();
+                    continue;
+                }
+                in.expectComma();
+                int typeLength = in.nextWord(type);
+                if (matches(type, typeLength, MONSTER)) {
+                    in.expectComma();
+                    char symbol = in.nextSymbol();
+                    in.expectComma();
+                    int health = in.nextHealth();
+                    in.expectComma();
+                    char weaponSymbol = in.nextSymbol();
+                    WeaponType weapon;
+                    try {
+                        weapon = WeaponType.getWeaponType(weaponSymbol);
+                    } catch (IllegalArgumentException e) {
+                        throw in.error("weapon type " + weaponSymbol + " is not valid (C)lub/(A)xe/(S)word");
+                    }
+                    in.endOfRecord();
+                    world.addEntity(x, y, new Monster(health, symbol, weapon));
+                } else if (matches(type, typeLength, HERO)) {
+                    in.expectComma();
+                    char symbol = in.nextSymbol();
+                    in.expectComma();
+                    int health = in.nextHealth();
+                    in.expectComma();
+                    int weaponStrength = in.nextInt();
+                    in.expectComma();
+                    int armorStrength = in.nextInt();
+                    in.endOfRecord();
+                    world.addEntity(x, y, new Hero(health, symbol, weaponStrength, armorStrength));
+                } else if (matches(type, typeLength, WALL)) {
+                    //The wall symbol is optional (walls are always drawn as WALL anyway)
+                    if (in.nextIsComma()) {
+                        in.expectComma();
+                        in.nextSymbol();
                     }
+                    in.endOfRecord();
+                    world.addEntity(x, y, Wall.getWall());
+                } else {
+                    throw in.error("unknown entity type " + new String(type, 0, Math.min(typeLength, type.length), StandardCharsets.US_ASCII));
                 }
+            }
+            if (event.shouldCommit()) {
+                event.file = fileWorld.getPath();
+                event.bytes = channel.size();
+                event.rows = rows;
+                event.columns = columns;
+                event.entities = world.getEntities().size();
+                event.commit();
+            }
+            return world;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Unable to read world file " + fileWorld.getAbsoluteFile(), e);
+        }
+    }
 
-            } while (fr.hasNext());
-        } catch (FileNotFoundException e) {
-            System.err.println(e.getMessage());
-            System.exit(1);
+    /**
+     * Does a word read by nextWord match an expected name
+     *
+     * @param word     The buffer the word was read into
+     * @param length   The length of the word
+     * @param expected The expected name
+     * @return True if they are the same bytes
+     */
+    private static boolean matches(byte[] word, int length, byte[] expected) {
+        if (length != expected.length) {
+            return false;
+        }
+        for (int i = 0; i < length; i++) {
+            if (word[i] != expected[i]) {
+                return false;
+            }
         }
-        return world;
+        return true;
     }
 
+    /**
+     * Streams bytes out of a FileChannel and decodes the pieces of a world file, keeping track of the line number
+     */
+    private static final class ByteScanner {
+
+        /**
+         * Where bytes come from
+         */
+        private final FileChannel channel;
+        /**
+         * Name of the file (for error messages)
+         */
+        private final String name;
+        /**
+         * The read buffer
+         */
+        private final ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_SIZE);
+        /**
+         * Line the scanner is currently on (starting at 1)
+         */
+        private long line = 1;
+        /**
+         * Has the channel run out
+         */
+        private boolean eof;
+
+        /**
+         * A scanner reading from the start of a channel
+         *
+         * @param channel Where bytes come from
+         * @param name    Name of the file (for error messages)
+         */
+        ByteScanner(FileChannel channel, String name) {
+            this.channel = channel;
+            this.name = name;
+            this.buffer.flip();
+        }
+
+        /**
+         * Look at the next byte without using it
+         *
+         * @return The next byte, -1 at the end of the file
+         * @throws IOException If the file cannot be read
+         */
+        int peek() throws IOException {
+            if (!buffer.hasRemaining()) {
+                if (eof) {
+                    return -1;
+                }
+                buffer.clear();
+                int read;
+                do {
+                    read = channel.read(buffer);
+                } while (read == 0);
+                buffer.flip();
+                if (read < 0) {
+                    eof = true;
+                    return -1;
+                }
+            }
+            return buffer.get(buffer.position()) & 0xFF;
+        }
+
+        /**
+         * Use up the byte last returned by peek
+         */
+        void skip() {
+            buffer.position(buffer.position() + 1);
+        }
+
+        /**
+         * Is a byte whitespace (separates records)
+         *
+         * @param b The byte
+         * @return True for space, tab, new line or carriage return
+         */
+        private static boolean isWhitespace(int b) {
+            return b == ' ' || b == '\n' || b == '\r' || b == '\t';
+        }
+
+        /**
+         * Skip over whitespace, counting lines
+         *
+         * @return True if there is more to read, false at the end of the file
+         * @throws IOException If the file cannot be read
+         */
+        boolean skipWhitespace() throws IOException {
+            int b;
+            while (isWhitespace(b = peek())) {
+                if (b == '\n') {
+                    line++;
+                }
+                skip();
+            }
+            return b != -1;
+        }
+
+        /**
+         * Read one of the two numbers at the top of the file
+         *
+         * @param what What the number is (for error messages)
+         * @return The number
+         * @throws IOException If the file cannot be read
+         */
+        int nextHeaderInt(String what) throws IOException {
+            if (!skipWhitespace()) {
+                throw error("missing " + what);
+            }
+            int value = nextInt();
+            if (value < 0) {
+                throw error(what + " must be >= 0");
+            }
+            endOfRecord();
+            return value;
+        }
+
+        /**
+         * Decode an integer straight from the bytes
+         *
+         * @return The integer
+         * @throws IOException If the file cannot be read
+         */
+        int nextInt() throws IOException {
+            boolean negative = false;
+            if (peek() == '-') {
+                negative = true;
+                skip();
+            }
+            long value = 0;
+            int digits = 0;
+            int b;
+            while ((b = peek()) >= '0' && b <= '9') {
+                value = value * 10 + (b - '0');
+                if (value > (long) Integer.MAX_VALUE + 1) {
+                    throw error("number is too big");
+                }
+                digits++;
+                skip();
+            }
+            if (digits == 0) {
+                throw error("expected a number but found " + describe(b));
+            }
+            value = negative ? -value : value;
+            if (value > Integer.MAX_VALUE) {
+                throw error("number is too big");
+            }
+            return (int) value;
+        }
+
+        /**
+         * Read an entity's health
+         *
+         * @return The health (never negative)
+         * @throws IOException If the file cannot be read
+         */
+        int nextHealth() throws IOException {
+            int health = nextInt();
+            if (health < 0) {
+                throw error("health must be >= 0");
+            }
+            return health;
+        }
+
+        /**
+         * Read a single character field
+         *
+         * @return The character (only the first byte of the field is kept)
+         * @throws IOException If the file cannot be read
+         */
+        char nextSymbol() throws IOException {
+            int symbol = peek();
+            if (symbol == -1 || symbol == ',' || isWhitespace(symbol)) {
+                throw error("expected a symbol but found " + describe(symbol));
+            }
+            skip();
+            //Anything else in the field is ignored (the symbol is only the first character)
+            int b;
+            while ((b = peek()) != -1 && b != ',' && !isWhitespace(b)) {
+                skip();
+            }
+            return (char) symbol;
+        }
+
+        /**
+         * Read a word field into a buffer
+         *
+         * @param word Where to put the word (longer words are cut off, but their full length is returned)
+         * @return Length of the word
+         * @throws IOException If the file cannot be read
+         */
+        int nextWord(byte[] word) throws IOException {
+            int length = 0;
+            int b;
+            while ((b = peek()) != -1 && b != ',' && !isWhitespace(b)) {
+                if (length < word.length) {
+                    word[length] = (byte) b;
+                }
+                length++;
+                skip();
+            }
+            if (length == 0) {
+                throw error("expected an entity type but found " + describe(b));
+            }
+            return length;
+        }
+
+        /**
+         * Is the next byte a comma (more fields to come)
+         *
+         * @return True if the next byte is a comma
+         * @throws IOException If the file cannot be read
+         */
+        boolean nextIsComma() throws IOException {
+            return peek() == ',';
+        }
+
+        /**
+         * Use up a comma, it is an error if there isn't one
+         *
+         * @throws IOException If the file cannot be read
+         */
+        void expectComma() throws IOException {
+            int b = peek();
+            if (b != ',') {
+                throw error("expected ',' but found " + describe(b));
+            }
+            skip();
+        }
+
+        /**
+         * Make sure a record ends here (whitespace or end of file)
+         *
+         * @throws IOException If the file cannot be read
+         */
+        void endOfRecord() throws IOException {
+            int b = peek();
+            if (b != -1 && !isWhitespace(b)) {
+                throw error("unexpected " + describe(b) + " at end of line");
+            }
+        }
+
+        /**
+         * Describe a byte for an error message
+         *
+         * @param b The byte (-1 for end of file)
+         * @return Description of the byte
+         */
+        private static String describe(int b) {
+            if (b == -1) {
+                return "end of file";
+            } else if (b == '\n' || b == '\r') {
+                return "end of line";
+            }
+            return "'" + (char) b + "'";
+        }
+
+        /**
+         * Make an error for the current line
+         *
+         * @param message What is wrong
+         * @return The exception to throw
+         */
+        IllegalArgumentException error(String message) {
+            return new IllegalArgumentException(String.format("World file %s line %d: %s!", name, line, message));
+        }
+    }
 }
@@ -0,0 +1,79 @@
+package mvh.util;
+
+import mvh.enums.LogLevel;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Keeps the last few messages in memory, the oldest being overwritten once it is full
+ * Handy for tests and for showing what happened just before something went wrong
+ * @author Hasan Salhi
+ * @version 1.0
+ */
+public final class RingSink implements OutputSink {
+
+    /**
+     * The messages kept
+     */
+    private final String[] ring;
+    /**
+     * Index the next message goes in
+     */
+    private int next;
+    /**
+     * Number of messages written in total
+     */
+    private long written;
+
+    /**
+     * Keep the last few messages
+     *
+     * @param capacity Number of messages kept
+     */
+    public RingSink(int capacity) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("Capacity must be > 0. Value given was " + capacity + "!");
+        }
+        this.ring = new String[capacity];
+    }
+
+    @Override
+    public synchronized void write(LogLevel level, String message) {
+        ring[next] = message;
+        next = (next + 1) % ring.length;
+        written++;
+    }
+
+    /**
+     * The messages kept, oldest first
+     *
+     * @return A copy of the messages kept
+     */
+    public synchronized List<String> lines() {
+        int kept = (int) Math.min(written, ring.length);
+        List<String> lines = new ArrayList<>(kept);
+        int start = written > ring.length ? next : 0;
+        for (int i = 0; i < kept; i++) {
+            lines.add(ring[(start + i) % ring.length]);
+        }
+        return lines;
+    }
+
+    /**
+     * @return Number of messages written in total (kept or not)
+     */
+    public synchronized long getWritten() {
+        return written;
+    }
+
+    /**
+     * Forget every message kept
+     */
+    public synchronized void clear() {
+        Arrays.fill(ring, null);
+        next = 0;
+        written = 0;
+    }
+}
@@ -0,0 +1,165 @@
+package mvh.util;
+
+import mvh.enums.LogLevel;
+import mvh.enums.SinkFormat;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Writes each message as one record (CSV or JSON lines) with its sequence number and level, for loading into other
+ * tools rather than reading, messages that span lines (turn maps) stay one record
+ * @author Hasan Salhi
+ * @version 1.0
+ */
+public final class StructuredSink implements OutputSink {
+
+    /**
+     * Size of the write buffer in chars
+     */
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    /**
+     * Where records are written
+     */
+    private final Writer writer;
+    /**
+     * How records are written
+     */
+    private final SinkFormat format;
+    /**
+     * Where the records are going (for error messages)
+     */
+    private final String name;
+    /**
+     * Number of records written
+     */
+    private long sequence;
+
+    /**
+     * Write records to a file, in the format its extension names (see SinkFormat.forName)
+     *
+     * @param file The file (replacing what was in it)
+     */
+    public StructuredSink(File file) {
+        this(file, SinkFormat.forName(file.getName()));
+    }
+
+    /**
+     * Write records to a file
+     *
+     * @param file   The file (replacing what was in it)
+     * @param format How records are written
+     */
+    public StructuredSink(File file, SinkFormat format) {
+        this(open(file), format, file.getAbsolutePath());
+    }
+
+    /**
+     * Write records to a writer
+     *
+     * @param writer Where records are written (closed with the sink)
+     * @param format How records are written
+     * @param name   Where the records are going (for error messages)
+     */
+    public StructuredSink(Writer writer, SinkFormat format, String name) {
+        if (writer == null || format == null) {
+            throw new IllegalArgumentException("Structured sink needs a writer and a format!");
+        }
+        this.writer = writer;
+        this.format = format;
+        this.name = name;
+        if (format == SinkFormat.CSV) {
+            append("seq,level,message\n");
+        }
+    }
+
+    /**
+     * Open a buffered writer for a file
+     *
+     * @param file The file
+     * @return The writer
+     */
+    private static Writer open(File file) {
+        try {
+            return new BufferedWriter(new OutputStreamWriter(new FileOutputStream(file), StandardCharsets.UTF_8), BUFFER_SIZE);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Unable to open " + file.getAbsoluteFile(), e);
+        }
+    }
+
+    @Override
+    public synchronized void write(LogLevel level, String message) {
+        sequence++;
+        StringBuilder record = new StringBuilder(message.length() + 48);
+        if (format == SinkFormat.CSV) {
+            record.append(sequence).append(',').append(level).append(",\"");
+            for (int i = 0; i < message.length(); i++) {
+                char c = message.charAt(i);
+                if (c == '"') {
+                    record.append('"');
+                }
+                record.append(c);
+            }
+            record.append("\"\n");
+        } else {
+            record.append("{\"seq\":").append(sequence).append(",\"level\":\"").append(level).append("\",\"message\":\"");
+            for (int i = 0; i < message.length(); i++) {
+                char c = message.charAt(i);
+                switch (c) {
+                    case '"' -> record.append("\\\"");
+                    case '\\' -> record.append("\\\\");
+                    case '\n' -> record.append("\\n");
+                    case '\r' -> record.append("\\r");
+                    case '\t' -> record.append("\\t");
+                    default -> {
+                        if (c < 0x20) {
+                            record.append(String.format("\\u%04x", (int) c));
+                        } else {
+                            record.append(c);
+                        }
+                    }
+                }
+            }
+            record.append("\"}\n");
+        }
+        append(record);
+    }
+
+    /**
+     * Write text, reporting failures as UncheckedIOException
+     *
+     * @param text The text
+     */
+    private void append(CharSequence text) {
+        try {
+            writer.append(text);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Unable to write " + name, e);
+        }
+    }
+
+    @Override
+    public synchronized void flush() {
+        try {
+            writer.flush();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Unable to write " + name, e);
+        }
+    }
+
+    @Override
+    public synchronized void close() {
+        try {
+            writer.close();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Unable to close " + name, e);
+        }
+    }
+}
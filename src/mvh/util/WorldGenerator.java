@@ -0,0 +1,441 @@
+package mvh.util;
+
+import mvh.enums.WeaponType;
+
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+
+/**
+ * Writes synthetic world files of any size in the format Reader.loadWorld reads, one row at a time in constant memory
+ * Every spot is decided from a hash of the seed and its location alone, so nothing about earlier spots is kept and the
+ * same settings always give the same file. With clustering, hero and monster densities are scaled by two smooth noise
+ * fields (one per side) so each side gathers in patches about cluster spots across instead of being spread evenly
+ * Can be run as a program: WorldGenerator &lt;file&gt; &lt;rows&gt; &lt;columns&gt; [--seed=N] [--heroes=D]
+ * [--monsters=D] [--walls=D] [--cluster=N] [--weapons=C,A,S] [--all-spots]
+ * @author Hasan Salhi
+ * @version 1.0
+ */
+public final class WorldGenerator {
+
+    /**
+     * Salt of the hash deciding what is on a spot
+     */
+    private static final long SPOT_SALT = 0x5851F42D4C957F2DL;
+    /**
+     * Salt of the hash deciding a hero or monster's stats
+     */
+    private static final long STATS_SALT = 0x14057B7EF767814FL;
+    /**
+     * Salt of the hero noise field
+     */
+    private static final long HERO_SALT = 0x2545F4914F6CDD1DL;
+    /**
+     * Salt of the monster noise field
+     */
+    private static final long MONSTER_SALT = 0x9E3779B97F4A7C15L;
+
+    /**
+     * Rows of the world
+     */
+    private final int rows;
+    /**
+     * Columns of the world
+     */
+    private final int columns;
+    /**
+     * Seed of every hash
+     */
+    private final long seed;
+    /**
+     * Chance of a spot holding a hero (on average over the map)
+     */
+    private double heroDensity = 0.01;
+    /**
+     * Chance of a spot holding a monster (on average over the map)
+     */
+    private double monsterDensity = 0.01;
+    /**
+     * Chance of a spot being a wall
+     */
+    private double wallDensity = 0.05;
+    /**
+     * Spots across one patch of the noise fields, 0 for no clustering
+     */
+    private int clusterSize = 0;
+    /**
+     * Relative chance of each WeaponType for monsters (indexed by ordinal)
+     */
+    private double[] weaponWeights = {1, 1, 1};
+    /**
+     * Also write a line for every floor spot (as the hand-written worlds do)
+     */
+    private boolean allSpots = false;
+
+    /**
+     * A generator for a world of ROWSxCOLUMNS
+     *
+     * @param rows    Rows of the world
+     * @param columns Columns of the world
+     * @param seed    Seed of the layout
+     */
+    public WorldGenerator(int rows, int columns, long seed) {
+        if (rows < 1 || columns < 1) {
+            throw new IllegalArgumentException("World must be at least 1x1. Size given was " + rows + "x" + columns + "!");
+        }
+        this.rows = rows;
+        this.columns = columns;
+        this.seed = seed;
+    }
+
+    /**
+     * Generate a world file
+     *
+     * @param args Program arguments, Usage: WorldGenerator &lt;file&gt; &lt;rows&gt; &lt;columns&gt; [--seed=N]
+     *             [--heroes=D] [--monsters=D] [--walls=D] [--cluster=N] [--weapons=C,A,S] [--all-spots]
+     */
+    public static void main(String[] args) {
+        String usage = "Usage: WorldGenerator <file> <rows> <columns> [--seed=N] [--heroes=D] [--monsters=D] [--walls=D] [--cluster=N] [--weapons=C,A,S] [--all-spots]";
+        if (args.length < 3) {
+            System.err.println(usage);
+            System.exit(1);
+        }
+        try {
+            long seed = 1;
+            for (int i = 3; i < args.length; i++) {
+                if (args[i].startsWith("--seed=")) {
+                    seed = Long.parseLong(args[i].substring("--seed=".length()));
+                }
+            }
+            WorldGenerator generator = new WorldGenerator(Integer.parseInt(args[1]), Integer.parseInt(args[2]), seed);
+            for (int i = 3; i < args.length; i++) {
+                String option = args[i];
+                String value = option.substring(option.indexOf('=') + 1);
+                if (option.startsWith("--seed=")) {
+                    continue;
+                } else if (option.startsWith("--heroes=")) {
+                    generator.setHeroDensity(Double.parseDouble(value));
+                } else if (option.startsWith("--monsters=")) {
+                    generator.setMonsterDensity(Double.parseDouble(value));
+                } else if (option.startsWith("--walls=")) {
+                    generator.setWallDensity(Double.parseDouble(value));
+                } else if (option.startsWith("--cluster=")) {
+                    generator.setClusterSize(Integer.parseInt(value));
+                } else if (option.startsWith("--weapons=")) {
+                    String[] parts = value.split(",");
+                    double[] weights = new double[parts.length];
+                    for (int w = 0; w < parts.length; w++) {
+                        weights[w] = Double.parseDouble(parts[w].trim());
+                    }
+                    generator.setWeaponWeights(weights);
+                } else if (option.equals("--all-spots")) {
+                    generator.setAllSpots(true);
+                } else {
+                    System.err.printf("Unknown option %s!%n", option);
+                    System.err.println(usage);
+                    System.exit(1);
+                }
+            }
+            long start = System.nanoTime();
+            generator.write(new File(args[0]));
+            System.out.printf("Generated %sx%s world %s in %.3f ms%n", args[1], args[2], args[0], (System.nanoTime() - start) / 1e6);
+        } catch (NumberFormatException e) {
+            System.err.println("Sizes, densities, seed and weights must be numbers! " + e.getMessage());
+            System.exit(1);
+        } catch (IllegalArgumentException | UncheckedIOException e) {
+            System.err.println(e.getMessage());
+            System.exit(1);
+        }
+    }
+
+    /**
+     * Set the average chance of a spot holding a hero
+     *
+     * @param density Between 0 and 1
+     */
+    public void setHeroDensity(double density) {
+        this.heroDensity = checkDensity(density, monsterDensity, wallDensity);
+    }
+
+    /**
+     * Set the average chance of a spot holding a monster
+     *
+     * @param density Between 0 and 1
+     */
+    public void setMonsterDensity(double density) {
+        this.monsterDensity = checkDensity(density, heroDensity, wallDensity);
+    }
+
+    /**
+     * Set the chance of a spot being a wall
+     *
+     * @param density Between 0 and 1
+     */
+    public void setWallDensity(double density) {
+        this.wallDensity = checkDensity(density, heroDensity, monsterDensity);
+    }
+
+    /**
+     * Check a density, and that it leaves room for the other two
+     *
+     * @param density The density being set
+     * @param other   One of the other densities
+     * @param another The last density
+     * @return The density
+     */
+    private static double checkDensity(double density, double other, double another) {
+        if (!(density >= 0 && density <= 1)) {
+            throw new IllegalArgumentException("Density must be between 0 and 1. Value given was " + density + "!");
+        }
+        if (density + other + another > 1) {
+            throw new IllegalArgumentException("Hero, monster and wall densities must add up to at most 1!");
+        }
+        return density;
+    }
+
+    /**
+     * Gather heroes and monsters in patches
+     *
+     * @param clusterSize Spots across one patch, 0 to spread them evenly
+     */
+    public void setClusterSize(int clusterSize) {
+        if (clusterSize < 0) {
+            throw new IllegalArgumentException("Cluster size must be >= 0. Value given was " + clusterSize + "!");
+        }
+        this.clusterSize = clusterSize;
+    }
+
+    /**
+     * Set the mix of monster weapons
+     *
+     * @param weights Relative chance of CLUB, AXE and SWORD (not all 0)
+     */
+    public void setWeaponWeights(double[] weights) {
+        if (weights.length != WeaponType.values().length) {
+            throw new IllegalArgumentException("Weapon mix needs " + WeaponType.values().length + " weights. Given " + weights.length + "!");
+        }
+        double total = 0;
+        for (double weight : weights) {
+            if (!(weight >= 0)) {
+                throw new IllegalArgumentException("Weapon weights must be >= 0. Value given was " + weight + "!");
+            }
+            total += weight;
+        }
+        if (total <= 0) {
+            throw new IllegalArgumentException("At least one weapon weight must be above 0!");
+        }
+        this.weaponWeights = weights.clone();
+    }
+
+    /**
+     * Write a line for every floor spot too, not just walls, heroes and monsters
+     *
+     * @param allSpots True to write floor spots
+     */
+    public void setAllSpots(boolean allSpots) {
+        this.allSpots = allSpots;
+    }
+
+    /**
+     * Write the world to a file
+     *
+     * @param file The file to write
+     */
+    public void write(File file) {
+        try (OutputStream stream = new FileOutputStream(file)) {
+            write(stream);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Unable to write world file " + file.getAbsoluteFile(), e);
+        }
+    }
+
+    /**
+     * Write the world to a stream, one spot at a time (nothing grows with the size of the world)
+     *
+     * @param stream Where to write (flushed, not closed)
+     * @throws IOException If the stream cannot be written
+     */
+    public void write(OutputStream stream) throws IOException {
+        BufferedOutputStream out = new BufferedOutputStream(stream, 1 << 16);
+        byte[] line = new byte[64];
+        int length = appendInt(line, 0, rows);
+        line[length++] = '\n';
+        length = appendInt(line, length, columns);
+        line[length++] = '\n';
+        out.write(line, 0, length);
+        double weightTotal = 0;
+        for (double weight : weaponWeights) {
+            weightTotal += weight;
+        }
+        for (int row = 0; row < rows; row++) {
+            for (int column = 0; column < columns; column++) {
+                double roll = unit(hash(row, column, SPOT_SALT));
+                double heroes = heroDensity * cluster(row, column, HERO_SALT);
+                double monsters = monsterDensity * cluster(row, column, MONSTER_SALT);
+                boolean wall = roll < wallDensity;
+                boolean hero = !wall && roll < wallDensity + heroes;
+                boolean monster = !wall && !hero && roll < wallDensity + heroes + monsters;
+                if (!wall && !hero && !monster && !allSpots) {
+                    continue;
+                }
+                length = appendInt(line, 0, row);
+                line[length++] = ',';
+                length = appendInt(line, length, column);
+                if (wall) {
+                    length = appendText(line, length, ",WALL");
+                } else if (hero || monster) {
+                    long stats = hash(row, column, STATS_SALT);
+                    int health = 10 + (int) ((stats >>> 8) % 20);
+                    if (hero) {
+                        length = appendText(line, length, ",HERO,H,");
+                        length = appendInt(line, length, health);
+                        line[length++] = ',';
+                        length = appendInt(line, length, 1 + (int) ((stats >>> 20) % 5));
+                        line[length++] = ',';
+                        length = appendInt(line, length, (int) ((stats >>> 32) % 3));
+                    } else {
+                        length = appendText(line, length, ",MONSTER,M,");
+                        length = appendInt(line, length, health);
+                        line[length++] = ',';
+                        line[length++] = (byte) weapon(unit(stats) * weightTotal).name().charAt(0);
+                    }
+                }
+                line[length++] = '\n';
+                out.write(line, 0, length);
+            }
+        }
+        out.flush();
+    }
+
+    /**
+     * Pick a weapon from the mix
+     *
+     * @param pick A number from 0 up to the total of the weights
+     * @return The weapon whose share of the total the number falls in
+     */
+    private WeaponType weapon(double pick) {
+        WeaponType[] weapons = WeaponType.values();
+        for (int i = 0; i < weapons.length; i++) {
+            pick -= weaponWeights[i];
+            if (pick < 0 && weaponWeights[i] > 0) {
+                return weapons[i];
+            }
+        }
+        for (int i = weapons.length - 1; i >= 0; i--) {
+            if (weaponWeights[i] > 0) {
+                return weapons[i];
+            }
+        }
+        return weapons[weapons.length - 1];
+    }
+
+    /**
+     * How crowded one side is at a spot compared to its average (1 everywhere without clustering)
+     * Smooth noise between 0 and 2 that averages 1: random values on a grid cluster spots apart, blended between the
+     * four around the spot, so patches of about cluster spots are crowded and the ones between them are nearly empty
+     *
+     * @param row    The row of the spot
+     * @param column The column of the spot
+     * @param salt   Which side's field
+     * @return The density multiplier
+     */
+    private double cluster(int row, int column, long salt) {
+        if (clusterSize == 0) {
+            return 1;
+        }
+        int gridRow = row / clusterSize;
+        int gridColumn = column / clusterSize;
+        double y = (double) (row % clusterSize) / clusterSize;
+        double x = (double) (column % clusterSize) / clusterSize;
+        double top = lerp(unit(hash(gridRow, gridColumn, salt)), unit(hash(gridRow, gridColumn + 1, salt)), fade(x));
+        double bottom = lerp(unit(hash(gridRow + 1, gridColumn, salt)), unit(hash(gridRow + 1, gridColumn + 1, salt)), fade(x));
+        return 2 * lerp(top, bottom, fade(y));
+    }
+
+    /**
+     * Smooth step so blended noise has no creases at grid lines
+     *
+     * @param t Between 0 and 1
+     * @return Eased value between 0 and 1
+     */
+    private static double fade(double t) {
+        return t * t * (3 - 2 * t);
+    }
+
+    /**
+     * Blend between two values
+     *
+     * @param a Value at 0
+     * @param b Value at 1
+     * @param t Between 0 and 1
+     * @return The blended value
+     */
+    private static double lerp(double a, double b, double t) {
+        return a + (b - a) * t;
+    }
+
+    /**
+     * Well mixed hash of a location (splitmix64 finalizer)
+     *
+     * @param row    The row
+     * @param column The column
+     * @param salt   Which decision the hash is for
+     * @return The hash
+     */
+    private long hash(long row, long column, long salt) {
+        long z = seed ^ salt;
+        z += row * 0xBF58476D1CE4E5B9L + column * 0x94D049BB133111EBL;
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        z = (z ^ (z >>> 31)) * 0x9E3779B97F4A7C15L;
+        return z ^ (z >>> 29);
+    }
+
+    /**
+     * A hash as a number from 0 (inclusive) to 1 (exclusive)
+     *
+     * @param hash The hash
+     * @return Its top 53 bits as a fraction
+     */
+    private static double unit(long hash) {
+        return (hash >>> 11) * 0x1.0p-53;
+    }
+
+    /**
+     * Write a non-negative whole number into a line
+     *
+     * @param line   The line
+     * @param length Bytes of the line used so far
+     * @param value  The number
+     * @return Bytes used after the number
+     */
+    private static int appendInt(byte[] line, int length, int value) {
+        int digits = 1;
+        for (int rest = value / 10; rest > 0; rest /= 10) {
+            digits++;
+        }
+        for (int i = length + digits - 1; i >= length; i--) {
+            line[i] = (byte) ('0' + value % 10);
+            value /= 10;
+        }
+        return length + digits;
+    }
+
+    /**
+     * Write ASCII text into a line
+     *
+     * @param line   The line
+     * @param length Bytes of the line used so far
+     * @param text   The text
+     * @return Bytes used after the text
+     */
+    private static int appendText(byte[] line, int length, String text) {
+        for (int i = 0; i < text.length(); i++) {
+            line[length++] = (byte) text.charAt(i);
+        }
+        return length;
+    }
+}
@@ -0,0 +1,72 @@
+package mvh.world;
+
+/**
+ * The original grid storage, an Entity[][] with one reference per spot
+ * @author Hasan Salhi
+ * @version 1.0
+ */
+final class ArrayCellStore implements CellStore {
+
+    /**
+     * The storage of entities, floor is null
+     */
+    private final Entity[][] world;
+    /**
+     * The columns of the grid (kept so a world with 0 rows still knows its width)
+     */
+    private final int columns;
+
+    /**
+     * A new grid of ROWSxCOLUMNS in size
+     *
+     * @param rows    The rows of the grid
+     * @param columns The columns of the grid
+     */
+    ArrayCellStore(int rows, int columns) {
+        this.world = new Entity[rows][columns];
+        this.columns = columns;
+    }
+
+    @Override
+    public int getRows() {
+        return world.length;
+    }
+
+    @Override
+    public int getColumns() {
+        return columns;
+    }
+
+    @Override
+    public Entity get(int row, int column) {
+        return world[row][column];
+    }
+
+    @Override
+    public void set(int row, int column, Entity entity) {
+        world[row][column] = entity;
+    }
+
+    @Override
+    public void move(int fromRow, int fromColumn, int toRow, int toColumn) {
+        Entity entity = world[fromRow][fromColumn];
+        world[toRow][toColumn] = entity;
+        world[fromRow][fromColumn] = null;
+    }
+
+    @Override
+    public byte kind(int row, int column) {
+        return CellStore.kindOf(world[row][column]);
+    }
+
+    @Override
+    public char mapSymbol(int row, int column) {
+        Entity entity = world[row][column];
+        return CellStore.mapSymbolOf(CellStore.kindOf(entity), entity == null ? 0 : entity.getSymbol());
+    }
+
+    @Override
+    public void refresh(int row, int column) {
+        //Nothing cached, kind is always worked out from the entity itself
+    }
+}
@@ -0,0 +1,152 @@
+package mvh.world;
+
+import mvh.enums.Symbol;
+
+/**
+ * Storage for the 2D grid of a World, null spots are floor spots
+ * Besides the entity itself each spot can report a small kind code so neighborhood checks do not need to touch the
+ * entity object at all
+ * @author Hasan Salhi
+ * @version 1.0
+ */
+interface CellStore {
+
+    /**
+     * Nothing (floor) in this spot
+     */
+    byte FLOOR = 0;
+    /**
+     * A wall in this spot
+     */
+    byte WALL = 1;
+    /**
+     * A hero in this spot (ALIVE or DEAD)
+     */
+    byte HERO = 2;
+    /**
+     * A monster in this spot (ALIVE or DEAD)
+     */
+    byte MONSTER = 3;
+    /**
+     * Some other kind of entity in this spot
+     */
+    byte OTHER = 4;
+    /**
+     * Flag added to the kind when the entity in this spot is ALIVE
+     */
+    byte ALIVE = 8;
+    /**
+     * Mask to pull the kind back out without the ALIVE flag
+     */
+    byte TYPE_MASK = 7;
+
+    /**
+     * The rows of the grid
+     * @return The rows of the grid
+     */
+    int getRows();
+
+    /**
+     * The columns of the grid
+     * @return The columns of the grid
+     */
+    int getColumns();
+
+    /**
+     * Get entity at a location
+     *
+     * @param row    The row of the entity
+     * @param column The column of the entity
+     * @return The Entity at the given row, column (null if floor)
+     */
+    Entity get(int row, int column);
+
+    /**
+     * Place an entity at a location (null to make it floor)
+     *
+     * @param row    The row to set
+     * @param column The column to set
+     * @param entity The entity to place there
+     */
+    void set(int row, int column, Entity entity);
+
+    /**
+     * Move whatever is in one spot to another, leaving floor behind (anything at the destination is overwritten)
+     * Moving a spot onto itself leaves floor
+     *
+     * @param fromRow      The row to move from
+     * @param fromColumn   The column to move from
+     * @param toRow        The row to move to
+     * @param toColumn     The column to move to
+     */
+    void move(int fromRow, int fromColumn, int toRow, int toColumn);
+
+    /**
+     * The kind of entity in a spot (FLOOR, WALL, HERO, MONSTER or OTHER, with ALIVE added if the entity is ALIVE)
+     *
+     * @param row    The row to check
+     * @param column The column to check
+     * @return The kind code of the spot
+     */
+    byte kind(int row, int column);
+
+    /**
+     * The symbol to draw for a spot on the map
+     * Walls are WALL, ALIVE heroes/monsters use their own symbol, DEAD heroes/monsters are DEAD, everything else is FLOOR
+     *
+     * @param row    The row to draw
+     * @param column The column to draw
+     * @return The map symbol of the spot
+     */
+    char mapSymbol(int row, int column);
+
+    /**
+     * The entity in a spot has changed state (eg. been damaged or died), let the store catch up
+     *
+     * @param row    The row that changed
+     * @param column The column that changed
+     */
+    void refresh(int row, int column);
+
+    /**
+     * Work out the map symbol for a kind code
+     *
+     * @param kind   The kind code of the spot
+     * @param symbol The symbol of the entity in the spot (used only if it is an ALIVE hero/monster)
+     * @return The map symbol of the spot
+     */
+    static char mapSymbolOf(byte kind, char symbol) {
+        int type = kind & TYPE_MASK;
+        if (type == WALL) {
+            return Symbol.WALL.getSymbol();
+        } else if (type == HERO || type == MONSTER) {
+            return (kind & ALIVE) != 0 ? symbol : Symbol.DEAD.getSymbol();
+        }
+        return Symbol.FLOOR.getSymbol();
+    }
+
+    /**
+     * Work out the kind code for an entity
+     *
+     * @param entity The entity (null for floor)
+     * @return The kind code of the entity
+     */
+    static byte kindOf(Entity entity) {
+        byte kind;
+        if (entity == null) {
+            return FLOOR;
+        } else if (entity instanceof Wall) {
+            kind = WALL;
+        } else if (entity instanceof Hero) {
+            kind = HERO;
+        } else if (entity instanceof Monster) {
+            kind = MONSTER;
+        } else {
+            kind = OTHER;
+        }
+        if (entity.isAlive()) {
+            kind |= ALIVE;
+        }
+        return kind;
+    }
+}
@@ -0,0 +1,264 @@
+package mvh.world;
+
+/**
+ * Sparse grid storage for huge, mostly floor worlds
+ * The grid is cut into fixed size square chunks that are only allocated once something is placed in them, and freed
+ * again once they are back to all floor. Chunks are found through an open addressing table keyed by chunk location.
+ * @author Hasan Salhi
+ * @version 1.0
+ */
+final class ChunkedCellStore implements CellStore {
+
+    /**
+     * Chunks are 2^CHUNK_BITS spots on each side
+     */
+    private static final int CHUNK_BITS = 6;
+    /**
+     * Spots on each side of a chunk
+     */
+    private static final int CHUNK_SIZE = 1 << CHUNK_BITS;
+    /**
+     * Mask for the location of a spot inside its chunk
+     */
+    private static final int CHUNK_MASK = CHUNK_SIZE - 1;
+    /**
+     * Starting size of the chunk table (always a power of 2)
+     */
+    private static final int INITIAL_CAPACITY = 16;
+
+    /**
+     * A square block of spots with a count of how many are not floor
+     */
+    private static final class Chunk {
+        /**
+         * The spots of the chunk (row-major), floor is null
+         */
+        private final Entity[] cells = new Entity[CHUNK_SIZE * CHUNK_SIZE];
+        /**
+         * Spots that are not floor, the chunk is freed when this reaches 0
+         */
+        private int used;
+    }
+
+    /**
+     * The rows of the grid
+     */
+    private final int rows;
+    /**
+     * The columns of the grid
+     */
+    private final int columns;
+    /**
+     * Chunk location keys of the table (chunk row in the high 32 bits, chunk column in the low 32 bits)
+     */
+    private long[] keys;
+    /**
+     * Chunks of the table, null slots are empty
+     */
+    private Chunk[] chunks;
+    /**
+     * Number of chunks allocated
+     */
+    private int size;
+
+    /**
+     * A new grid of ROWSxCOLUMNS in size (nothing is allocated until something is placed)
+     *
+     * @param rows    The rows of the grid
+     * @param columns The columns of the grid
+     */
+    ChunkedCellStore(int rows, int columns) {
+        this.rows = rows;
+        this.columns = columns;
+        this.keys = new long[INITIAL_CAPACITY];
+        this.chunks = new Chunk[INITIAL_CAPACITY];
+    }
+
+    @Override
+    public int getRows() {
+        return rows;
+    }
+
+    @Override
+    public int getColumns() {
+        return columns;
+    }
+
+    /**
+     * Number of chunks currently allocated
+     *
+     * @return Number of chunks currently allocated
+     */
+    int chunkCount() {
+        return size;
+    }
+
+    @Override
+    public Entity get(int row, int column) {
+        checkBounds(row, column);
+        Chunk chunk = chunks[find(key(row, column))];
+        if (chunk == null) {
+            return null;
+        }
+        return chunk.cells[inner(row, column)];
+    }
+
+    @Override
+    public void set(int row, int column, Entity entity) {
+        checkBounds(row, column);
+        long key = key(row, column);
+        int index = find(key);
+        Chunk chunk = chunks[index];
+        if (chunk == null) {
+            if (entity == null) {
+                return;
+            }
+            chunk = new Chunk();
+            insert(index, key, chunk);
+        }
+        int inner = inner(row, column);
+        Entity previous = chunk.cells[inner];
+        chunk.cells[inner] = entity;
+        if (previous == null && entity != null) {
+            chunk.used++;
+        } else if (previous != null && entity == null) {
+            chunk.used--;
+            if (chunk.used == 0) {
+                remove(index);
+            }
+        }
+    }
+
+    @Override
+    public void move(int fromRow, int fromColumn, int toRow, int toColumn) {
+        Entity entity = get(fromRow, fromColumn);
+        set(toRow, toColumn, entity);
+        set(fromRow, fromColumn, null);
+    }
+
+    @Override
+    public byte kind(int row, int column) {
+        return CellStore.kindOf(get(row, column));
+    }
+
+    @Override
+    public char mapSymbol(int row, int column) {
+        Entity entity = get(row, column);
+        return CellStore.mapSymbolOf(CellStore.kindOf(entity), entity == null ? 0 : entity.getSymbol());
+    }
+
+    @Override
+    public void refresh(int row, int column) {
+        //Nothing cached, kind is always worked out from the entity itself
+    }
+
+    /**
+     * Make sure a location is inside the grid
+     *
+     * @param row    The row
+     * @param column The column
+     */
+    private void checkBounds(int row, int column) {
+        if (row < 0 || row >= rows || column < 0 || column >= columns) {
+            throw new ArrayIndexOutOfBoundsException("Location (" + row + "," + column + ") is outside of " + rows + "x" + columns + " world!");
+        }
+    }
+
+    /**
+     * Key of the chunk holding a spot
+     *
+     * @param row    The row of the spot
+     * @param column The column of the spot
+     * @return chunk row in the high 32 bits, chunk column in the low 32 bits
+     */
+    private static long key(int row, int column) {
+        return ((long) (row >>> CHUNK_BITS) << 32) | (column >>> CHUNK_BITS);
+    }
+
+    /**
+     * Index of a spot inside its chunk
+     *
+     * @param row    The row of the spot
+     * @param column The column of the spot
+     * @return The index into the chunk's cells
+     */
+    private static int inner(int row, int column) {
+        return (row & CHUNK_MASK) << CHUNK_BITS | (column & CHUNK_MASK);
+    }
+
+    /**
+     * Home slot of a key in the table
+     *
+     * @param key The chunk key
+     * @param mask The table size minus one
+     * @return The slot probing starts from
+     */
+    private static int home(long key, int mask) {
+        long hash = key * 0x9E3779B97F4A7C15L;
+        return (int) (hash >>> 32) & mask;
+    }
+
+    /**
+     * Find the table slot holding a key, or the empty slot it would go in
+     *
+     * @param key The chunk key
+     * @return The slot (chunks[slot] is null if the chunk is not allocated)
+     */
+    private int find(long key) {
+        int mask = chunks.length - 1;
+        int index = home(key, mask);
+        while (chunks[index] != null && keys[index] != key) {
+            index = (index + 1) & mask;
+        }
+        return index;
+    }
+
+    /**
+     * Put a new chunk in an empty slot found by find, growing the table when it gets half full
+     *
+     * @param index The empty slot
+     * @param key   The chunk key
+     * @param chunk The chunk
+     */
+    private void insert(int index, long key, Chunk chunk) {
+        keys[index] = key;
+        chunks[index] = chunk;
+        size++;
+        if (size * 2 > chunks.length) {
+            long[] oldKeys = keys;
+            Chunk[] oldChunks = chunks;
+            keys = new long[oldKeys.length * 2];
+            chunks = new Chunk[oldChunks.length * 2];
+            for (int i = 0; i < oldChunks.length; i++) {
+                if (oldChunks[i] != null) {
+                    int slot = find(oldKeys[i]);
+                    keys[slot] = oldKeys[i];
+                    chunks[slot] = oldChunks[i];
+                }
+            }
+        }
+    }
+
+    /**
+     * Free the chunk in a slot, shifting back any later chunks of the same probe run so lookups still find them
+     *
+     * @param index The slot to empty
+     */
+    private void remove(int index) {
+        int mask = chunks.length - 1;
+        chunks[index] = null;
+        size--;
+        int next = (index + 1) & mask;
+        while (chunks[next] != null) {
+            int home = home(keys[next], mask);
+            //Move the chunk back into the hole if the hole lies between its home slot and where it is now
+            if (((next - home) & mask) >= ((next - index) & mask)) {
+                keys[index] = keys[next];
+                chunks[index] = chunks[next];
+                chunks[next] = null;
+                index = next;
+            }
+            next = (next + 1) & mask;
+        }
+    }
+}
@@ -0,0 +1,177 @@
+package mvh.world;
+
+import mvh.enums.Direction;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Precomputed look up tables for deciding where to attack and where to move in a square local view of any odd size
+ * Attack cells are the 8 spots next to the center, each with the direction to reach it. Chase cells are every spot
+ * further out, each with the directions to try (best first) to head toward it. Both are kept in row-major order so
+ * heroes walk them forwards and monsters walk them backwards, exactly as their original scans did
+ * Tables never change once built and deciding allocates nothing
+ * @author Hasan Salhi
+ * @version 1.0
+ */
+final class DecisionTable {
+
+    /**
+     * Tables are built ahead of time for views up to this radius (bigger views build theirs when asked)
+     */
+    private static final int CACHED_RADIUS = 7;
+
+    /**
+     * Tables for views of radius 0 to CACHED_RADIUS
+     */
+    private static final DecisionTable[] TABLES = new DecisionTable[CACHED_RADIUS + 1];
+
+    static {
+        for (int radius = 0; radius <= CACHED_RADIUS; radius++) {
+            TABLES[radius] = new DecisionTable(radius);
+        }
+    }
+
+    /**
+     * Row and column of the center of the view
+     */
+    private final int center;
+    /**
+     * Rows of the spots next to the center (row-major)
+     */
+    private final int[] attackRows;
+    /**
+     * Columns of the spots next to the center
+     */
+    private final int[] attackColumns;
+    /**
+     * Direction from the center to each spot next to it
+     */
+    private final Direction[] attackDirections;
+    /**
+     * Rows of the spots 2 or more steps from the center (row-major)
+     */
+    private final int[] chaseRows;
+    /**
+     * Columns of the spots 2 or more steps from the center
+     */
+    private final int[] chaseColumns;
+    /**
+     * Directions to try, best first, to head toward each of those spots
+     */
+    private final List<List<Direction>> chasePreferences;
+
+    /**
+     * Build the tables for a view of radius (size - 1) / 2
+     *
+     * @param radius Steps from the center to the edge of the view
+     */
+    private DecisionTable(int radius) {
+        int size = 2 * radius + 1;
+        int adjacent = Math.min(size * size, 9) - 1;
+        this.center = radius;
+        this.attackRows = new int[adjacent];
+        this.attackColumns = new int[adjacent];
+        this.attackDirections = new Direction[adjacent];
+        int far = size * size - 1 - adjacent;
+        this.chaseRows = new int[far];
+        this.chaseColumns = new int[far];
+        List<List<Direction>> preferences = new ArrayList<>(far);
+        int a = 0;
+        int c = 0;
+        for (int i = 0; i < size; i++) {
+            for (int j = 0; j < size; j++) {
+                int rowChange = i - center;
+                int columnChange = j - center;
+                int steps = Math.max(Math.abs(rowChange), Math.abs(columnChange));
+                if (steps == 1) {
+                    attackRows[a] = i;
+                    attackColumns[a] = j;
+                    attackDirections[a] = Direction.getDirection(rowChange, columnChange);
+                    a++;
+                } else if (steps > 1) {
+                    chaseRows[c] = i;
+                    chaseColumns[c] = j;
+                    preferences.add(Direction.getPreferences(rowChange, columnChange));
+                    c++;
+                }
+            }
+        }
+        this.chasePreferences = preferences;
+    }
+
+    /**
+     * The tables for a view
+     *
+     * @param local The view (square, odd size)
+     * @return The tables for a view of that size
+     */
+    static DecisionTable of(WorldView local) {
+        int radius = (local.getRows() - 1) / 2;
+        if (radius <= CACHED_RADIUS) {
+            return TABLES[radius];
+        }
+        return new DecisionTable(radius);
+    }
+
+    /**
+     * Is there a living target at a spot of the view
+     *
+     * @param local   The view
+     * @param row     The row of the view
+     * @param column  The column of the view
+     * @param heroes  True to look for heroes, false for monsters
+     * @return True if a living hero (or monster) is there
+     */
+    private static boolean isTarget(WorldView local, int row, int column, boolean heroes) {
+        if (heroes ? local.isHero(row, column) : local.isMonster(row, column)) {
+            return local.getEntity(row, column).isAlive();
+        }
+        return false;
+    }
+
+    /**
+     * Direction of the first living target next to the center
+     *
+     * @param local     The view, centered on the entity deciding
+     * @param heroes    True to look for heroes, false for monsters
+     * @param backwards True to check spots from the bottom right instead of the top left
+     * @return The direction to attack, null if there is nothing to attack
+     */
+    Direction attack(WorldView local, boolean heroes, boolean backwards) {
+        int count = attackDirections.length;
+        for (int n = 0; n < count; n++) {
+            int k = backwards ? count - 1 - n : n;
+            if (isTarget(local, attackRows[k], attackColumns[k], heroes)) {
+                return attackDirections[k];
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Direction to step toward the first living target 2 or more steps from the center that can be stepped toward
+     * For each target the preferred directions are tried in order, the first one that can be moved on top of is taken
+     *
+     * @param local     The view, centered on the entity deciding
+     * @param heroes    True to look for heroes, false for monsters
+     * @param backwards True to check spots from the bottom right instead of the top left
+     * @return The direction to move, null if no target can be stepped toward
+     */
+    Direction chase(WorldView local, boolean heroes, boolean backwards) {
+        int count = chasePreferences.size();
+        for (int n = 0; n < count; n++) {
+            int k = backwards ? count - 1 - n : n;
+            if (isTarget(local, chaseRows[k], chaseColumns[k], heroes)) {
+                List<Direction> preferences = chasePreferences.get(k);
+                for (int p = 0; p < preferences.size(); p++) {
+                    Direction direction = preferences.get(p);
+                    if (local.canMoveOnTopOf(center + direction.getRowChange(), center + direction.getColumnChange())) {
+                        return direction;
+                    }
+                }
+            }
+        }
+        return null;
+    }
+}
@@ -0,0 +1,177 @@
+package mvh.world;
+
+import mvh.enums.Direction;
+
+import java.util.Arrays;
+
+/**
+ * Distance from every spot of a World to the nearest living hero and to the nearest living monster
+ * Both fields are rebuilt once a turn with a breadth-first search that starts from every enemy at once (walls block,
+ * a step in any of the 8 directions costs 1), so finding the way to the nearest enemy costs O(spots) per side
+ * instead of a search per entity. Entities then only have to step to the neighbouring spot closest to an enemy
+ * @author Hasan Salhi
+ * @version 1.0
+ */
+final class DistanceField {
+
+    /**
+     * Distance of a spot no enemy can reach
+     */
+    static final int UNREACHABLE = Integer.MAX_VALUE;
+
+    /**
+     * Directions an entity can step in (every direction but STAY), in the order ties are broken
+     */
+    private static final Direction[] STEPS = Arrays.stream(Direction.values()).filter(d -> d != Direction.STAY).toArray(Direction[]::new);
+
+    /**
+     * The world the fields are for
+     */
+    private final World world;
+    /**
+     * Rows of the world
+     */
+    private final int rows;
+    /**
+     * Columns of the world
+     */
+    private final int columns;
+    /**
+     * Steps from each spot (row-major) to the nearest living hero
+     */
+    private final int[] toHeroes;
+    /**
+     * Steps from each spot (row-major) to the nearest living monster
+     */
+    private final int[] toMonsters;
+    /**
+     * Search queue of spot indexes (shared by both searches)
+     */
+    private final int[] queue;
+
+    /**
+     * Distance fields for a world (empty until update is called)
+     *
+     * @param world The world
+     */
+    DistanceField(World world) {
+        long spots = (long) world.getRows() * world.getColumns();
+        if (spots > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("World of " + world.getRows() + "x" + world.getColumns() + " is too big for pursuit distance fields!");
+        }
+        this.world = world;
+        this.rows = world.getRows();
+        this.columns = world.getColumns();
+        this.toHeroes = new int[(int) spots];
+        this.toMonsters = new int[(int) spots];
+        this.queue = new int[(int) spots];
+    }
+
+    /**
+     * Rebuild both fields from where the living heroes and monsters are now
+     */
+    void update() {
+        search(toHeroes, Hero.class);
+        search(toMonsters, Monster.class);
+    }
+
+    /**
+     * Multi-source breadth-first search from every living entity of a type
+     *
+     * @param field  The field to fill
+     * @param target The type of entity to measure the distance to
+     */
+    private void search(int[] field, Class<? extends Entity> target) {
+        Arrays.fill(field, UNREACHABLE);
+        int head = 0;
+        int tail = 0;
+        TurnSchedule schedule = world.schedule();
+        for (int i = 0; i < schedule.size(); i++) {
+            int slot = schedule.slot(i);
+            if (world.isAlive(slot) && target.isInstance(world.entity(slot))) {
+                long location = world.location(slot);
+                int index = World.unpackRow(location) * columns + World.unpackColumn(location);
+                if (field[index] == UNREACHABLE) {
+                    field[index] = 0;
+                    queue[tail++] = index;
+                }
+            }
+        }
+        while (head < tail) {
+            int index = queue[head++];
+            int row = index / columns;
+            int column = index % columns;
+            int next = field[index] + 1;
+            for (Direction step : STEPS) {
+                int stepRow = row + step.getRowChange();
+                int stepColumn = column + step.getColumnChange();
+                if (stepRow < 0 || stepRow >= rows || stepColumn < 0 || stepColumn >= columns) {
+                    continue;
+                }
+                int stepIndex = stepRow * columns + stepColumn;
+                if (field[stepIndex] == UNREACHABLE && (world.kind(stepRow, stepColumn) & CellStore.TYPE_MASK) != CellStore.WALL) {
+                    field[stepIndex] = next;
+                    queue[tail++] = stepIndex;
+                }
+            }
+        }
+    }
+
+    /**
+     * Steps from a spot to the nearest enemy of an entity
+     *
+     * @param entity The entity (heroes chase monsters, monsters chase heroes)
+     * @param row    The row of the spot
+     * @param column The column of the spot
+     * @return Number of steps, UNREACHABLE if no enemy can be reached (or the entity has no enemies)
+     */
+    int distance(Entity entity, int row, int column) {
+        int[] field = fieldFor(entity);
+        return field == null ? UNREACHABLE : field[row * columns + column];
+    }
+
+    /**
+     * The neighbouring spot an entity can move onto that is closest to its nearest enemy
+     *
+     * @param entity The entity moving
+     * @param row    The row the entity is on
+     * @param column The column the entity is on
+     * @return The direction to step, STAY if no step gets closer, null if no enemy can be reached
+     */
+    Direction descend(Entity entity, int row, int column) {
+        int[] field = fieldFor(entity);
+        if (field == null || field[row * columns + column] == UNREACHABLE) {
+            return null;
+        }
+        Direction best = Direction.STAY;
+        int bestDistance = field[row * columns + column];
+        for (Direction step : STEPS) {
+            int stepRow = row + step.getRowChange();
+            int stepColumn = column + step.getColumnChange();
+            if (stepRow < 0 || stepRow >= rows || stepColumn < 0 || stepColumn >= columns) {
+                continue;
+            }
+            int distance = field[stepRow * columns + stepColumn];
+            if (distance < bestDistance && world.canMoveOnTopOf(stepRow, stepColumn)) {
+                best = step;
+                bestDistance = distance;
+            }
+        }
+        return best;
+    }
+
+    /**
+     * The field an entity follows
+     *
+     * @param entity The entity
+     * @return The distances to its enemies, null if it has none
+     */
+    private int[] fieldFor(Entity entity) {
+        if (entity instanceof Hero) {
+            return toMonsters;
+        } else if (entity instanceof Monster) {
+            return toHeroes;
+        }
+        return null;
+    }
+}
@@ -44,6 +44,16 @@ public abstract class Entity {
      */
     protected static final int WALL_ID = 0;
 
+    /**
+     * The World this entity was first added to, the only one that uses the slot field (null if never added)
+     */
+    World owner;
+    /**
+     * Index of this entity in the entity list of its owner (-1 if never added)
+     * Lets the owner find the entity's location without hashing
+     */
+    int slot = -1;
+
     /**
      * Create entity with given symbol and health (since class is abstract, only children can be made)
      *
@@ -68,6 +78,25 @@ public abstract class Entity {
         }
     }
 
+    /**
+     * Create an entity that is an exact copy of another (same symbol, health, state and ID)
+     *
+     * @param other The entity to copy
+     */
+    protected Entity(Entity other) {
+        this.symbol = other.symbol;
+        this.health = other.health;
+        this.state = other.state;
+        this.id = other.id;
+    }
+
+    /**
+     * Make an independent copy of this entity for a copied World (keeps the same ID, no new ID is used up)
+     *
+     * @return The copy
+     */
+    abstract Entity copy();
+
     /**
      * Get symbol
      *
@@ -107,15 +136,31 @@ public abstract class Entity {
     /**
      * Damage the health of entity for the given positive (or 0) amount
      * We will update state of ALIVE/DEAD if health falls to <= 0
+     * The World that owns this entity is told so its map, entity table and living counts follow the new health
      *
      * @param damage The damage to subtract from the entity
      */
     public void damage(int damage) {
+        boolean died = takeDamage(damage);
+        if (owner != null) {
+            owner.damaged(this, died);
+        }
+    }
+
+    /**
+     * Damage the health of entity without telling its World (for a World that is already doing the damage)
+     *
+     * @param damage The damage to subtract from the entity
+     * @return True if the entity went from ALIVE to DEAD
+     */
+    boolean takeDamage(int damage) {
         if (damage < 0) {
             throw new IllegalArgumentException("Damage must be reported as positive (or zero) value (which is subtracted)!");
         }
+        boolean wasAlive = isAlive();
         this.health = Math.max(0, this.health - damage);
         checkDead();
+        return wasAlive && isDead();
     }
 
     /**
@@ -147,7 +192,7 @@ public abstract class Entity {
      * @param local The local view of the entity
      * @return The Direction the entity wants to move (presumption that entity already decided to not attack)
      */
-    public abstract Direction chooseMove(World local);
+    public abstract Direction chooseMove(WorldView local);
 
     /**
      * Where does this entity want to attack based on local view of world (immediate neighbors 3x3)
@@ -155,7 +200,7 @@ public abstract class Entity {
      * @param local The local view of the entity (immediate neighbors 3x3)
      * @return The Direction the entity wants to attack (null if not attacking)
      */
-    public abstract Direction attackWhere(World local);
+    public abstract Direction attackWhere(WorldView local);
 
     /**
      * Can this entity be moved on top of
@@ -190,6 +235,34 @@ public abstract class Entity {
         return shortString() + "\t" + symbol + "\t" + health + "\t" + state;
     }
 
+    /**
+     * ID of this entity
+     *
+     * @return The ID (0 for walls)
+     */
+    int getId() {
+        return id;
+    }
+
+    /**
+     * The ID the next entity made will get
+     *
+     * @return The ID counter
+     */
+    public static int nextID() {
+        return counter;
+    }
+
+    /**
+     * Set the ID the next entity made will get (restoring a snapshot, or putting the counter back after loading a
+     * world that should not use up IDs)
+     *
+     * @param next The ID counter
+     */
+    public static void setNextID(int next) {
+        counter = next;
+    }
+
     /**
      * Reset the ID counter (for testing purposes only really)
      */
@@ -0,0 +1,173 @@
+package mvh.world;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * JDK Flight Recorder events for turns, moves, attacks, deaths and world loading
+ * Events are only filled in when a recording wants them (shouldCommit), so without a recording each costs an
+ * allocation the JIT removes. The bundled mvh.jfc settings turn them all on along with CPU and allocation sampling:
+ * java -XX:StartFlightRecording:settings=mvh.jfc,filename=run.jfr mvh.Main ...
+ * @author Hasan Salhi
+ * @version 1.0
+ */
+public final class FlightEvents {
+
+    /**
+     * Events are only made through the nested classes
+     */
+    private FlightEvents() {
+    }
+
+    /**
+     * The kind of an entity as recorded
+     *
+     * @param entity The entity
+     * @return Hero, Monster, Wall or None
+     */
+    static String kind(Entity entity) {
+        if (entity instanceof Hero) {
+            return "Hero";
+        } else if (entity instanceof Monster) {
+            return "Monster";
+        } else if (entity instanceof Wall) {
+            return "Wall";
+        }
+        return "None";
+    }
+
+    /**
+     * ID of an entity as recorded
+     *
+     * @param entity The entity
+     * @return Its ID, 0 for walls and nothing
+     */
+    static int id(Entity entity) {
+        return entity == null || entity instanceof Wall ? 0 : entity.getId();
+    }
+
+    /**
+     * One call of World.advanceSimulation
+     */
+    @Name("mvh.Turn")
+    @Label("Turn")
+    @Category({"MvH", "Simulation"})
+    @Description("One turn of the simulation")
+    @StackTrace(false)
+    public static final class Turn extends Event {
+        @Label("Turn")
+        long turn;
+        @Label("Entities Acting")
+        @Description("Entities given a turn (ALIVE when it started)")
+        int acting;
+        @Label("Living Heroes")
+        int heroes;
+        @Label("Living Monsters")
+        int monsters;
+        @Label("Movement Mode")
+        String movement;
+        @Label("Parallel")
+        boolean parallel;
+    }
+
+    /**
+     * One call of World.moveEntity
+     */
+    @Name("mvh.Move")
+    @Label("Move")
+    @Category({"MvH", "Simulation"})
+    @Description("An entity moved one spot")
+    @StackTrace(false)
+    public static final class Move extends Event {
+        @Label("Entity ID")
+        int entityId;
+        @Label("Kind")
+        String kind;
+        @Label("Row")
+        int row;
+        @Label("Column")
+        int column;
+        @Label("Direction")
+        String direction;
+        @Label("Moved On Top Of")
+        @Description("Kind of what was on the spot moved onto")
+        String replaced;
+    }
+
+    /**
+     * One hit in the attack branch of a turn
+     */
+    @Name("mvh.Attack")
+    @Label("Attack")
+    @Category({"MvH", "Simulation"})
+    @Description("An entity hit another")
+    @StackTrace(false)
+    public static final class Attack extends Event {
+        @Label("Attacker ID")
+        int attackerId;
+        @Label("Attacker Kind")
+        String attackerKind;
+        @Label("Target ID")
+        int targetId;
+        @Label("Target Kind")
+        String targetKind;
+        @Label("Row")
+        @Description("Row of the entity attacked")
+        int row;
+        @Label("Column")
+        @Description("Column of the entity attacked")
+        int column;
+        @Label("Damage")
+        @Description("Damage rolled")
+        int damage;
+        @Label("True Damage")
+        @Description("Damage taken once armor was taken off")
+        int trueDamage;
+    }
+
+    /**
+     * A hero or monster killed by an attack
+     */
+    @Name("mvh.Death")
+    @Label("Death")
+    @Category({"MvH", "Simulation"})
+    @Description("A hero or monster was killed")
+    @StackTrace(false)
+    public static final class Death extends Event {
+        @Label("Entity ID")
+        int entityId;
+        @Label("Kind")
+        String kind;
+        @Label("Row")
+        int row;
+        @Label("Column")
+        int column;
+    }
+
+    /**
+     * One call of Reader.loadWorld
+     */
+    @Name("mvh.LoadWorld")
+    @Label("Load World")
+    @Category({"MvH", "Input"})
+    @Description("A text world file was read")
+    @StackTrace(false)
+    public static final class LoadWorld extends Event {
+        @Label("File")
+        public String file;
+        @Label("Size")
+        @DataAmount
+        public long bytes;
+        @Label("Rows")
+        public int rows;
+        @Label("Columns")
+        public int columns;
+        @Label("Entities")
+        public int entities;
+    }
+}
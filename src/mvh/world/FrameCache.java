@@ -0,0 +1,236 @@
+package mvh.world;
+
+import mvh.enums.Symbol;
+
+import java.util.Arrays;
+
+/**
+ * Keeps the last rendered map and entity table of a World so a turn only re-renders the rows that changed
+ * The map is one char buffer laid out exactly like worldString, the entity table is kept as one block of lines per map
+ * row. The World marks a row dirty whenever something on it is added, moved, moved on top of, or damaged (including
+ * damage done straight to an entity it owns). Only dirty rows are rendered again, and the full worldString and
+ * gameString are only built when asked for, so logging just the changed rows each turn never copies the whole map
+ * Marking only ever sets flags to true, so rows may be marked from several threads at once (tiled turns)
+ * @author Hasan Salhi
+ * @version 1.0
+ */
+final class FrameCache {
+
+    /**
+     * The world being rendered
+     */
+    private final World world;
+    /**
+     * Rows of the world
+     */
+    private final int rows;
+    /**
+     * Columns of the world
+     */
+    private final int columns;
+    /**
+     * The bordered map, row after row each ending in a new line
+     */
+    private final char[] map;
+    /**
+     * Text of each bordered map row, built when first asked for after the row changed (null until then)
+     */
+    private final String[] mapRows;
+    /**
+     * Entity table lines of each map row (empty if it has no heroes or monsters)
+     */
+    private final String[] table;
+    /**
+     * Rows changed since the last render
+     */
+    private final boolean[] dirty;
+    /**
+     * Has any row been marked dirty since the last render
+     */
+    private boolean changed = true;
+    /**
+     * Rows whose text really changed since takeChangedRows was last called (in the order they were found)
+     */
+    private int[] changedRows;
+    /**
+     * Number of changedRows used
+     */
+    private int changedCount;
+    /**
+     * Is a row already in changedRows
+     */
+    private final boolean[] pending;
+    /**
+     * Last rendered worldString
+     */
+    private String worldString;
+    /**
+     * Last rendered gameString (built when first asked for after a change)
+     */
+    private String gameString;
+
+    /**
+     * Cache for a world, everything starts dirty
+     *
+     * @param world The world to render
+     */
+    FrameCache(World world) {
+        this.world = world;
+        this.rows = world.getRows();
+        this.columns = world.getColumns();
+        long length = (long) (rows + 2) * (columns + 3);
+        if (length > Integer.MAX_VALUE - 8) {
+            throw new IllegalStateException("World of " + rows + "x" + columns + " is too big to render!");
+        }
+        this.map = new char[(int) length];
+        this.table = new String[rows];
+        this.mapRows = new String[rows];
+        this.dirty = new boolean[rows];
+        this.pending = new boolean[rows];
+        this.changedRows = new int[Math.min(rows, 16)];
+        //Borders never change
+        char wall = Symbol.WALL.getSymbol();
+        int last = (rows + 1) * (columns + 3);
+        Arrays.fill(map, 0, columns + 2, wall);
+        Arrays.fill(map, last, last + columns + 2, wall);
+        for (int row = 0; row < rows + 2; row++) {
+            int start = row * (columns + 3);
+            map[start] = wall;
+            map[start + columns + 1] = wall;
+            map[start + columns + 2] = '\n';
+        }
+        Arrays.fill(dirty, true);
+    }
+
+    /**
+     * Something on a row changed
+     *
+     * @param row The row
+     */
+    void markDirty(int row) {
+        dirty[row] = true;
+        changed = true;
+    }
+
+    /**
+     * The bordered map
+     *
+     * @return Same text as World.worldString
+     */
+    String worldString() {
+        refresh();
+        if (worldString == null) {
+            worldString = new String(map);
+        }
+        return worldString;
+    }
+
+    /**
+     * The bordered map followed by the entity table
+     *
+     * @return Same text as World.gameString
+     */
+    String gameString() {
+        String map = worldString();
+        if (gameString == null) {
+            int length = map.length() + World.TABLE_HEADER.length();
+            for (String lines : table) {
+                length += lines.length();
+            }
+            StringBuilder output = new StringBuilder(length);
+            output.append(map).append(World.TABLE_HEADER);
+            for (String lines : table) {
+                output.append(lines);
+            }
+            gameString = output.toString();
+        }
+        return gameString;
+    }
+
+    /**
+     * Rows whose map or entity table text really changed since the last call (rows marked dirty that render the same
+     * are left out)
+     *
+     * @return The changed rows, in no particular order
+     */
+    int[] takeChangedRows() {
+        refresh();
+        int[] taken = Arrays.copyOf(changedRows, changedCount);
+        for (int row : taken) {
+            pending[row] = false;
+        }
+        changedCount = 0;
+        return taken;
+    }
+
+    /**
+     * One row of the bordered map
+     *
+     * @param row The row of the world
+     * @return The row as it appears in worldString (with its border walls, without the new line)
+     */
+    String mapRow(int row) {
+        refresh();
+        if (mapRows[row] == null) {
+            mapRows[row] = new String(map, (row + 1) * (columns + 3), columns + 2);
+        }
+        return mapRows[row];
+    }
+
+    /**
+     * The entity table lines of the heroes and monsters on one row
+     *
+     * @param row The row of the world
+     * @return The lines as they appear in gameString (each ending in a new line), empty if there are none
+     */
+    String tableRows(int row) {
+        refresh();
+        return table[row];
+    }
+
+    /**
+     * Re-render the dirty rows of the map and the entity table
+     */
+    private void refresh() {
+        if (!changed) {
+            return;
+        }
+        changed = false;
+        StringBuilder lines = new StringBuilder();
+        for (int row = 0; row < rows; row++) {
+            if (!dirty[row]) {
+                continue;
+            }
+            dirty[row] = false;
+            int start = (row + 1) * (columns + 3) + 1;
+            boolean different = false;
+            lines.setLength(0);
+            for (int column = 0; column < columns; column++) {
+                char symbol = world.mapSymbol(row, column);
+                if (map[start + column] != symbol) {
+                    map[start + column] = symbol;
+                    mapRows[row] = null;
+                    different = true;
+                }
+                if (world.isHero(row, column) || world.isMonster(row, column)) {
+                    lines.append(world.getEntity(row, column).toString()).append('\n');
+                }
+            }
+            if (table[row] == null || !table[row].contentEquals(lines)) {
+                table[row] = lines.toString();
+                different = true;
+            }
+            if (different) {
+                worldString = null;
+                gameString = null;
+                if (!pending[row]) {
+                    pending[row] = true;
+                    if (changedCount == changedRows.length) {
+                        changedRows = Arrays.copyOf(changedRows, Math.max(16, changedCount * 2));
+                    }
+                    changedRows[changedCount++] = row;
+                }
+            }
+        }
+    }
+}
@@ -34,6 +34,25 @@ public final class Hero extends Entity{
         this.armorStrength = armorStrength;
     }
 
+    /**
+     * A Hero that is an exact copy of another hero (same ID)
+     * @param other The hero to copy
+     */
+    private Hero(Hero other) {
+        super(other);
+        this.weaponStrength = other.weaponStrength;
+        this.armorStrength = other.armorStrength;
+    }
+
+    /**
+     * Copy of this hero for a copied World
+     * @return The copy
+     */
+    @Override
+    Hero copy() {
+        return new Hero(this);
+    }
+
     /**
      * The weapon strength of monster is from user value
      * @return The weapon strength of monster is from user value
@@ -83,42 +102,12 @@ public final class Hero extends Entity{
      *
      * @return direction to reach monster or null if there are none nearby
      */
-    public Direction attackWhere(World local) {
-
+    public Direction attackWhere(WorldView local) {
         //This is under the assumption that the parameter local is already local to the hero
-        for (int i = 0; i < local.getRows(); i++) {
-            for (int j = 0; j < local.getColumns(); j++) {
-                if (i != 1 || j != 1) {
-                    if (local.isMonster(i, j)) {
-                        Entity monster = local.getEntity(i, j);
-                        if (monster.isAlive()) {
-                            if (i == 0 && j == 0) {
-                                return Direction.NORTHWEST;
-                            } else if (i == 0 && j == 1) {
-                                return Direction.NORTH;
-                            } else if (i == 0 && j == 2) {
-                                return Direction.NORTHEAST;
-                            } else if (i == 1 && j == 0) {
-                                return Direction.WEST;
-                            } else if (i == 1 && j == 2) {
-                                return Direction.EAST;
-                            } else if (i == 2 && j == 0) {
-                                return Direction.SOUTHWEST;
-                            } else if (i == 2 && j == 1) {
-                                return Direction.SOUTH;
-                            } else if (i == 2 && j == 2) {
-                                return Direction.SOUTHEAST;
-                            }
-                        }
-                    }
-                }
-            }
-        }
-
-        return Direction.STAY;
+        Direction direction = DecisionTable.of(local).attack(local, false, false);
+        return direction != null ? direction : Direction.STAY;
     }
 
-
     //TODO: chooseMove
     /**
      * Decides where to move based on locations of monsters
@@ -127,138 +116,11 @@ public final class Hero extends Entity{
      *
      * @return direction to move in
      */
-    public Direction chooseMove(World local) {
+    public Direction chooseMove(WorldView local) {
         //This is under the assumption that the parameter local is already local to the hero
-        for (int i = 0; i < local.getRows(); i++) {
-            for (int j = 0; j < local.getColumns(); j++) {
-                if (i != 2 || j != 2) {
-                    if (local.isMonster(i, j) && local.getEntity(i, j).isAlive()) {
-                        if (i == 0) {
-                            if (j == 0) {
-                                Direction[] directions = Direction.getDirections(-2, -2);
-                                for (Direction direction : directions) {
-                                    if (local.canMoveOnTopOf((local.getRows()-1)/2 + direction.getRowChange(), (local.getColumns()-1)/2 + direction.getColumnChange())) {
-                                        return direction;
-                                    }
-                                }
-                            } else if (j == 1) {
-                                Direction[] directions = Direction.getDirections(-2, -1);
-                                for (Direction direction : directions) {
-                                    if (local.canMoveOnTopOf((local.getRows()-1)/2 + direction.getRowChange(), (local.getColumns()-1)/2 + direction.getColumnChange())) {
-                                        return direction;
-                                    }
-                                }
-                            } else if (j == 2) {
-                                Direction[] directions = Direction.getDirections(-2, 0);
-                                for (Direction direction : directions) {
-                                    if (local.canMoveOnTopOf((local.getRows()-1)/2 + direction.getRowChange(), (local.getColumns()-1)/2 + direction.getColumnChange())) {
-                                        return direction;
-                                    }
-                                }
-                            } else if (j == 3) {
-                                Direction[] directions = Direction.getDirections(-2, 1);
-                                for (Direction direction : directions) {
-                                    if (local.canMoveOnTopOf((local.getRows()-1)/2 + direction.getRowChange(), (local.getColumns()-1)/2 + direction.getColumnChange())) {
-                                        return direction;
-                                    }
-                                }
-                            } else if (j == 4) {
-                                Direction[] directions = Direction.getDirections(-2, 2);
-                                for (Direction direction : directions) {
-                                    if (local.canMoveOnTopOf((local.getRows()-1)/2 + direction.getRowChange(), (local.getColumns()-1)/2 + direction.getColumnChange())) {
-                                        return direction;
-                                    }
-                                }
-                            }
-                        } else if (i == 1) {
-                            if (j == 0) {
-                                Direction[] directions = Direction.getDirections(-1, -2);
-                                for (Direction direction : directions) {
-                                    if (local.canMoveOnTopOf((local.getRows()-1)/2 + direction.getRowChange(), (local.getColumns()-1)/2 + direction.getColumnChange())) {
-                                        return direction;
-                                    }
-                                }
-                            } else if (j == 4) {
-                                Direction[] directions = Direction.getDirections(-1, 2);
-                                for (Direction direction : directions) {
-                                    if (local.canMoveOnTopOf((local.getRows()-1)/2 + direction.getRowChange(), (local.getColumns()-1)/2 + direction.getColumnChange())) {
-                                        return direction;
-                                    }
-                                }
-                            }
-                        } else if (i == 2) {
-                            if (j == 0) {
-                                Direction[] directions = Direction.getDirections(0, -2);
-                                for (Direction direction : directions) {
-                                    if (local.canMoveOnTopOf((local.getRows()-1)/2 + direction.getRowChange(), (local.getColumns()-1)/2 + direction.getColumnChange())) {
-                                        return direction;
-                                    }
-                                }
-                            } else if (j == 4) {
-                                Direction[] directions = Direction.getDirections(0, 2);
-                                for (Direction direction : directions) {
-                                    if (local.canMoveOnTopOf((local.getRows()-1)/2 + direction.getRowChange(), (local.getColumns()-1)/2 + direction.getColumnChange())) {
-                                        return direction;
-                                    }
-                                }
-                            }
-                        } else if (i == 3) {
-                            if (j == 0) {
-                                Direction[] directions = Direction.getDirections(1, -2);
-                                for (Direction direction : directions) {
-                                    if (local.canMoveOnTopOf((local.getRows()-1)/2 + direction.getRowChange(), (local.getColumns()-1)/2 + direction.getColumnChange())) {
-                                        return direction;
-                                    }
-                                }
-                            } else if (j == 4) {
-                                Direction[] directions = Direction.getDirections(1, 2);
-                                for (Direction direction : directions) {
-                                    if (local.canMoveOnTopOf((local.getRows()-1)/2 + direction.getRowChange(), (local.getColumns()-1)/2 + direction.getColumnChange())) {
-                                        return direction;
-                                    }
-                                }
-                            }
-                        } else if (i == 4) {
-                            if (j == 0) {
-                                Direction[] directions = Direction.getDirections(2, -2);
-                                for (Direction direction : directions) {
-                                    if (local.canMoveOnTopOf((local.getRows()-1)/2 + direction.getRowChange(), (local.getColumns()-1)/2 + direction.getColumnChange())) {
-                                        return direction;
-                                    }
-                                }
-                            } else if (j == 1) {
-                                Direction[] directions = Direction.getDirections(2, -1);
-                                for (Direction direction : directions) {
-                                    if (local.canMoveOnTopOf((local.getRows()-1)/2 + direction.getRowChange(), (local.getColumns()-1)/2 + direction.getColumnChange())) {
-                                        return direction;
-                                    }
-                                }
-                            } else if (j == 2) {
-                                Direction[] directions = Direction.getDirections(2, 0);
-                                for (Direction direction : directions) {
-                                    if (local.canMoveOnTopOf((local.getRows()-1)/2 + direction.getRowChange(), (local.getColumns()-1)/2 + direction.getColumnChange())) {
-                                        return direction;
-                                    }
-                                }
-                            } else if (j == 3) {
-                                Direction[] directions = Direction.getDirections(2, 1);
-                                for (Direction direction : directions) {
-                                    if (local.canMoveOnTopOf((local.getRows()-1)/2 + direction.getRowChange(), (local.getColumns()-1)/2 + direction.getColumnChange())) {
-                                        return direction;
-                                    }
-                                }
-                            } else if (j == 4) {
-                                Direction[] directions = Direction.getDirections(2, 2);
-                                for (Direction direction : directions) {
-                                    if (local.canMoveOnTopOf((local.getRows()-1)/2 + direction.getRowChange(), (local.getColumns()-1)/2 + direction.getColumnChange())) {
-                                        return direction;
-                                    }
-                                }
-                            }
-                        }
-                    }
-                }
-            }
+        Direction direction = DecisionTable.of(local).chase(local, false, false);
+        if (direction != null) {
+            return direction;
         }
 
         //Attempt to move northwest if no nearby monsters
@@ -266,9 +128,9 @@ public final class Hero extends Entity{
             return Direction.NORTHWEST;
         } else {
             //Attempt to move random direction if unable to go northwest
-            int rowChange = Direction.getRandomDirection().getRowChange();
-            int columnChange = Direction.getRandomDirection().getColumnChange();
-            if (local.canMoveOnTopOf(rowChange, columnChange)) {
+            int rowChange = Direction.getRandomDirection(local.getRandom()).getRowChange();
+            int columnChange = Direction.getRandomDirection(local.getRandom()).getColumnChange();
+            if (local.canMoveOnTopOf(local.getRows() / 2 + rowChange, local.getColumns() / 2 + columnChange)) {
                 return Direction.getDirection(rowChange, columnChange);
             }
         }
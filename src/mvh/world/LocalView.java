@@ -0,0 +1,143 @@
+package mvh.world;
+
+import java.util.Random;
+
+/**
+ * A nxn read-only window onto a World centered on a location
+ * Nothing is copied, every look up goes straight through to the parent World
+ * Spots outside the parent World are reported as Wall
+ * @author Hasan Salhi
+ * @version 1.0
+ */
+public final class LocalView implements WorldView {
+
+    /**
+     * The world this view looks into
+     */
+    private final World world;
+    /**
+     * Size of the view (rows and columns, always odd)
+     */
+    private final int size;
+    /**
+     * Row in the parent world of the top left corner of the view
+     */
+    private final int top;
+    /**
+     * Column in the parent world of the top left corner of the view
+     */
+    private final int left;
+    /**
+     * Random number generator given to entities looking through this view (null to use the parent World's)
+     */
+    private final Random random;
+
+    /**
+     * A view of size nxn centered at row, column of world
+     *
+     * @param world  The world to look into
+     * @param size   Size of local view we want (Must be odd)
+     * @param row    Desired row to be centered on
+     * @param column Desired column to be centered on
+     */
+    LocalView(World world, int size, int row, int column) {
+        this(world, size, row, column, null);
+    }
+
+    /**
+     * A view of size nxn centered at row, column of world that hands out its own random number generator
+     *
+     * @param world  The world to look into
+     * @param size   Size of local view we want (Must be odd)
+     * @param row    Desired row to be centered on
+     * @param column Desired column to be centered on
+     * @param random The random number generator entities should use, null to use the parent World's
+     */
+    LocalView(World world, int size, int row, int column, Random random) {
+        if (size < 1 || size % 2 == 0) {
+            throw new IllegalArgumentException("Local view size must be odd and positive. Value given was " + size + "!");
+        }
+        this.world = world;
+        this.size = size;
+        this.top = row - (size - 1) / 2;
+        this.left = column - (size - 1) / 2;
+        this.random = random;
+    }
+
+    @Override
+    public int getRows() {
+        return size;
+    }
+
+    @Override
+    public int getColumns() {
+        return size;
+    }
+
+    /**
+     * Get entity at a location of the view
+     *
+     * @param row    The row of the entity (0 to size-1)
+     * @param column The column of the entity (0 to size-1)
+     * @return The Entity at the given row, column (Wall if outside of the parent world, null if floor)
+     */
+    @Override
+    public Entity getEntity(int row, int column) {
+        checkBounds(row, column);
+        int worldRow = top + row;
+        int worldColumn = left + column;
+        if (worldRow < 0 || worldRow >= world.getRows() || worldColumn < 0 || worldColumn >= world.getColumns()) {
+            return Wall.getWall();
+        }
+        return world.getEntity(worldRow, worldColumn);
+    }
+
+    @Override
+    public boolean canMoveOnTopOf(int row, int column) {
+        return world.canMoveOnTopOf(kind(row, column), top + row, left + column);
+    }
+
+    @Override
+    public boolean isHero(int row, int column) {
+        return (kind(row, column) & CellStore.TYPE_MASK) == CellStore.HERO;
+    }
+
+    @Override
+    public boolean isMonster(int row, int column) {
+        return (kind(row, column) & CellStore.TYPE_MASK) == CellStore.MONSTER;
+    }
+
+    /**
+     * The random number generator entities looking through this view should use
+     *
+     * @return The view's own random number generator, or the parent World's if it has none
+     */
+    @Override
+    public Random getRandom() {
+        return random != null ? random : world.getRandom();
+    }
+
+    /**
+     * The kind code of a location of the view (see CellStore)
+     *
+     * @param row    The row of the view (0 to size-1)
+     * @param column The column of the view (0 to size-1)
+     * @return The kind code, WALL if outside of the parent world
+     */
+    private byte kind(int row, int column) {
+        checkBounds(row, column);
+        return world.kind(top + row, left + column);
+    }
+
+    /**
+     * Make sure a location is inside the view
+     *
+     * @param row    The row of the view
+     * @param column The column of the view
+     */
+    private void checkBounds(int row, int column) {
+        if (row < 0 || row >= size || column < 0 || column >= size) {
+            throw new IndexOutOfBoundsException("Location (" + row + "," + column + ") is outside of " + size + "x" + size + " local view!");
+        }
+    }
+}
@@ -33,6 +33,25 @@ public final class Monster extends Entity {
         this.weaponType = weaponType;
     }
 
+    /**
+     * A Monster that is an exact copy of another monster (same ID)
+     *
+     * @param other The monster to copy
+     */
+    private Monster(Monster other) {
+        super(other);
+        this.weaponType = other.weaponType;
+    }
+
+    /**
+     * Copy of this monster for a copied World
+     * @return The copy
+     */
+    @Override
+    Monster copy() {
+        return new Monster(this);
+    }
+
     /**
      * Gets Monster's weapon type
      * @return The Monster's weapon type
@@ -89,36 +108,10 @@ public final class Monster extends Entity {
      *
      * @return direction to reach monster or null if there are none nearby
      */
-    public Direction attackWhere(World local) {
-        //This is under the assumption that the parameter local is already local to the hero
-        for (int i = local.getRows()-1; i >= 0; i--) {
-            for (int j = local.getColumns()-1; j >= 0; j--) {
-                if (local.isHero(i,j)) {
-                    Entity hero = local.getEntity(i,j);
-                    if (hero.isAlive()) {
-                        if (i == 0 && j == 0) {
-                            return Direction.getDirection(-1,-1);
-                        } else if (i == 0 && j == 1) {
-                            return Direction.getDirection(-1,0);
-                        } else if (i == 0 && j == 2) {
-                            return Direction.getDirection(-1,1);
-                        } else if (i == 1 && j == 0) {
-                            return Direction.getDirection(0,-1);
-                        } else if (i == 1 && j == 2) {
-                            return Direction.getDirection(0,1);
-                        } else if (i == 2 && j == 0) {
-                            return Direction.getDirection(1,-1);
-                        } else if (i == 2 && j == 1) {
-                            return Direction.getDirection(1,0);
-                        } else if (i == 2 && j == 2) {
-                            return Direction.getDirection(1,1);
-                        }
-                    }
-                }
-            }
-        }
-
-        return Direction.getDirection(0,0);
+    public Direction attackWhere(WorldView local) {
+        //This is under the assumption that the parameter local is already local to the monster
+        Direction direction = DecisionTable.of(local).attack(local, true, true);
+        return direction != null ? direction : Direction.STAY;
     }
 
     //TODO: chooseMove
@@ -129,138 +122,11 @@ public final class Monster extends Entity {
      *
      * @return direction to move in
      */
-    public Direction chooseMove(World local) {
+    public Direction chooseMove(WorldView local) {
         //This is under the assumption that the parameter local is already local to the monster
-        for (int i = local.getRows()-1; i >= 0; i--) {
-            for (int j = local.getColumns()-1; j >= 0; j--) {
-                if (i != 2 || j != 2) {
-                    if (local.isHero(i, j) && local.getEntity(i, j).isAlive()) {
-                        if (i == 0) {
-                            if (j == 0) {
-                                Direction[] directions = Direction.getDirections(-2, -2);
-                                for (Direction direction : directions) {
-                                    if (local.canMoveOnTopOf((local.getRows() - 1) / 2 + direction.getRowChange(), (local.getColumns() - 1) / 2 + direction.getColumnChange())) {
-                                        return direction;
-                                    }
-                                }
-                            } else if (j == 1) {
-                                Direction[] directions = Direction.getDirections(-2, -1);
-                                for (Direction direction : directions) {
-                                    if (local.canMoveOnTopOf((local.getRows() - 1) / 2 + direction.getRowChange(), (local.getColumns() - 1) / 2 + direction.getColumnChange())) {
-                                        return direction;
-                                    }
-                                }
-                            } else if (j == 2) {
-                                Direction[] directions = Direction.getDirections(-2, 0);
-                                for (Direction direction : directions) {
-                                    if (local.canMoveOnTopOf((local.getRows() - 1) / 2 + direction.getRowChange(), (local.getColumns() - 1) / 2 + direction.getColumnChange())) {
-                                        return direction;
-                                    }
-                                }
-                            } else if (j == 3) {
-                                Direction[] directions = Direction.getDirections(-2, 1);
-                                for (Direction direction : directions) {
-                                    if (local.canMoveOnTopOf((local.getRows() - 1) / 2 + direction.getRowChange(), (local.getColumns() - 1) / 2 + direction.getColumnChange())) {
-                                        return direction;
-                                    }
-                                }
-                            } else if (j == 4) {
-                                Direction[] directions = Direction.getDirections(-2, 2);
-                                for (Direction direction : directions) {
-                                    if (local.canMoveOnTopOf((local.getRows() - 1) / 2 + direction.getRowChange(), (local.getColumns() - 1) / 2 + direction.getColumnChange())) {
-                                        return direction;
-                                    }
-                                }
-                            }
-                        } else if (i == 1) {
-                            if (j == 0) {
-                                Direction[] directions = Direction.getDirections(-1, -2);
-                                for (Direction direction : directions) {
-                                    if (local.canMoveOnTopOf((local.getRows() - 1) / 2 + direction.getRowChange(), (local.getColumns() - 1) / 2 + direction.getColumnChange())) {
-                                        return direction;
-                                    }
-                                }
-                            } else if (j == 4) {
-                                Direction[] directions = Direction.getDirections(-1, 2);
-                                for (Direction direction : directions) {
-                                    if (local.canMoveOnTopOf((local.getRows() - 1) / 2 + direction.getRowChange(), (local.getColumns() - 1) / 2 + direction.getColumnChange())) {
-                                        return direction;
-                                    }
-                                }
-                            }
-                        } else if (i == 2) {
-                            if (j == 0) {
-                                Direction[] directions = Direction.getDirections(0, -2);
-                                for (Direction direction : directions) {
-                                    if (local.canMoveOnTopOf((local.getRows() - 1) / 2 + direction.getRowChange(), (local.getColumns() - 1) / 2 + direction.getColumnChange())) {
-                                        return direction;
-                                    }
-                                }
-                            } else if (j == 4) {
-                                Direction[] directions = Direction.getDirections(0, 2);
-                                for (Direction direction : directions) {
-                                    if (local.canMoveOnTopOf((local.getRows() - 1) / 2 + direction.getRowChange(), (local.getColumns() - 1) / 2 + direction.getColumnChange())) {
-                                        return direction;
-                                    }
-                                }
-                            }
-                        } else if (i == 3) {
-                            if (j == 0) {
-                                Direction[] directions = Direction.getDirections(1, -2);
-                                for (Direction direction : directions) {
-                                    if (local.canMoveOnTopOf((local.getRows() - 1) / 2 + direction.getRowChange(), (local.getColumns() - 1) / 2 + direction.getColumnChange())) {
-                                        return direction;
-                                    }
-                                }
-                            } else if (j == 4) {
-                                Direction[] directions = Direction.getDirections(1, 2);
-                                for (Direction direction : directions) {
-                                    if (local.canMoveOnTopOf((local.getRows() - 1) / 2 + direction.getRowChange(), (local.getColumns() - 1) / 2 + direction.getColumnChange())) {
-                                        return direction;
-                                    }
-                                }
-                            }
-                        } else if (i == 4) {
-                            if (j == 0) {
-                                Direction[] directions = Direction.getDirections(2, -2);
-                                for (Direction direction : directions) {
-                                    if (local.canMoveOnTopOf((local.getRows() - 1) / 2 + direction.getRowChange(), (local.getColumns() - 1) / 2 + direction.getColumnChange())) {
-                                        return direction;
-                                    }
-                                }
-                            } else if (j == 1) {
-                                Direction[] directions = Direction.getDirections(2, -1);
-                                for (Direction direction : directions) {
-                                    if (local.canMoveOnTopOf((local.getRows() - 1) / 2 + direction.getRowChange(), (local.getColumns() - 1) / 2 + direction.getColumnChange())) {
-                                        return direction;
-                                    }
-                                }
-                            } else if (j == 2) {
-                                Direction[] directions = Direction.getDirections(2, 0);
-                                for (Direction direction : directions) {
-                                    if (local.canMoveOnTopOf((local.getRows() - 1) / 2 + direction.getRowChange(), (local.getColumns() - 1) / 2 + direction.getColumnChange())) {
-                                        return direction;
-                                    }
-                                }
-                            } else if (j == 3) {
-                                Direction[] directions = Direction.getDirections(2, 1);
-                                for (Direction direction : directions) {
-                                    if (local.canMoveOnTopOf((local.getRows() - 1) / 2 + direction.getRowChange(), (local.getColumns() - 1) / 2 + direction.getColumnChange())) {
-                                        return direction;
-                                    }
-                                }
-                            } else if (j == 4) {
-                                Direction[] directions = Direction.getDirections(2, 2);
-                                for (Direction direction : directions) {
-                                    if (local.canMoveOnTopOf((local.getRows() - 1) / 2 + direction.getRowChange(), (local.getColumns() - 1) / 2 + direction.getColumnChange())) {
-                                        return direction;
-                                    }
-                                }
-                            }
-                        }
-                    }
-                }
-            }
+        Direction direction = DecisionTable.of(local).chase(local, true, true);
+        if (direction != null) {
+            return direction;
         }
 
         //Attempt to move southeast if no nearby monsters
@@ -268,9 +134,9 @@ public final class Monster extends Entity {
             return Direction.SOUTHEAST;
         } else {
             //Attempt to move random direction if unable to go southeast
-            int rowChange = Direction.getRandomDirection().getRowChange();
-            int columnChange = Direction.getRandomDirection().getColumnChange();
-            if (local.canMoveOnTopOf(rowChange, columnChange)) {
+            int rowChange = Direction.getRandomDirection(local.getRandom()).getRowChange();
+            int columnChange = Direction.getRandomDirection(local.getRandom()).getColumnChange();
+            if (local.canMoveOnTopOf(local.getRows() / 2 + rowChange, local.getColumns() / 2 + columnChange)) {
                 return Direction.getDirection(rowChange, columnChange);
             }
         }
@@ -0,0 +1,366 @@
+package mvh.world;
+
+import java.util.Arrays;
+
+/**
+ * Where every living hero and monster of a World is, bucketed into square blocks of the map per side
+ * Answers "nearest enemy within r steps" by looking at the blocks around a spot in growing rings, so the cost depends on
+ * how many entities are near the spot rather than on r squared. Blocks are only kept while something is in them, so
+ * huge mostly empty maps cost nothing extra. Blocks are found through an open addressing table keyed by the packed
+ * block row and column, so probing a ring or moving between blocks never boxes a key
+ * The World keeps the index up to date as entities are added, moved, moved on top of, and killed
+ * @author Hasan Salhi
+ * @version 1.0
+ */
+final class OccupancyIndex {
+
+    /**
+     * Rows and columns of each block
+     */
+    static final int BLOCK_SIZE = 16;
+
+    /**
+     * Side of a slot that is not in the index
+     */
+    private static final byte NONE = 0;
+    /**
+     * Side of a slot holding a hero
+     */
+    private static final byte HERO = 1;
+    /**
+     * Side of a slot holding a monster
+     */
+    private static final byte MONSTER = 2;
+
+    /**
+     * Slots of the entities standing in one block
+     */
+    private static final class Block {
+        /**
+         * The slots (first size are used)
+         */
+        int[] slots = new int[4];
+        /**
+         * Number of slots used
+         */
+        int size;
+    }
+
+    /**
+     * Blocks by packed block row and column (linear probing, a null block is an empty spot)
+     */
+    private static final class BlockMap {
+        /**
+         * Keys of the table
+         */
+        long[] keys = new long[16];
+        /**
+         * Blocks of the table
+         */
+        Block[] blocks = new Block[16];
+        /**
+         * Number of blocks in the table
+         */
+        int size;
+
+        /**
+         * Where a key sits, or the empty spot it would go in
+         *
+         * @param key The key
+         * @return Index into the table
+         */
+        private int find(long key) {
+            int mask = keys.length - 1;
+            int index = hash(key) & mask;
+            while (blocks[index] != null && keys[index] != key) {
+                index = (index + 1) & mask;
+            }
+            return index;
+        }
+
+        /**
+         * Spread a key over the table
+         *
+         * @param key The key
+         * @return The hash
+         */
+        private static int hash(long key) {
+            long h = key * 0x9E3779B97F4A7C15L;
+            return (int) (h ^ (h >>> 32));
+        }
+
+        /**
+         * @param key The key
+         * @return The block for the key, null if there is none
+         */
+        Block get(long key) {
+            return blocks[find(key)];
+        }
+
+        /**
+         * Add a block for a key that has none
+         *
+         * @param key   The key
+         * @param block The block
+         */
+        void put(long key, Block block) {
+            if (2 * (size + 1) > keys.length) {
+                long[] oldKeys = keys;
+                Block[] oldBlocks = blocks;
+                keys = new long[oldKeys.length * 2];
+                blocks = new Block[oldKeys.length * 2];
+                for (int i = 0; i < oldKeys.length; i++) {
+                    if (oldBlocks[i] != null) {
+                        int index = find(oldKeys[i]);
+                        keys[index] = oldKeys[i];
+                        blocks[index] = oldBlocks[i];
+                    }
+                }
+            }
+            int index = find(key);
+            keys[index] = key;
+            blocks[index] = block;
+            size++;
+        }
+
+        /**
+         * Remove the block of a key, shifting back later entries of its probe run so lookups still find them
+         *
+         * @param key The key
+         */
+        void remove(long key) {
+            int mask = keys.length - 1;
+            int hole = find(key);
+            if (blocks[hole] == null) {
+                return;
+            }
+            blocks[hole] = null;
+            size--;
+            int index = (hole + 1) & mask;
+            while (blocks[index] != null) {
+                int home = hash(keys[index]) & mask;
+                //Move the entry into the hole unless its home lies after the hole (cyclically) up to where it is
+                if (((index - home) & mask) >= ((index - hole) & mask)) {
+                    keys[hole] = keys[index];
+                    blocks[hole] = blocks[index];
+                    blocks[index] = null;
+                    hole = index;
+                }
+                index = (index + 1) & mask;
+            }
+        }
+    }
+
+    /**
+     * Blocks holding heroes
+     */
+    private final BlockMap heroes = new BlockMap();
+    /**
+     * Blocks holding monsters
+     */
+    private final BlockMap monsters = new BlockMap();
+    /**
+     * Side of each slot (NONE if not indexed)
+     */
+    private byte[] sides = new byte[16];
+    /**
+     * Packed location of each indexed slot
+     */
+    private long[] locations = new long[16];
+    /**
+     * Position of each indexed slot inside its block
+     */
+    private int[] positions = new int[16];
+
+    /**
+     * Index every living hero and monster standing where the World last put it
+     *
+     * @param world The world to index
+     */
+    OccupancyIndex(World world) {
+        TurnSchedule schedule = world.schedule();
+        for (int i = 0; i < schedule.size(); i++) {
+            int slot = schedule.slot(i);
+            if (world.isAlive(slot)) {
+                long location = world.location(slot);
+                int row = World.unpackRow(location);
+                int column = World.unpackColumn(location);
+                Entity entity = world.entity(slot);
+                if (world.getEntity(row, column) == entity) {
+                    add(slot, entity, row, column);
+                }
+            }
+        }
+    }
+
+    /**
+     * Start tracking an entity (ignored unless it is a living hero or monster)
+     *
+     * @param slot   The entity's index in the entities list
+     * @param entity The entity
+     * @param row    Where it stands
+     * @param column Where it stands
+     */
+    void add(int slot, Entity entity, int row, int column) {
+        byte side = entity instanceof Hero ? HERO : entity instanceof Monster ? MONSTER : NONE;
+        if (side == NONE || !entity.isAlive()) {
+            return;
+        }
+        remove(slot);
+        if (slot >= sides.length) {
+            int length = Math.max(slot + 1, sides.length * 2);
+            sides = Arrays.copyOf(sides, length);
+            locations = Arrays.copyOf(locations, length);
+            positions = Arrays.copyOf(positions, length);
+        }
+        sides[slot] = side;
+        locations[slot] = World.pack(row, column);
+        insert(slot);
+    }
+
+    /**
+     * Stop tracking an entity (it died or was moved on top of)
+     *
+     * @param slot The entity's index in the entities list, ignored if not tracked
+     */
+    void remove(int slot) {
+        if (slot < 0 || slot >= sides.length || sides[slot] == NONE) {
+            return;
+        }
+        BlockMap blocks = sides[slot] == HERO ? heroes : monsters;
+        long key = blockKey(World.unpackRow(locations[slot]), World.unpackColumn(locations[slot]));
+        Block block = blocks.get(key);
+        //Swap the last slot of the block into the hole
+        int position = positions[slot];
+        int last = block.slots[--block.size];
+        block.slots[position] = last;
+        positions[last] = position;
+        if (block.size == 0) {
+            blocks.remove(key);
+        }
+        sides[slot] = NONE;
+    }
+
+    /**
+     * A tracked entity moved
+     *
+     * @param slot   The entity's index in the entities list, ignored if not tracked
+     * @param row    Where it stands now
+     * @param column Where it stands now
+     */
+    void move(int slot, int row, int column) {
+        if (slot < 0 || slot >= sides.length || sides[slot] == NONE) {
+            return;
+        }
+        long from = locations[slot];
+        if (blockKey(World.unpackRow(from), World.unpackColumn(from)) == blockKey(row, column)) {
+            locations[slot] = World.pack(row, column);
+            return;
+        }
+        byte side = sides[slot];
+        remove(slot);
+        sides[slot] = side;
+        locations[slot] = World.pack(row, column);
+        insert(slot);
+    }
+
+    /**
+     * Put a slot into the block of its location
+     *
+     * @param slot The entity's index in the entities list (side and location already set)
+     */
+    private void insert(int slot) {
+        BlockMap blocks = sides[slot] == HERO ? heroes : monsters;
+        long key = blockKey(World.unpackRow(locations[slot]), World.unpackColumn(locations[slot]));
+        Block block = blocks.get(key);
+        if (block == null) {
+            block = new Block();
+            blocks.put(key, block);
+        }
+        if (block.size == block.slots.length) {
+            block.slots = Arrays.copyOf(block.slots, block.size * 2);
+        }
+        positions[slot] = block.size;
+        block.slots[block.size++] = slot;
+    }
+
+    /**
+     * The closest living hero (or monster) to a spot, counting steps in any of the 8 directions
+     * Ties go to the entity added to the World first
+     *
+     * @param findHeroes True to look for heroes, false for monsters
+     * @param row        Row of the spot
+     * @param column     Column of the spot
+     * @param radius     Furthest number of steps to look
+     * @return Slot of the closest one, -1 if there is none within radius
+     */
+    int nearest(boolean findHeroes, int row, int column, int radius) {
+        BlockMap blocks = findHeroes ? heroes : monsters;
+        if (blocks.size == 0) {
+            return -1;
+        }
+        int blockRow = Math.floorDiv(row, BLOCK_SIZE);
+        int blockColumn = Math.floorDiv(column, BLOCK_SIZE);
+        int rings = radius / BLOCK_SIZE + 1;
+        int best = -1;
+        int bestDistance = radius + 1;
+        for (int ring = 0; ring <= rings; ring++) {
+            for (int i = -ring; i <= ring; i++) {
+                //Only the edge of the ring, the inside was looked at already
+                int step = (i == -ring || i == ring) ? 1 : 2 * ring;
+                for (int j = -ring; j <= ring; j += Math.max(1, step)) {
+                    Block block = blocks.get(pack(blockRow + i, blockColumn + j));
+                    if (block == null) {
+                        continue;
+                    }
+                    for (int k = 0; k < block.size; k++) {
+                        int slot = block.slots[k];
+                        long location = locations[slot];
+                        int distance = Math.max(Math.abs(World.unpackRow(location) - row), Math.abs(World.unpackColumn(location) - column));
+                        if (distance < bestDistance || (distance == bestDistance && slot < best)) {
+                            best = slot;
+                            bestDistance = distance;
+                        }
+                    }
+                }
+            }
+            //Every block further out is more than ring * BLOCK_SIZE steps away
+            if (best >= 0 && bestDistance <= ring * BLOCK_SIZE) {
+                break;
+            }
+        }
+        return best;
+    }
+
+    /**
+     * Location of a tracked slot
+     *
+     * @param slot The entity's index in the entities list
+     * @return Packed location
+     */
+    long location(int slot) {
+        return locations[slot];
+    }
+
+    /**
+     * Key of the block holding a spot
+     *
+     * @param row    Row of the spot
+     * @param column Column of the spot
+     * @return Packed block row and column
+     */
+    private static long blockKey(int row, int column) {
+        return pack(Math.floorDiv(row, BLOCK_SIZE), Math.floorDiv(column, BLOCK_SIZE));
+    }
+
+    /**
+     * Pack a block row and column into one long
+     *
+     * @param blockRow    The block row
+     * @param blockColumn The block column
+     * @return The key
+     */
+    private static long pack(int blockRow, int blockColumn) {
+        return World.pack(blockRow, blockColumn);
+    }
+}
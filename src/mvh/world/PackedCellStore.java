@@ -0,0 +1,209 @@
+package mvh.world;
+
+import java.util.Arrays;
+import java.util.IdentityHashMap;
+
+/**
+ * Grid storage with one packed int per spot
+ * Each spot holds the kind code (low 4 bits) and a handle into an entity table (remaining bits), all spots are one
+ * flat row-major array so kind and symbol checks read neighbouring ints instead of following a reference per spot.
+ * The entities themselves (with their health, weapon and armor) are still kept as objects, the table only adds their
+ * map symbol and how many spots hold them, so this trades a little memory per entity for faster scans, it does not
+ * make entities smaller. A handle is freed once no spot holds its entity and is handed out again.
+ * @author Hasan Salhi
+ * @version 1.0
+ */
+final class PackedCellStore implements CellStore {
+
+    /**
+     * Bits of a spot used for the kind code
+     */
+    private static final int KIND_BITS = 4;
+    /**
+     * Mask for the kind code of a spot
+     */
+    private static final int KIND_MASK = (1 << KIND_BITS) - 1;
+    /**
+     * Starting size of the entity table
+     */
+    private static final int INITIAL_CAPACITY = 16;
+
+    /**
+     * The rows of the grid
+     */
+    private final int rows;
+    /**
+     * The columns of the grid
+     */
+    private final int columns;
+    /**
+     * One int per spot (row-major), handle << KIND_BITS | kind, 0 is floor
+     */
+    private final int[] cells;
+    /**
+     * Entity for each handle (handle 0 is never used so a 0 spot is floor)
+     */
+    private Entity[] handles;
+    /**
+     * Map symbol for each handle
+     */
+    private char[] symbols;
+    /**
+     * Number of spots holding the entity of each handle (0 for a free handle)
+     */
+    private int[] uses;
+    /**
+     * Handles freed since they were last handed out (first freeCount are used)
+     */
+    private int[] free;
+    /**
+     * Number of free handles
+     */
+    private int freeCount;
+    /**
+     * Next never used handle
+     */
+    private int nextHandle = 1;
+    /**
+     * Handle of each entity on the grid (only used when entities are placed or leave, never when they move)
+     */
+    private final IdentityHashMap<Entity, Integer> handleOf = new IdentityHashMap<>();
+
+    /**
+     * A new grid of ROWSxCOLUMNS in size
+     *
+     * @param rows    The rows of the grid
+     * @param columns The columns of the grid
+     */
+    PackedCellStore(int rows, int columns) {
+        if ((long) rows * columns > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("World of " + rows + "x" + columns + " is too big for packed storage!");
+        }
+        this.rows = rows;
+        this.columns = columns;
+        this.cells = new int[rows * columns];
+        this.handles = new Entity[INITIAL_CAPACITY];
+        this.symbols = new char[INITIAL_CAPACITY];
+        this.uses = new int[INITIAL_CAPACITY];
+        this.free = new int[INITIAL_CAPACITY];
+    }
+
+    @Override
+    public int getRows() {
+        return rows;
+    }
+
+    @Override
+    public int getColumns() {
+        return columns;
+    }
+
+    /**
+     * Index of a spot in the flat cells array
+     *
+     * @param row    The row
+     * @param column The column
+     * @return The index of the spot
+     */
+    private int index(int row, int column) {
+        if (row < 0 || row >= rows || column < 0 || column >= columns) {
+            throw new ArrayIndexOutOfBoundsException("Location (" + row + "," + column + ") is outside of " + rows + "x" + columns + " world!");
+        }
+        return row * columns + column;
+    }
+
+    @Override
+    public Entity get(int row, int column) {
+        return handles[cells[index(row, column)] >>> KIND_BITS];
+    }
+
+    @Override
+    public void set(int row, int column, Entity entity) {
+        int index = index(row, column);
+        int old = cells[index] >>> KIND_BITS;
+        if (entity == null) {
+            cells[index] = 0;
+        } else {
+            cells[index] = handle(entity) << KIND_BITS | CellStore.kindOf(entity);
+        }
+        release(old);
+    }
+
+    @Override
+    public void move(int fromRow, int fromColumn, int toRow, int toColumn) {
+        int from = index(fromRow, fromColumn);
+        int to = index(toRow, toColumn);
+        int cell = cells[from];
+        int old = cells[to] >>> KIND_BITS;
+        cells[to] = cell;
+        cells[from] = 0;
+        //Moving a spot onto itself empties it, otherwise whatever was moved on top of leaves the grid
+        release(from == to ? cell >>> KIND_BITS : old);
+    }
+
+    @Override
+    public byte kind(int row, int column) {
+        return (byte) (cells[index(row, column)] & KIND_MASK);
+    }
+
+    @Override
+    public char mapSymbol(int row, int column) {
+        int cell = cells[index(row, column)];
+        return CellStore.mapSymbolOf((byte) (cell & KIND_MASK), symbols[cell >>> KIND_BITS]);
+    }
+
+    @Override
+    public void refresh(int row, int column) {
+        int index = index(row, column);
+        int handle = cells[index] >>> KIND_BITS;
+        if (handle != 0) {
+            cells[index] = handle << KIND_BITS | CellStore.kindOf(handles[handle]);
+        }
+    }
+
+    /**
+     * Look up (or hand out) the handle of an entity, counting one more spot holding it
+     *
+     * @param entity The entity being placed
+     * @return The handle of the entity in the entity table
+     */
+    private synchronized int handle(Entity entity) {
+        Integer handle = handleOf.get(entity);
+        if (handle != null) {
+            uses[handle]++;
+            return handle;
+        }
+        int newHandle;
+        if (freeCount > 0) {
+            newHandle = free[--freeCount];
+        } else {
+            if (nextHandle == handles.length) {
+                handles = Arrays.copyOf(handles, nextHandle * 2);
+                symbols = Arrays.copyOf(symbols, nextHandle * 2);
+                uses = Arrays.copyOf(uses, nextHandle * 2);
+                free = Arrays.copyOf(free, nextHandle * 2);
+            }
+            newHandle = nextHandle++;
+        }
+        handles[newHandle] = entity;
+        symbols[newHandle] = entity.getSymbol();
+        uses[newHandle] = 1;
+        handleOf.put(entity, newHandle);
+        return newHandle;
+    }
+
+    /**
+     * One less spot holds the entity of a handle, the handle is freed when none do
+     * Tiled turns move entities onto corpses in several tiles at once, so the table and free list are locked
+     *
+     * @param handle The handle (0 for floor, which is ignored)
+     */
+    private synchronized void release(int handle) {
+        if (handle == 0 || --uses[handle] > 0) {
+            return;
+        }
+        handleOf.remove(handles[handle]);
+        handles[handle] = null;
+        free[freeCount++] = handle;
+    }
+}
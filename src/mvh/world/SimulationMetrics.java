@@ -0,0 +1,306 @@
+package mvh.world;
+
+import javax.management.InstanceAlreadyExistsException;
+import javax.management.InstanceNotFoundException;
+import javax.management.MBeanRegistrationException;
+import javax.management.MalformedObjectNameException;
+import javax.management.NotCompliantMBeanException;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Counters and turn timings of a World, readable while it runs (as text, or over JMX once registered)
+ * A World only counts when it has been given metrics (setMetrics), so a World without them pays a null check at each
+ * counting point and nothing else. Counters can be bumped from several tiles at once, turn times from one thread
+ * Turn times go in a histogram of power of 2 ranges, each split in SUB_BUCKETS, so percentiles are within 1/SUB_BUCKETS
+ * of the true time and recording never allocates
+ * @author Hasan Salhi
+ * @version 1.0
+ */
+public final class SimulationMetrics implements SimulationMetricsMBean {
+
+    /**
+     * Each power of 2 range of turn times is split into this many buckets (a power of 2)
+     */
+    private static final int SUB_BUCKETS = 8;
+    /**
+     * log2 of SUB_BUCKETS
+     */
+    private static final int SUB_BITS = Integer.numberOfTrailingZeros(SUB_BUCKETS);
+
+    /**
+     * Turns played
+     */
+    private final LongAdder turns = new LongAdder();
+    /**
+     * Turns given to ALIVE entities
+     */
+    private final LongAdder entitiesActed = new LongAdder();
+    /**
+     * Moves made
+     */
+    private final LongAdder moves = new LongAdder();
+    /**
+     * Moves tried onto spots that could not be moved on top of
+     */
+    private final LongAdder failedMoves = new LongAdder();
+    /**
+     * Attacks that hit
+     */
+    private final LongAdder attacks = new LongAdder();
+    /**
+     * Hits whose damage was all stopped by armor
+     */
+    private final LongAdder zeroDamageHits = new LongAdder();
+    /**
+     * Heroes and monsters killed
+     */
+    private final LongAdder deaths = new LongAdder();
+    /**
+     * Time spent deciding where to attack and move from local views (making the view and asking the entity)
+     */
+    private final LongAdder decisionNanos = new LongAdder();
+    /**
+     * Number of turns that took each range of time (see bucket)
+     */
+    private final AtomicLongArray turnTimes = new AtomicLongArray((64 - SUB_BITS + 1) * SUB_BUCKETS);
+    /**
+     * Longest turn time
+     */
+    private final AtomicLong turnMax = new AtomicLong();
+    /**
+     * Name this is registered under with the platform MBean server (null if not registered)
+     */
+    private ObjectName name;
+
+    /**
+     * A turn has been played
+     *
+     * @param nanos How long it took
+     */
+    void turn(long nanos) {
+        turns.increment();
+        turnTimes.incrementAndGet(bucket(nanos));
+        turnMax.accumulateAndGet(nanos, Math::max);
+    }
+
+    /**
+     * An ALIVE entity has taken its turn
+     */
+    void acted() {
+        entitiesActed.increment();
+    }
+
+    /**
+     * An entity moved
+     */
+    void moved() {
+        moves.increment();
+    }
+
+    /**
+     * An entity tried to move somewhere it could not
+     */
+    void failedMove() {
+        failedMoves.increment();
+    }
+
+    /**
+     * An entity hit another
+     *
+     * @param trueDamage The damage taken once armor was taken off
+     */
+    void attacked(int trueDamage) {
+        attacks.increment();
+        if (trueDamage == 0) {
+            zeroDamageHits.increment();
+        }
+    }
+
+    /**
+     * A hero or monster was killed
+     */
+    void died() {
+        deaths.increment();
+    }
+
+    /**
+     * Time was spent deciding where to attack or move from a local view
+     *
+     * @param nanos How long it took
+     */
+    void decided(long nanos) {
+        decisionNanos.add(nanos);
+    }
+
+    /**
+     * Histogram bucket of a time: the power of 2 range it is in, then which of SUB_BUCKETS in that range
+     *
+     * @param nanos The time
+     * @return The bucket
+     */
+    private static int bucket(long nanos) {
+        if (nanos < SUB_BUCKETS) {
+            return (int) Math.max(nanos, 0);
+        }
+        int exponent = 63 - Long.numberOfLeadingZeros(nanos) - SUB_BITS;
+        int sub = (int) (nanos >>> exponent) - SUB_BUCKETS;
+        return (exponent + 1) * SUB_BUCKETS + sub;
+    }
+
+    /**
+     * Longest time that lands in a bucket
+     *
+     * @param bucket The bucket
+     * @return The time at the top of its range
+     */
+    private static long upperBound(int bucket) {
+        if (bucket < SUB_BUCKETS) {
+            return bucket;
+        }
+        int exponent = bucket / SUB_BUCKETS - 1;
+        long sub = bucket % SUB_BUCKETS + SUB_BUCKETS;
+        return ((sub + 1) << exponent) - 1;
+    }
+
+    /**
+     * A percentile of turn times
+     *
+     * @param percentile Between 0 and 100
+     * @return The top of the bucket the percentile falls in (never more than the longest turn), 0 if no turns
+     */
+    public long turnPercentileNanos(double percentile) {
+        long total = 0;
+        for (int i = 0; i < turnTimes.length(); i++) {
+            total += turnTimes.get(i);
+        }
+        if (total == 0) {
+            return 0;
+        }
+        long rank = Math.max(1, (long) Math.ceil(percentile / 100 * total));
+        long seen = 0;
+        for (int i = 0; i < turnTimes.length(); i++) {
+            seen += turnTimes.get(i);
+            if (seen >= rank) {
+                return Math.min(upperBound(i), turnMax.get());
+            }
+        }
+        return turnMax.get();
+    }
+
+    @Override
+    public long getTurns() {
+        return turns.sum();
+    }
+
+    @Override
+    public long getEntitiesActed() {
+        return entitiesActed.sum();
+    }
+
+    @Override
+    public long getMoves() {
+        return moves.sum();
+    }
+
+    @Override
+    public long getFailedMoves() {
+        return failedMoves.sum();
+    }
+
+    @Override
+    public long getAttacks() {
+        return attacks.sum();
+    }
+
+    @Override
+    public long getZeroDamageHits() {
+        return zeroDamageHits.sum();
+    }
+
+    @Override
+    public long getDeaths() {
+        return deaths.sum();
+    }
+
+    @Override
+    public long getDecisionNanos() {
+        return decisionNanos.sum();
+    }
+
+    @Override
+    public double getTurnP50Micros() {
+        return turnPercentileNanos(50) / 1e3;
+    }
+
+    @Override
+    public double getTurnP90Micros() {
+        return turnPercentileNanos(90) / 1e3;
+    }
+
+    @Override
+    public double getTurnP99Micros() {
+        return turnPercentileNanos(99) / 1e3;
+    }
+
+    @Override
+    public double getTurnMaxMicros() {
+        return turnMax.get() / 1e3;
+    }
+
+    @Override
+    public String snapshot() {
+        return String.format("Turns: %d%nEntities acted: %d%nMoves: %d%nFailed moves: %d%nAttacks: %d%nZero damage hits: %d%nDeaths: %d%nDecision time: %.3f ms%nTurn time p50/p90/p99/max: %.1f/%.1f/%.1f/%.1f us",
+                getTurns(), getEntitiesActed(), getMoves(), getFailedMoves(), getAttacks(), getZeroDamageHits(), getDeaths(),
+                getDecisionNanos() / 1e6, getTurnP50Micros(), getTurnP90Micros(), getTurnP99Micros(), getTurnMaxMicros());
+    }
+
+    @Override
+    public void reset() {
+        turns.reset();
+        entitiesActed.reset();
+        moves.reset();
+        failedMoves.reset();
+        attacks.reset();
+        zeroDamageHits.reset();
+        deaths.reset();
+        decisionNanos.reset();
+        for (int i = 0; i < turnTimes.length(); i++) {
+            turnTimes.set(i, 0);
+        }
+        turnMax.set(0);
+    }
+
+    /**
+     * Publish these metrics with the platform MBean server as mvh:type=SimulationMetrics,name=NAME
+     *
+     * @param label The name part of the object name
+     */
+    public void register(String label) {
+        try {
+            ObjectName objectName = new ObjectName("mvh:type=SimulationMetrics,name=" + ObjectName.quote(label));
+            ManagementFactory.getPlatformMBeanServer().registerMBean(this, objectName);
+            this.name = objectName;
+        } catch (MalformedObjectNameException | InstanceAlreadyExistsException | MBeanRegistrationException | NotCompliantMBeanException e) {
+            throw new IllegalArgumentException("Unable to register simulation metrics as " + label + ": " + e.getMessage());
+        }
+    }
+
+    /**
+     * Stop publishing these metrics (does nothing if they were never registered)
+     */
+    public void unregister() {
+        if (name == null) {
+            return;
+        }
+        try {
+            ManagementFactory.getPlatformMBeanServer().unregisterMBean(name);
+        } catch (InstanceNotFoundException | MBeanRegistrationException e) {
+            //Already gone
+        }
+        name = null;
+    }
+}
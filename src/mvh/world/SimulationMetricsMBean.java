@@ -0,0 +1,79 @@
+package mvh.world;
+
+/**
+ * What SimulationMetrics shows over JMX
+ * @author Hasan Salhi
+ * @version 1.0
+ */
+public interface SimulationMetricsMBean {
+
+    /**
+     * @return Turns played
+     */
+    long getTurns();
+
+    /**
+     * @return Turns given to ALIVE entities
+     */
+    long getEntitiesActed();
+
+    /**
+     * @return Moves made
+     */
+    long getMoves();
+
+    /**
+     * @return Moves tried onto spots that could not be moved on top of
+     */
+    long getFailedMoves();
+
+    /**
+     * @return Attacks that hit (damage was rolled)
+     */
+    long getAttacks();
+
+    /**
+     * @return Hits whose damage was all stopped by armor
+     */
+    long getZeroDamageHits();
+
+    /**
+     * @return Heroes and monsters killed
+     */
+    long getDeaths();
+
+    /**
+     * @return Total time spent deciding where to attack and move from local views, in nanoseconds
+     */
+    long getDecisionNanos();
+
+    /**
+     * @return Median turn time, in microseconds
+     */
+    double getTurnP50Micros();
+
+    /**
+     * @return 90th percentile turn time, in microseconds
+     */
+    double getTurnP90Micros();
+
+    /**
+     * @return 99th percentile turn time, in microseconds
+     */
+    double getTurnP99Micros();
+
+    /**
+     * @return Longest turn time, in microseconds
+     */
+    double getTurnMaxMicros();
+
+    /**
+     * @return Every metric as text
+     */
+    String snapshot();
+
+    /**
+     * Set every counter and timer back to 0
+     */
+    void reset();
+}
@@ -0,0 +1,310 @@
+package mvh.world;
+
+import mvh.enums.Faction;
+import mvh.enums.MovementMode;
+import mvh.enums.Storage;
+import mvh.enums.WeaponType;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.util.IdentityHashMap;
+import java.util.Random;
+
+/**
+ * Binary checkpoints of a World that restore it exactly, so a long simulation can be stopped and carried on later
+ * Layout (big-endian):
+ * <pre>
+ * header   "MVHS" magic, short version, short storage ordinal, int rows, int columns, long turn, byte active,
+ *          byte movement mode ordinal, int attack and perception radius of each Faction, int next entity ID
+ * random   int length, then the serialized random number generator the world rolls with (length 0 for none)
+ * slots    int count, then one record per entity slot in turn order:
+ *          byte kind (0 none, 1 wall, 2 hero, 3 monster, 4 same entity as an earlier slot), int row, int column,
+ *          byte on map (0 if it has since been moved on top of), then by kind
+ *          hero     int id, char symbol, int health, int weapon strength, int armor strength
+ *          monster  int id, char symbol, int health, byte WeaponType ordinal
+ *          repeat   int earlier slot
+ * </pre>
+ * Health decides ALIVE or DEAD, dead entities and entities no longer on the map are kept so turn order and IDs match
+ * Only the game is saved: output settings (quiet, sink, listener, metrics, parallel turns) start at their defaults and
+ * must be set again on the restored world
+ * @author Hasan Salhi
+ * @version 1.0
+ */
+public final class Snapshot {
+
+    /**
+     * First 4 bytes of every snapshot
+     */
+    private static final int MAGIC = ('M' << 24) | ('V' << 16) | ('H' << 8) | 'S';
+    /**
+     * Version of the layout written by this class
+     */
+    private static final short VERSION = 1;
+    /**
+     * Slot kind of a null entity
+     */
+    private static final byte KIND_NONE = 0;
+    /**
+     * Slot kind of a wall
+     */
+    private static final byte KIND_WALL = 1;
+    /**
+     * Slot kind of a hero
+     */
+    private static final byte KIND_HERO = 2;
+    /**
+     * Slot kind of a monster
+     */
+    private static final byte KIND_MONSTER = 3;
+    /**
+     * Slot kind of an entity already written for an earlier slot
+     */
+    private static final byte KIND_REPEAT = 4;
+
+    /**
+     * Snapshots are only read and written through the static methods
+     */
+    private Snapshot() {
+    }
+
+    /**
+     * Is a file a snapshot (starts with the magic bytes)
+     *
+     * @param file The file to check
+     * @return True if the file starts with the snapshot magic
+     */
+    public static boolean isSnapshot(File file) {
+        try (DataInputStream in = new DataInputStream(new FileInputStream(file))) {
+            return in.readInt() == MAGIC;
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Write a snapshot of a world to a file
+     * The file is written beside the target first and then renamed over it, so a crash never leaves half a snapshot
+     *
+     * @param world The world to save
+     * @param file  The file to write
+     */
+    public static void save(World world, File file) {
+        File partial = new File(file.getPath() + ".part");
+        try (OutputStream stream = new BufferedOutputStream(new FileOutputStream(partial), 1 << 16)) {
+            write(world, stream);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Unable to write snapshot " + file.getAbsoluteFile(), e);
+        }
+        if (!partial.renameTo(file) && !(file.delete() && partial.renameTo(file))) {
+            throw new UncheckedIOException(new IOException("Unable to move snapshot into place at " + file.getAbsoluteFile()));
+        }
+    }
+
+    /**
+     * Write a snapshot of a world to a stream
+     *
+     * @param world  The world to save
+     * @param stream Where to write (not closed)
+     * @throws IOException If the stream cannot be written
+     */
+    public static void write(World world, OutputStream stream) throws IOException {
+        DataOutputStream out = new DataOutputStream(stream);
+        out.writeInt(MAGIC);
+        out.writeShort(VERSION);
+        out.writeShort(world.getStorage().ordinal());
+        out.writeInt(world.getRows());
+        out.writeInt(world.getColumns());
+        out.writeLong(world.getTurn());
+        out.writeByte(world.isActive() ? 1 : 0);
+        out.writeByte(world.getMovementMode().ordinal());
+        for (Faction faction : Faction.values()) {
+            out.writeInt(world.getAttackRadius(faction));
+            out.writeInt(world.getPerceptionRadius(faction));
+        }
+        out.writeInt(Entity.nextID());
+
+        Random random = world.getRandom();
+        if (random == null) {
+            out.writeInt(0);
+        } else {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            try (ObjectOutputStream objects = new ObjectOutputStream(bytes)) {
+                objects.writeObject(random);
+            }
+            out.writeInt(bytes.size());
+            bytes.writeTo(out);
+        }
+
+        int slots = world.slots();
+        out.writeInt(slots);
+        IdentityHashMap<Entity, Integer> written = new IdentityHashMap<>();
+        for (int slot = 0; slot < slots; slot++) {
+            Entity entity = world.entity(slot);
+            long location = world.location(slot);
+            int row = World.unpackRow(location);
+            int column = World.unpackColumn(location);
+            Integer earlier = entity instanceof Wall ? null : written.get(entity);
+            if (entity == null) {
+                out.writeByte(KIND_NONE);
+            } else if (entity instanceof Wall) {
+                out.writeByte(KIND_WALL);
+            } else if (earlier != null) {
+                out.writeByte(KIND_REPEAT);
+            } else if (entity instanceof Hero) {
+                out.writeByte(KIND_HERO);
+            } else if (entity instanceof Monster) {
+                out.writeByte(KIND_MONSTER);
+            } else {
+                throw new IllegalArgumentException("Snapshots can not hold a " + entity.getClass().getSimpleName() + "!");
+            }
+            out.writeInt(row);
+            out.writeInt(column);
+            out.writeByte(entity != null && world.getEntity(row, column) == entity ? 1 : 0);
+            if (earlier != null) {
+                out.writeInt(earlier);
+            } else if (entity instanceof Hero) {
+                out.writeInt(entity.getId());
+                out.writeChar(entity.getSymbol());
+                out.writeInt(entity.getHealth());
+                out.writeInt(entity.weaponStrength());
+                out.writeInt(entity.armorStrength());
+                written.put(entity, slot);
+            } else if (entity instanceof Monster) {
+                out.writeInt(entity.getId());
+                out.writeChar(entity.getSymbol());
+                out.writeInt(entity.getHealth());
+                out.writeByte(((Monster) entity).getWeaponType().ordinal());
+                written.put(entity, slot);
+            }
+        }
+        out.flush();
+    }
+
+    /**
+     * Restore a world from a snapshot file
+     * The world rolls with its own copy of the saved random number generator and the entity ID counter is put back to
+     * where it was, so carrying on plays out exactly as the saved world would have
+     *
+     * @param file The snapshot
+     * @return The restored world
+     */
+    public static World load(File file) {
+        try (InputStream stream = new BufferedInputStream(new FileInputStream(file), 1 << 16)) {
+            return read(stream, file.getName());
+        } catch (IOException e) {
+            throw new UncheckedIOException("Unable to read snapshot " + file.getAbsoluteFile(), e);
+        }
+    }
+
+    /**
+     * Restore a world from a snapshot in a stream
+     *
+     * @param stream Where to read the snapshot (not closed)
+     * @param name   Name of where the bytes came from (for error messages)
+     * @return The restored world
+     * @throws IOException If the stream cannot be read
+     */
+    public static World read(InputStream stream, String name) throws IOException {
+        DataInputStream in = new DataInputStream(stream);
+        try {
+            if (in.readInt() != MAGIC) {
+                throw new IllegalArgumentException("File " + name + " is not a snapshot!");
+            }
+            short version = in.readShort();
+            if (version != VERSION) {
+                throw new IllegalArgumentException("Snapshot " + name + " is version " + version + ", expected " + VERSION + "!");
+            }
+            Storage[] storages = Storage.values();
+            int storage = in.readShort();
+            int rows = in.readInt();
+            int columns = in.readInt();
+            long turn = in.readLong();
+            boolean active = in.readByte() != 0;
+            MovementMode[] modes = MovementMode.values();
+            int mode = in.readByte();
+            if (storage < 0 || storage >= storages.length || mode < 0 || mode >= modes.length || rows < 0 || columns < 0) {
+                throw new IllegalArgumentException("Snapshot " + name + " has a bad header!");
+            }
+            World world = new World(rows, columns, storages[storage]);
+            world.setMovementMode(modes[mode]);
+            for (Faction faction : Faction.values()) {
+                world.setAttackRadius(faction, in.readInt());
+                world.setPerceptionRadius(faction, in.readInt());
+            }
+            int nextID = in.readInt();
+
+            int length = in.readInt();
+            if (length > 0) {
+                byte[] bytes = new byte[length];
+                in.readFully(bytes);
+                try (ObjectInputStream objects = new ObjectInputStream(new ByteArrayInputStream(bytes))) {
+                    world.setRandom((Random) objects.readObject());
+                } catch (ClassNotFoundException | ClassCastException e) {
+                    throw new IllegalArgumentException("Snapshot " + name + " has a bad random number generator!");
+                }
+            }
+
+            int slots = in.readInt();
+            Entity[] restored = new Entity[Math.max(slots, 0)];
+            WeaponType[] weapons = WeaponType.values();
+            for (int slot = 0; slot < slots; slot++) {
+                byte kind = in.readByte();
+                int row = in.readInt();
+                int column = in.readInt();
+                boolean onMap = in.readByte() != 0;
+                if (row < 0 || row >= rows || column < 0 || column >= columns) {
+                    throw new IllegalArgumentException("Snapshot " + name + " slot " + slot + " is outside the world!");
+                }
+                Entity entity;
+                if (kind == KIND_NONE) {
+                    entity = null;
+                } else if (kind == KIND_WALL) {
+                    entity = Wall.getWall();
+                } else if (kind == KIND_REPEAT) {
+                    int earlier = in.readInt();
+                    if (earlier < 0 || earlier >= slot) {
+                        throw new IllegalArgumentException("Snapshot " + name + " slot " + slot + " repeats a slot that is not before it!");
+                    }
+                    entity = restored[earlier];
+                } else if (kind == KIND_HERO) {
+                    Entity.setNextID(in.readInt());
+                    char symbol = in.readChar();
+                    int health = in.readInt();
+                    entity = new Hero(health, symbol, in.readInt(), in.readInt());
+                } else if (kind == KIND_MONSTER) {
+                    Entity.setNextID(in.readInt());
+                    char symbol = in.readChar();
+                    int health = in.readInt();
+                    int weapon = in.readByte();
+                    if (weapon < 0 || weapon >= weapons.length) {
+                        throw new IllegalArgumentException("Snapshot " + name + " slot " + slot + " has a bad weapon!");
+                    }
+                    entity = new Monster(health, symbol, weapons[weapon]);
+                } else {
+                    throw new IllegalArgumentException("Snapshot " + name + " slot " + slot + " has unknown kind " + kind + "!");
+                }
+                restored[slot] = entity;
+                world.restoreSlot(entity, row, column, onMap);
+            }
+            Entity.setNextID(nextID);
+            world.restoreTurn(turn, active);
+            return world;
+        } catch (EOFException e) {
+            throw new IllegalArgumentException("Snapshot " + name + " is cut short!");
+        }
+    }
+}
@@ -0,0 +1,290 @@
+package mvh.world;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Resolves a World's turn in parallel by cutting the map into square tiles
+ * An entity only looks at cells within MOVE_WORLD_SIZE/2 of where it stands and only changes cells next to it, so two
+ * entities in tiles that have a whole tile between them can never affect each other
+ * Tiles are coloured like a 2x2 checkerboard and each turn runs four phases, one colour per phase. Tiles of the
+ * phase's colour are resolved at the same time on the pool, the entities inside a tile take their turns one at a time
+ * in the order they were added to the World. Messages, listener events and deaths are held per tile and handed back
+ * in tile order once the phase is done, so the log and the outcome do not depend on the number of threads
+ * @author Hasan Salhi
+ * @version 1.0
+ */
+final class TiledTurn {
+
+    /**
+     * Smallest tile that keeps tiles of the same colour apart: one entity reads up to MOVE_WORLD_SIZE/2 cells away and
+     * another changes up to 1 cell away, so the tile between them must be wider than both together
+     */
+    static final int MIN_TILE_SIZE = World.MOVE_WORLD_SIZE / 2 + 1;
+
+    /**
+     * Entities of one tile for the current turn, with everything they did that must wait for the phase to end
+     */
+    static final class Tile {
+        /**
+         * Row-major index of the tile, tiles are resolved and reported in this order
+         */
+        final long key;
+        /**
+         * Slots of the entities standing in this tile at the start of the turn, in order
+         */
+        int[] slots = new int[8];
+        /**
+         * Number of slots used
+         */
+        int size;
+        /**
+         * Messages logged while resolving this tile
+         */
+        final List<String> messages = new ArrayList<>();
+        /**
+         * Listener calls held while resolving this tile
+         */
+        final List<Runnable> events = new ArrayList<>();
+        /**
+         * Re-seeded for every entity of the tile
+         */
+        final Random random = new Random();
+        /**
+         * Heroes killed while resolving this tile
+         */
+        int heroDeaths;
+        /**
+         * Monsters killed while resolving this tile
+         */
+        int monsterDeaths;
+
+        /**
+         * An empty tile
+         *
+         * @param key Row-major index of the tile
+         */
+        Tile(long key) {
+            this.key = key;
+        }
+
+        /**
+         * Add an entity slot to the tile
+         *
+         * @param slot The entity's index in the entities list
+         */
+        void add(int slot) {
+            if (size == slots.length) {
+                slots = Arrays.copyOf(slots, size * 2);
+            }
+            slots[size++] = slot;
+        }
+
+        /**
+         * An entity was killed while resolving this tile
+         *
+         * @param entity The entity that died
+         */
+        void died(Entity entity) {
+            if (entity instanceof Hero) {
+                heroDeaths++;
+            } else if (entity instanceof Monster) {
+                monsterDeaths++;
+            }
+        }
+    }
+
+    /**
+     * The world being resolved
+     */
+    private final World world;
+    /**
+     * Where tiles are resolved
+     */
+    private final ForkJoinPool pool;
+    /**
+     * Rows and columns of each tile
+     */
+    private final int tileSize;
+    /**
+     * Number of tiles across the map
+     */
+    private final long tileColumns;
+    /**
+     * Seed for the per-entity random number generators
+     */
+    private final long seed;
+    /**
+     * Tiles that had entities last turn, by key (kept so their buffers are reused)
+     */
+    private final HashMap<Long, Tile> tiles = new HashMap<>();
+
+    /**
+     * Parallel turns for a world
+     *
+     * @param world    The world to resolve
+     * @param pool     Where tiles are resolved
+     * @param tileSize Rows and columns of each tile
+     * @param seed     Seed for the per-entity random number generators
+     */
+    TiledTurn(World world, ForkJoinPool pool, int tileSize, long seed) {
+        if (tileSize < MIN_TILE_SIZE) {
+            throw new IllegalArgumentException("Tile size must be >= " + MIN_TILE_SIZE + ". Value given was " + tileSize + "!");
+        }
+        this.world = world;
+        this.pool = pool;
+        this.tileSize = tileSize;
+        this.tileColumns = (world.getColumns() + tileSize - 1) / tileSize;
+        this.seed = seed;
+    }
+
+    /**
+     * Resolve one turn: sort living entities into tiles, then run the four phases
+     *
+     * @param turn The turn being resolved (part of every entity's seed)
+     */
+    void advance(long turn) {
+        for (Tile tile : tiles.values()) {
+            tile.size = 0;
+        }
+        //Entities are placed by where they stand at the start of the turn (only an entity moves itself)
+        TurnSchedule schedule = world.schedule();
+        for (int i = 0; i < schedule.size(); i++) {
+            int slot = schedule.slot(i);
+            if (world.isAlive(slot)) {
+                long location = world.location(slot);
+                long key = World.unpackRow(location) / tileSize * tileColumns + World.unpackColumn(location) / tileSize;
+                Tile tile = tiles.get(key);
+                if (tile == null) {
+                    tile = new Tile(key);
+                    tiles.put(key, tile);
+                }
+                tile.add(slot);
+            }
+        }
+
+        List<List<Tile>> phases = new ArrayList<>(4);
+        for (int i = 0; i < 4; i++) {
+            phases.add(new ArrayList<>());
+        }
+        Iterator<Tile> iterator = tiles.values().iterator();
+        while (iterator.hasNext()) {
+            Tile tile = iterator.next();
+            if (tile.size == 0) {
+                iterator.remove();
+            } else {
+                phases.get(phase(tile.key)).add(tile);
+            }
+        }
+
+        for (List<Tile> phase : phases) {
+            Tile[] order = phase.toArray(new Tile[0]);
+            Arrays.sort(order, (a, b) -> Long.compare(a.key, b.key));
+            if (order.length > 0) {
+                pool.invoke(new Resolve(order, 0, order.length, turn));
+            }
+            //Hand back what each tile did in tile order
+            for (Tile tile : order) {
+                for (String message : tile.messages) {
+                    world.log(null, message);
+                }
+                tile.messages.clear();
+                for (Runnable event : tile.events) {
+                    event.run();
+                }
+                tile.events.clear();
+                world.countDeaths(tile.heroDeaths, tile.monsterDeaths);
+                tile.heroDeaths = 0;
+                tile.monsterDeaths = 0;
+            }
+        }
+    }
+
+    /**
+     * Checkerboard colour of a tile (0 to 3)
+     *
+     * @param key Row-major index of the tile
+     * @return Which phase the tile is resolved in
+     */
+    private int phase(long key) {
+        long tileRow = key / tileColumns;
+        long tileColumn = key % tileColumns;
+        return (int) ((tileRow & 1) << 1 | (tileColumn & 1));
+    }
+
+    /**
+     * Seed of one entity's random number generator for one turn
+     *
+     * @param turn The turn
+     * @param slot The entity's index in the entities list
+     * @return A well mixed seed
+     */
+    private long seedOf(long turn, int slot) {
+        long z = seed + turn * 0x9E3779B97F4A7C15L + slot * 0xC2B2AE3D27D4EB4FL;
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+
+    /**
+     * Resolves a range of same-colour tiles, splitting it in half until there is one tile left
+     */
+    private final class Resolve extends RecursiveAction {
+        /**
+         * Resolve tasks are never serialized
+         */
+        private static final long serialVersionUID = 1L;
+        /**
+         * Tiles of the phase
+         */
+        private final Tile[] order;
+        /**
+         * First tile of the range
+         */
+        private final int from;
+        /**
+         * One past the last tile of the range
+         */
+        private final int to;
+        /**
+         * The turn being resolved
+         */
+        private final long turn;
+
+        /**
+         * Resolve tiles from (inclusive) to to (exclusive)
+         *
+         * @param order Tiles of the phase
+         * @param from  First tile of the range
+         * @param to    One past the last tile of the range
+         * @param turn  The turn being resolved
+         */
+        Resolve(Tile[] order, int from, int to, long turn) {
+            this.order = order;
+            this.from = from;
+            this.to = to;
+            this.turn = turn;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from == 1) {
+                Tile tile = order[from];
+                for (int i = 0; i < tile.size; i++) {
+                    int slot = tile.slots[i];
+                    tile.random.setSeed(seedOf(turn, slot));
+                    world.act(slot, tile.random, tile);
+                }
+                return;
+            }
+            int middle = (from + to) >>> 1;
+            invokeAll(new Resolve(order, from, middle, turn), new Resolve(order, middle, to, turn));
+        }
+    }
+}
@@ -0,0 +1,111 @@
+package mvh.world;
+
+import mvh.enums.Faction;
+
+import java.util.Arrays;
+
+/**
+ * The entity slots that still take turns, in the order they were added to the World
+ * The World's entities list keeps every entity ever added (dead ones too, so IDs and slots never move), this keeps
+ * only the ALIVE ones and is compacted in place at the end of every turn, so a turn late in a big battle visits the
+ * survivors rather than every corpse
+ * @author Hasan Salhi
+ * @version 1.0
+ */
+final class TurnSchedule {
+
+    /**
+     * Starting capacity of the slots array
+     */
+    private static final int INITIAL_CAPACITY = 16;
+
+    /**
+     * Slots that take turns, ascending (the order entities were added)
+     */
+    private int[] slots = new int[INITIAL_CAPACITY];
+    /**
+     * Number of slots in use
+     */
+    private int size;
+    /**
+     * ALIVE entities scheduled on each side (indexed by Faction), as of the last add or compact
+     */
+    private final int[] living = new int[Faction.values().length];
+
+    /**
+     * Schedule a newly added slot if its entity is ALIVE (slots must be added in ascending order)
+     *
+     * @param slot   The entity's index in the entities list
+     * @param entity The entity (may be null)
+     */
+    void add(int slot, Entity entity) {
+        if (entity == null || !entity.isAlive()) {
+            return;
+        }
+        if (size == slots.length) {
+            slots = Arrays.copyOf(slots, size * 2);
+        }
+        slots[size++] = slot;
+        count(entity, 1);
+    }
+
+    /**
+     * Drop every slot whose entity is no longer ALIVE, keeping the rest in order, and recount each side
+     *
+     * @param world The world the slots belong to
+     */
+    void compact(World world) {
+        Arrays.fill(living, 0);
+        int kept = 0;
+        for (int i = 0; i < size; i++) {
+            int slot = slots[i];
+            Entity entity = world.entity(slot);
+            if (entity != null && entity.isAlive()) {
+                slots[kept++] = slot;
+                count(entity, 1);
+            }
+        }
+        size = kept;
+    }
+
+    /**
+     * Add to the count of an entity's side
+     *
+     * @param entity The entity
+     * @param change The amount to add
+     */
+    private void count(Entity entity, int change) {
+        if (entity instanceof Hero) {
+            living[Faction.HEROES.ordinal()] += change;
+        } else if (entity instanceof Monster) {
+            living[Faction.MONSTERS.ordinal()] += change;
+        }
+    }
+
+    /**
+     * @return Number of slots scheduled
+     */
+    int size() {
+        return size;
+    }
+
+    /**
+     * A scheduled slot
+     *
+     * @param index Position in the schedule (0 goes first)
+     * @return The entity's index in the entities list
+     */
+    int slot(int index) {
+        return slots[index];
+    }
+
+    /**
+     * ALIVE entities scheduled on a side, as of the last add or compact
+     *
+     * @param faction The side
+     * @return The count
+     */
+    int living(Faction faction) {
+        return living[faction.ordinal()];
+    }
+}
@@ -3,17 +3,27 @@ package mvh.world;
 import mvh.Main;
 import mvh.Menu;
 import mvh.enums.Direction;
-import mvh.enums.Symbol;
+import mvh.enums.Faction;
+import mvh.enums.LogLevel;
+import mvh.enums.MovementMode;
+import mvh.enums.Outcome;
+import mvh.enums.Storage;
+import mvh.util.OutputSink;
 
 import java.util.ArrayList;
-import java.util.HashMap;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
 
 /**
  * A World is a 2D grid of entities, null Spots are floor spots
  * @author Jonathan Hudson, Hasan Salhi
  * @version 1.1b
  */
-public class World {
+public class World implements WorldView {
 
     /**
      * World starts ACTIVE, but will turn INACTIVE after a simulation ends with only one type of Entity still ALIVE
@@ -26,20 +36,104 @@ public class World {
      * The World starts ACTIVE
      */
     private State state;
+    /**
+     * Number of times the simulation has been advanced
+     */
+    private long turn;
     /**
      * The storage of entities in World, floor is null, Dead entities can be moved on top of (deleting them essentially from the map)
      */
-    private final Entity[][] world;
+    private final CellStore world;
+    /**
+     * How the grid is stored (so copies can use the same)
+     */
+    private final Storage storage;
+    /**
+     * This world's own random number generator (null to use the program-wide Main.random)
+     */
+    private Random random;
+    /**
+     * A quiet world does not log what every entity does
+     */
+    private boolean quiet;
+    /**
+     * Is what every entity does logged this turn (not quiet and its sink wants TRACE), checked before any message is built
+     */
+    private boolean tracing;
+    /**
+     * Where this world's messages go (null for Menu's screen and log file)
+     */
+    private OutputSink sink;
+    /**
+     * Resolves turns a tile at a time on a fork-join pool (null to take turns one entity at a time)
+     */
+    private TiledTurn tiled;
+    /**
+     * Distances to the nearest hero and monster, rebuilt every turn in PURSUIT movement mode (null in LOCAL mode)
+     */
+    private DistanceField pursuit;
+    /**
+     * How far each side can attack (indexed by Faction), 1 is only the spots next to it
+     */
+    private final int[] attackRadii = {DEFAULT_ATTACK_RADIUS, DEFAULT_ATTACK_RADIUS};
+    /**
+     * How far each side can see enemies to move toward (indexed by Faction), 2 is the 5x5 local view
+     */
+    private final int[] perceptionRadii = {DEFAULT_PERCEPTION_RADIUS, DEFAULT_PERCEPTION_RADIUS};
+    /**
+     * Where every living hero and monster is, kept only while a side can attack or see beyond its local views
+     */
+    private OccupancyIndex occupancy;
+    /**
+     * Told about every move, attack, death and end of turn while advancing (null if nobody is listening)
+     */
+    private WorldListener listener;
+    /**
+     * Counters and turn timings (null if not being measured, which costs a null check at each counting point)
+     */
+    private SimulationMetrics metrics;
+    /**
+     * The last rendered map and entity table (null until first rendered)
+     */
+    private FrameCache frame;
     /**
      * We track the order that entities were added (this is used to determine order of actions each turn)
      * Entities remain in this list (Even if DEAD) ,unlike the world Entity[][] where they can be moved on top of causing deletion.
      */
     private final ArrayList<Entity> entities;
     /**
-     * We use a HashMap to track entity location in world {row, column}
+     * We track entity location in world as a packed (row, column) long, indexed the same as the entities list
      * We will update this every time an Entity is shifted in the world Entity[][]
      */
-    private final HashMap<Entity, Integer[]> locations;
+    private long[] locations;
+    /**
+     * The slots of ALIVE entities in the order they were added, each turn only visits these
+     */
+    private final TurnSchedule schedule = new TurnSchedule();
+    /**
+     * Slots of entities another World owns (a getLocal view holds its parent's entities, the one Wall is everywhere),
+     * null until the first one is added
+     */
+    private IdentityHashMap<Entity, Integer> borrowed;
+
+    /**
+     * Starting capacity of the locations array
+     */
+    private static final int INITIAL_CAPACITY = 16;
+
+    /**
+     * Number of ALIVE heroes currently on the map
+     * Kept up to date as entities are added, moved on top of, and killed so checkActive does not need to scan
+     */
+    private int livingHeroes;
+    /**
+     * Number of ALIVE monsters currently on the map
+     */
+    private int livingMonsters;
+    /**
+     * In debug mode checkActive cross-checks the living counts against a full scan of the map
+     */
+    private boolean debug;
 
     /**
      * The local view of world will be 3x3 grid for attacking
@@ -48,7 +142,19 @@ public class World {
     /**
      * The local view of world will be 5x5 grid for moving
      */
-    private static final int MOVE_WORLD_SIZE = 5;
+    static final int MOVE_WORLD_SIZE = 5;
+    /**
+     * Attack radius of the 3x3 attack view
+     */
+    public static final int DEFAULT_ATTACK_RADIUS = ATTACK_WORLD_SIZE / 2;
+    /**
+     * Perception radius of the 5x5 move view
+     */
+    public static final int DEFAULT_PERCEPTION_RADIUS = MOVE_WORLD_SIZE / 2;
+    /**
+     * Header line of the entity table in gameString
+     */
+    public static final String TABLE_HEADER = "NAME   \tS\tH\tSTATE\tINFO\n";
 
     /**
      * A new world of ROWSxCOLUMNS in size
@@ -57,13 +163,32 @@ public class World {
      * @param columns The 2D of the 2D world (columns)
      */
     public World(int rows, int columns) {
+        this(rows, columns, Storage.ARRAY);
+    }
+
+    /**
+     * A new world of ROWSxCOLUMNS in size using the requested grid storage
+     * Every storage behaves the same, they only differ in memory layout and speed
+     *
+     * @param rows    The 1D of the 2D world (rows)
+     * @param columns The 2D of the 2D world (columns)
+     * @param storage How the grid should be stored
+     */
+    public World(int rows, int columns, Storage storage) {
         //Establishes all fields in World class to what they need to be
-        this.world = new Entity[rows][columns];
+        if (storage == Storage.PACKED) {
+            this.world = new PackedCellStore(rows, columns);
+        } else if (storage == Storage.CHUNKED) {
+            this.world = new ChunkedCellStore(rows, columns);
+        } else {
+            this.world = new ArrayCellStore(rows, columns);
+        }
+        this.storage = storage;
 
         ArrayList<Entity> entities = new ArrayList<>();
         this.entities = entities;
 
-        this.locations = new HashMap<>();
+        this.locations = new long[INITIAL_CAPACITY];
 
         this.state = State.ACTIVE;
     }
@@ -92,89 +217,715 @@ public class World {
         if (state == State.INACTIVE) {
             return;
         }
-        //If not done go through all entities (this will be in order read and added from file)
-        for (Entity entity : entities) {
-            //If entity is something that is ALIVE, we want to give it a turn to ATTACK or MOVE
-            if (entity.isAlive()) {
-                //Get location of entity (only the world knows this, the entity does not itself)
-                Integer[] location = locations.get(entity);
-                //Pull out row,column
-                int row = location[0];
-                int column = location[1];
-                //Determine if/where an entity wants to attack
-                World attackWorld3X3 = getLocal(ATTACK_WORLD_SIZE, row, column);
-                Direction attackWhere = entity.attackWhere(attackWorld3X3);
+        long start = metrics != null ? System.nanoTime() : 0;
+        FlightEvents.Turn event = new FlightEvents.Turn();
+        event.begin();
+        tracing = !quiet && getSink().isEnabled(LogLevel.TRACE);
+        turn++;
+        if (pursuit != null) {
+            pursuit.update();
+        }
+        int acting = schedule.size();
+        if (tiled != null) {
+            //Entities far enough apart take their turns at the same time
+            tiled.advance(turn);
+        } else {
+            //If not done go through all living entities (this will be in order read and added from file)
+            Random random = getRandom();
+            for (int i = 0; i < acting; i++) {
+                act(schedule.slot(i), random, null);
+            }
+        }
+        //Entities killed this turn never take another
+        schedule.compact(this);
+        checkActive();
+        if (metrics != null) {
+            metrics.turn(System.nanoTime() - start);
+        }
+        if (event.shouldCommit()) {
+            event.turn = turn;
+            event.acting = acting;
+            event.heroes = livingHeroes;
+            event.monsters = livingMonsters;
+            event.movement = getMovementMode().name();
+            event.parallel = tiled != null;
+            event.commit();
+        }
+        if (listener != null) {
+            listener.turnEnded(turn);
+        }
+    }
+
+    /**
+     * End a turn whose moves and attacks were applied from outside rather than played (replaying a recorded run)
+     */
+    public void endTurn() {
+        if (state == State.INACTIVE) {
+            return;
+        }
+        turn++;
+        schedule.compact(this);
+        checkActive();
+    }
+
+    /**
+     * Listen to every move, attack, death and end of turn from now on
+     *
+     * @param listener The listener, null to stop listening
+     */
+    public void setListener(WorldListener listener) {
+        this.listener = listener;
+    }
+
+    /**
+     * Write this world's messages to a sink of its own rather than Menu's screen and log file
+     *
+     * @param sink Where messages go, null for Menu's screen and log file
+     */
+    public void setSink(OutputSink sink) {
+        this.sink = sink;
+    }
+
+    /**
+     * @return Where this world's messages go
+     */
+    public OutputSink getSink() {
+        return sink != null ? sink : Menu.sink();
+    }
+
+    /**
+     * Count moves, attacks and deaths and time every turn from now on
+     *
+     * @param metrics Where to count, null to stop measuring
+     */
+    public void setMetrics(SimulationMetrics metrics) {
+        this.metrics = metrics;
+    }
+
+    /**
+     * @return Where moves, attacks and deaths are counted (null if not being measured)
+     */
+    public SimulationMetrics getMetrics() {
+        return metrics;
+    }
+
+    /**
+     * Give one entity its turn to ATTACK or MOVE (if it is ALIVE)
+     * With the default radii everything the entity reads or changes is within MOVE_WORLD_SIZE/2 of where it stands,
+     * which is what lets TiledTurn run entities in different tiles at the same time
+     *
+     * @param slot   The entity's index in the entities list
+     * @param random The random number generator for this entity's turn
+     * @param tile   The tile being resolved (its messages and deaths are held for later), null to log and count now
+     */
+    void act(int slot, Random random, TiledTurn.Tile tile) {
+        Entity entity = entities.get(slot);
+        //If entity is something that is ALIVE, we want to give it a turn to ATTACK or MOVE
+        if (entity.isAlive()) {
+            //Get location of entity (only the world knows this, the entity does not itself)
+            long location = locations[slot];
+            //Pull out row,column
+            int row = unpackRow(location);
+            int column = unpackColumn(location);
+            long start = 0;
+            if (metrics != null) {
+                metrics.acted();
+                start = System.nanoTime();
+            }
+            //Determine if/where an entity wants to attack
+            LocalView attackWorld3X3 = new LocalView(this, ATTACK_WORLD_SIZE, row, column, random);
+            Direction attackWhere = entity.attackWhere(attackWorld3X3);
+            if (metrics != null) {
+                metrics.decided(System.nanoTime() - start);
+            }
+            //STAY (or null) means there is no enemy next to the entity
+            boolean idle = attackWhere == null || attackWhere == Direction.STAY;
+            //Entities with a longer reach shoot at the nearest enemy in range when there is nothing next to them
+            int target = -1;
+            if (occupancy != null && idle && attackRadius(entity) > DEFAULT_ATTACK_RADIUS) {
+                target = occupancy.nearest(entity instanceof Monster, row, column, attackRadius(entity));
+            }
+            //Head for the nearest enemy on the map when pursuing, or the nearest one in sight for longer perception
+            Direction moveWhere = null;
+            if (idle && target < 0) {
+                if (pursuit != null) {
+                    moveWhere = pursuit.descend(entity, row, column);
+                }
+                if (moveWhere == null && occupancy != null) {
+                    moveWhere = steer(entity, row, column);
+                }
+            }
+            //Pursuing (or having an enemy in sight) means moving rather than attacking itself
+            if (attackWhere == Direction.STAY && (pursuit != null || moveWhere != null)) {
+                attackWhere = null;
+            }
+            if (target >= 0) {
+                Entity attacked = entities.get(target);
+                long at = occupancy.location(target);
+                int distance = Math.max(Math.abs(unpackRow(at) - row), Math.abs(unpackColumn(at) - column));
+                if (tracing) {
+                    log(tile, String.format("%s attacking %s at range %d", entity.shortString(), attacked.shortString(), distance));
+                }
+                strike(entity, attacked, unpackRow(at), unpackColumn(at), random, tile);
+            } else if (attackWhere == null) {
                 //If I don't attack, then I must be moving
-                if (attackWhere == null) {
-                    //Figure out where entity wants to move
-                    World moveWorld5x5 = getLocal(MOVE_WORLD_SIZE, row, column);
-                    Direction moveWhere = entity.chooseMove(moveWorld5x5);
-                    //Log moving
-                    Menu.println(String.format("%s moving %s", entity.shortString(), moveWhere));
-                    //If this move is valid, then move it
-                    if (canMoveOnTopOf(row, column, moveWhere)) {
-                        moveEntity(row, column, moveWhere);
-                    } else {
-                        //Otherwise, indicate an invalid attempt to move
-                        Menu.println(String.format("%s  tried to move somewhere it could not!", entity.shortString()));
+                //Figure out where entity wants to move from what it can see close by if it has nowhere to head for
+                if (moveWhere == null) {
+                    start = metrics != null ? System.nanoTime() : 0;
+                    LocalView moveWorld5x5 = new LocalView(this, MOVE_WORLD_SIZE, row, column, random);
+                    moveWhere = entity.chooseMove(moveWorld5x5);
+                    if (metrics != null) {
+                        metrics.decided(System.nanoTime() - start);
+                    }
+                }
+                //Log moving
+                if (tracing) {
+                    log(tile, String.format("%s moving %s", entity.shortString(), moveWhere));
+                }
+                //If this move is valid, then move it
+                if (canMoveOnTopOf(row, column, moveWhere)) {
+                    moveEntity(row, column, moveWhere);
+                    if (metrics != null) {
+                        metrics.moved();
                     }
+                    if (listener != null) {
+                        Direction moved = moveWhere;
+                        emit(tile, () -> listener.moved(entity, row, column, moved));
+                    }
+                } else {
+                    //Otherwise, indicate an invalid attempt to move
+                    if (metrics != null) {
+                        metrics.failedMove();
+                    }
+                    if (tracing) {
+                        log(tile, String.format("%s  tried to move somewhere it could not!", entity.shortString()));
+                    }
+                }
+            } else {
+                //If we are here our earlier attack question was not null, and we are attacking a nearby entity
+                //Get the entity we are attacking
+                Entity attacked = getEntity(row, column, attackWhere);
+                if (tracing) {
+                    log(tile, String.format("%s attacking %s in direction %s", entity.shortString(), attackWhere, attacked.shortString()));
+                }
+                //Can we attack this entity
+                if (canBeAttacked(row, column, attackWhere)) {
+                    strike(entity, attacked, row + attackWhere.getRowChange(), column + attackWhere.getColumnChange(), random, tile);
                 } else {
-                    //If we are here our earlier attack question was not null, and we are attacking a nearby entity
-                    //Get the entity we are attacking
-                    Entity attacked = getEntity(row, column, attackWhere);
-                    Menu.println(String.format("%s attacking %s in direction %s", entity.shortString(), attackWhere, attacked.shortString()));
-                    //Can we attack this entity
-                    if (canBeAttacked(row, column, attackWhere)) {
-                        //Determine damage using RNG
-                        int damage = 1 + Main.random.nextInt(entity.weaponStrength());
-                        int true_damage = Math.max(0, damage - attacked.armorStrength());
-                        Menu.println(String.format("%s attacked %s for %d damage against %d defense for %d", entity.shortString(), attacked.shortString(), damage, attacked.armorStrength(), true_damage));
-                        attacked.damage(true_damage);
-                        if (!attacked.isAlive()) {
-                            locations.remove(attacked);
-                            Menu.println(String.format("%s died!", attacked.shortString()));
-                        }
-                    } else {
-                        Menu.println(String.format("%s  tried to attack somewhere it could not!", entity.shortString()));
+                    if (tracing) {
+                        log(tile, String.format("%s  tried to attack somewhere it could not!", entity.shortString()));
                     }
                 }
             }
         }
-        checkActive();
+    }
+
+    /**
+     * One entity hits another, damage is rolled and taken off (less armor)
+     *
+     * @param entity       The attacker
+     * @param attacked     The entity being attacked
+     * @param targetRow    Row of the entity being attacked
+     * @param targetColumn Column of the entity being attacked
+     * @param random       The random number generator for the attacker's turn (an IllegalStateException if there is none)
+     * @param tile         The tile being resolved, null to log and count now
+     */
+    private void strike(Entity entity, Entity attacked, int targetRow, int targetColumn, Random random, TiledTurn.Tile tile) {
+        if (random == null) {
+            throw new IllegalStateException("Cannot roll damage without a random number generator, call setRandom (or set Main.random) first!");
+        }
+        FlightEvents.Attack event = new FlightEvents.Attack();
+        event.begin();
+        //Determine damage using RNG
+        int damage = 1 + random.nextInt(entity.weaponStrength());
+        int true_damage = Math.max(0, damage - attacked.armorStrength());
+        if (tracing) {
+            log(tile, String.format("%s attacked %s for %d damage against %d defense for %d", entity.shortString(), attacked.shortString(), damage, attacked.armorStrength(), true_damage));
+        }
+        if (metrics != null) {
+            metrics.attacked(true_damage);
+        }
+        if (listener != null) {
+            emit(tile, () -> listener.attacked(entity, attacked, targetRow, targetColumn, damage, true_damage));
+        }
+        boolean died = damage(attacked, targetRow, targetColumn, true_damage, tile);
+        if (event.shouldCommit()) {
+            event.attackerId = FlightEvents.id(entity);
+            event.attackerKind = FlightEvents.kind(entity);
+            event.targetId = FlightEvents.id(attacked);
+            event.targetKind = FlightEvents.kind(attacked);
+            event.row = targetRow;
+            event.column = targetColumn;
+            event.damage = damage;
+            event.trueDamage = true_damage;
+            event.commit();
+        }
+        if (died) {
+            if (metrics != null) {
+                metrics.died();
+            }
+            FlightEvents.Death death = new FlightEvents.Death();
+            if (death.shouldCommit()) {
+                death.entityId = FlightEvents.id(attacked);
+                death.kind = FlightEvents.kind(attacked);
+                death.row = targetRow;
+                death.column = targetColumn;
+                death.commit();
+            }
+            if (listener != null) {
+                emit(tile, () -> listener.died(attacked, targetRow, targetColumn));
+            }
+            if (tracing) {
+                log(tile, String.format("%s died!", attacked.shortString()));
+            }
+        }
+    }
+
+    /**
+     * Take damage off the entity at a location (armor is not taken off, replaying a recorded run passes the damage
+     * that was taken)
+     *
+     * @param row    The row of the entity
+     * @param column The column of the entity
+     * @param damage The damage to take off
+     */
+    public void damageEntity(int row, int column, int damage) {
+        Entity attacked = getEntity(row, column);
+        if (attacked == null) {
+            throw new IllegalArgumentException("There is nothing at " + row + "," + column + " to damage!");
+        }
+        damage(attacked, row, column, damage, null);
+    }
+
+    /**
+     * Take damage off an entity, counting it if it dies
+     *
+     * @param attacked The entity being damaged
+     * @param row      The row of the entity
+     * @param column   The column of the entity
+     * @param damage   The damage to take off
+     * @param tile     The tile being resolved (the death is held for later), null to count now
+     * @return True if the entity went from ALIVE to DEAD
+     */
+    private boolean damage(Entity attacked, int row, int column, int damage, TiledTurn.Tile tile) {
+        boolean died = attacked.takeDamage(damage);
+        world.refresh(row, column);
+        changed(row);
+        if (attacked.owner != null && attacked.owner != this) {
+            attacked.owner.damaged(attacked, died);
+        }
+        if (!died) {
+            return false;
+        }
+        if (tile == null) {
+            countDeath(attacked);
+        } else {
+            tile.died(attacked);
+        }
+        return true;
+    }
+
+    /**
+     * An entity this World owns was damaged from outside the World (straight through Entity.damage), so the row it
+     * stands on needs rendering again and a kill has to be counted
+     *
+     * @param entity The entity that was damaged
+     * @param died   True if the damage took it from ALIVE to DEAD
+     */
+    void damaged(Entity entity, boolean died) {
+        int slot = slotOf(entity);
+        if (slot < 0) {
+            return;
+        }
+        long at = locations[slot];
+        int row = unpackRow(at);
+        int column = unpackColumn(at);
+        if (world.get(row, column) == entity) {
+            world.refresh(row, column);
+            changed(row);
+            if (died) {
+                countDeath(entity);
+            }
+        }
+    }
+
+    /**
+     * Step toward the nearest enemy within an entity's perception radius (only used for radii beyond the 5x5 view)
+     *
+     * @param entity The entity moving
+     * @param row    The row the entity is on
+     * @param column The column the entity is on
+     * @return The first of the directions toward the enemy that can be moved on top of, null if there is no enemy in
+     * sight or no way to step toward it
+     */
+    private Direction steer(Entity entity, int row, int column) {
+        int radius = perceptionRadius(entity);
+        if (radius <= DEFAULT_PERCEPTION_RADIUS) {
+            return null;
+        }
+        int target = occupancy.nearest(entity instanceof Monster, row, column, radius);
+        if (target < 0) {
+            return null;
+        }
+        long at = occupancy.location(target);
+        List<Direction> preferences = Direction.getPreferences(unpackRow(at) - row, unpackColumn(at) - column);
+        for (int i = 0; i < preferences.size(); i++) {
+            int stepRow = row + preferences.get(i).getRowChange();
+            int stepColumn = column + preferences.get(i).getColumnChange();
+            if (stepRow >= 0 && stepRow < getRows() && stepColumn >= 0 && stepColumn < getColumns() && canMoveOnTopOf(stepRow, stepColumn)) {
+                return preferences.get(i);
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Log a message now, or hold it in a tile's messages to be logged once the tile's phase is done
+     *
+     * @param tile    The tile being resolved, null to log now
+     * @param message The message
+     */
+    void log(TiledTurn.Tile tile, String message) {
+        if (tile == null) {
+            getSink().write(LogLevel.TRACE, message);
+        } else {
+            tile.messages.add(message);
+        }
+    }
+
+    /**
+     * Tell the listener about an event now, or hold it in a tile's events to be told once the tile's phase is done
+     *
+     * @param tile  The tile being resolved, null to tell now
+     * @param event Calls the listener
+     */
+    private void emit(TiledTurn.Tile tile, Runnable event) {
+        if (tile == null) {
+            event.run();
+        } else {
+            tile.events.add(event);
+        }
     }
 
     /**
      * Check if simulation has now ended (only one of two versus Entity types is alive
      */
     public void checkActive() {
-        //Assumes all Dead until it finds one still alive
-        boolean allMonstersDead = true;
-        for (int row = 0; row < world.length; row++) {
-            for (int column = 0; column < world[row].length; column++) {
-                if (world[row][column] instanceof Monster) {
-                    if (world[row][column].isAlive()) {
-                        allMonstersDead = false;
-                    }
-                }
+        if (debug) {
+            verifyLivingCounts();
+        }
+        if (livingMonsters == 0 || livingHeroes == 0) {
+            this.state = State.INACTIVE;
+        }
+    }
+
+    /**
+     * Give this world its own random number generator (so several worlds can be simulated independently)
+     *
+     * @param random The random number generator, null to go back to the program-wide Main.random
+     */
+    public void setRandom(Random random) {
+        this.random = random;
+    }
+
+    /**
+     * The random number generator this world rolls with
+     *
+     * @return This world's own random number generator, or the program-wide Main.random if it has none
+     */
+    @Override
+    public Random getRandom() {
+        return random != null ? random : Main.random;
+    }
+
+    /**
+     * Resolve each turn in parallel: the map is cut into square tiles and tiles far enough apart that nothing in one
+     * can see or touch anything in the other are resolved at the same time (see TiledTurn)
+     * Every entity rolls with its own random number generator seeded from the seed, the turn and its slot, so a run
+     * plays out the same for a given seed no matter how many threads the pool has (but not the same as a sequential run)
+     * Chunked storage can not be changed from several threads, so it can not be resolved in parallel
+     *
+     * @param pool     The pool to resolve tiles on, null to go back to one entity at a time
+     * @param tileSize Rows and columns of each tile (at least TiledTurn.MIN_TILE_SIZE)
+     * @param seed     Seed for the per-entity random number generators
+     */
+    public void setParallel(ForkJoinPool pool, int tileSize, long seed) {
+        if (pool == null) {
+            this.tiled = null;
+            return;
+        }
+        if (storage == Storage.CHUNKED) {
+            throw new IllegalArgumentException("Chunked storage can not be resolved in parallel!");
+        }
+        if (occupancy != null) {
+            throw new IllegalArgumentException("Attack or perception radii beyond the local views can not be resolved in parallel!");
+        }
+        this.tiled = new TiledTurn(this, pool, tileSize, seed);
+    }
+
+    /**
+     * Set how far a side can attack
+     * Beyond 1, an entity with nothing next to it attacks the nearest enemy within the radius (counting steps in any of
+     * the 8 directions) instead of moving or attacking itself
+     *
+     * @param faction The side
+     * @param radius  The attack radius (at least 1)
+     */
+    public void setAttackRadius(Faction faction, int radius) {
+        if (radius < DEFAULT_ATTACK_RADIUS) {
+            throw new IllegalArgumentException("Attack radius must be >= " + DEFAULT_ATTACK_RADIUS + ". Value given was " + radius + "!");
+        }
+        setRadius(attackRadii, faction, radius);
+    }
+
+    /**
+     * How far a side can attack
+     *
+     * @param faction The side
+     * @return The attack radius
+     */
+    public int getAttackRadius(Faction faction) {
+        return attackRadii[faction.ordinal()];
+    }
+
+    /**
+     * Set how far a side can see enemies to move toward
+     * Beyond 2 (the 5x5 local view), an entity steps toward the nearest enemy within the radius, falling back to
+     * chooseMove if there is none in sight or no way to step toward it
+     *
+     * @param faction The side
+     * @param radius  The perception radius (at least 2)
+     */
+    public void setPerceptionRadius(Faction faction, int radius) {
+        if (radius < DEFAULT_PERCEPTION_RADIUS) {
+            throw new IllegalArgumentException("Perception radius must be >= " + DEFAULT_PERCEPTION_RADIUS + ". Value given was " + radius + "!");
+        }
+        setRadius(perceptionRadii, faction, radius);
+    }
+
+    /**
+     * How far a side can see enemies to move toward
+     *
+     * @param faction The side
+     * @return The perception radius
+     */
+    public int getPerceptionRadius(Faction faction) {
+        return perceptionRadii[faction.ordinal()];
+    }
+
+    /**
+     * Change a radius, building the occupancy index when any radius first goes beyond the local views (and dropping it
+     * when none do)
+     *
+     * @param radii   The attack or perception radii
+     * @param faction The side
+     * @param radius  The new radius
+     */
+    private void setRadius(int[] radii, Faction faction, int radius) {
+        int old = radii[faction.ordinal()];
+        radii[faction.ordinal()] = radius;
+        boolean needed = false;
+        for (Faction side : Faction.values()) {
+            needed |= attackRadii[side.ordinal()] > DEFAULT_ATTACK_RADIUS || perceptionRadii[side.ordinal()] > DEFAULT_PERCEPTION_RADIUS;
+        }
+        if (needed && tiled != null) {
+            radii[faction.ordinal()] = old;
+            throw new IllegalArgumentException("Attack or perception radii beyond the local views can not be resolved in parallel!");
+        }
+        if (!needed) {
+            occupancy = null;
+        } else if (occupancy == null) {
+            occupancy = new OccupancyIndex(this);
+        }
+    }
+
+    /**
+     * Attack radius of an entity's side
+     *
+     * @param entity The entity
+     * @return The attack radius (the default for anything that is not a hero or monster)
+     */
+    private int attackRadius(Entity entity) {
+        if (entity instanceof Hero) {
+            return attackRadii[Faction.HEROES.ordinal()];
+        } else if (entity instanceof Monster) {
+            return attackRadii[Faction.MONSTERS.ordinal()];
+        }
+        return DEFAULT_ATTACK_RADIUS;
+    }
+
+    /**
+     * Perception radius of an entity's side
+     *
+     * @param entity The entity
+     * @return The perception radius (the default for anything that is not a hero or monster)
+     */
+    private int perceptionRadius(Entity entity) {
+        if (entity instanceof Hero) {
+            return perceptionRadii[Faction.HEROES.ordinal()];
+        } else if (entity instanceof Monster) {
+            return perceptionRadii[Faction.MONSTERS.ordinal()];
+        }
+        return DEFAULT_PERCEPTION_RADIUS;
+    }
+
+    /**
+     * Choose how entities decide where to move
+     * In PURSUIT mode an entity with no enemy next to it moves rather than attacking itself, and steps toward the
+     * nearest enemy anywhere on the map (distance fields are rebuilt at the start of every turn, walls block)
+     *
+     * @param mode LOCAL (the default) or PURSUIT
+     */
+    public void setMovementMode(MovementMode mode) {
+        if (mode == MovementMode.PURSUIT) {
+            if (pursuit == null) {
+                pursuit = new DistanceField(this);
             }
+        } else {
+            pursuit = null;
         }
+    }
 
-        //Assumes all dead until finds a living Hero
-        boolean allHeroesDead = true;
-        for (int row = 0; row < world.length; row++) {
-            for (int column = 0; column < world[row].length; column++) {
-                if (world[row][column] instanceof Hero) {
-                    if (world[row][column].isAlive()) {
-                        allHeroesDead = false;
-                    }
+    /**
+     * How entities decide where to move
+     *
+     * @return LOCAL or PURSUIT
+     */
+    public MovementMode getMovementMode() {
+        return pursuit != null ? MovementMode.PURSUIT : MovementMode.LOCAL;
+    }
+
+    /**
+     * Turn logging of every move and attack on or off
+     *
+     * @param quiet True to stop logging what every entity does
+     */
+    public void setQuiet(boolean quiet) {
+        this.quiet = quiet;
+    }
+
+    /**
+     * Make an independent copy of this world, every entity is copied (keeping its ID) so the copy can be simulated
+     * without touching this world (walls are shared as there is only ever one)
+     * The copy has no random number generator of its own until setRandom is called
+     *
+     * @return A deep copy of this world
+     */
+    public World copy() {
+        World copy = new World(getRows(), getColumns(), storage);
+        IdentityHashMap<Entity, Entity> copies = new IdentityHashMap<>();
+        copy.locations = Arrays.copyOf(locations, locations.length);
+        for (int slot = 0; slot < entities.size(); slot++) {
+            Entity entity = entities.get(slot);
+            Entity entityCopy = null;
+            if (entity != null) {
+                entityCopy = copies.get(entity);
+                if (entityCopy == null) {
+                    entityCopy = entity.copy();
+                    copies.put(entity, entityCopy);
+                }
+                copy.claim(slot, entityCopy);
+                //Only put it on the copy's map if it is still on this map where we last saw it
+                int row = unpackRow(locations[slot]);
+                int column = unpackColumn(locations[slot]);
+                if (getEntity(row, column) == entity) {
+                    copy.world.set(row, column, entityCopy);
                 }
             }
+            copy.entities.add(entityCopy);
+            copy.schedule.add(slot, entityCopy);
+        }
+        copy.state = state;
+        copy.turn = turn;
+        copy.livingHeroes = livingHeroes;
+        copy.livingMonsters = livingMonsters;
+        copy.debug = debug;
+        copy.quiet = quiet;
+        copy.sink = sink;
+        copy.setMovementMode(getMovementMode());
+        for (Faction faction : Faction.values()) {
+            copy.setAttackRadius(faction, getAttackRadius(faction));
+            copy.setPerceptionRadius(faction, getPerceptionRadius(faction));
         }
+        return copy;
+    }
 
-        if (allMonstersDead || allHeroesDead) {
-            this.state = State.INACTIVE;
+    /**
+     * Number of times the simulation has been advanced
+     *
+     * @return The number of turns played so far
+     */
+    public long getTurn() {
+        return turn;
+    }
+
+    /**
+     * Who has won (so far) based on who is still ALIVE on the map
+     *
+     * @return HEROES or MONSTERS if only one side is ALIVE, DRAW if neither, UNDECIDED if both
+     */
+    public Outcome getOutcome() {
+        if (livingHeroes > 0 && livingMonsters > 0) {
+            return Outcome.UNDECIDED;
+        } else if (livingHeroes > 0) {
+            return Outcome.HEROES;
+        } else if (livingMonsters > 0) {
+            return Outcome.MONSTERS;
         }
+        return Outcome.DRAW;
+    }
 
+    /**
+     * Turn debug mode on or off
+     * In debug mode every checkActive also counts the living heroes and monsters the slow way (a full scan of the map)
+     * and fails if the tracked counts have drifted
+     *
+     * @param debug True to cross-check living counts
+     */
+    public void setDebug(boolean debug) {
+        this.debug = debug;
+    }
+
+    /**
+     * Number of ALIVE heroes on the map
+     *
+     * @return Number of ALIVE heroes on the map
+     */
+    public int getLivingHeroes() {
+        return livingHeroes;
+    }
+
+    /**
+     * Number of ALIVE monsters on the map
+     *
+     * @return Number of ALIVE monsters on the map
+     */
+    public int getLivingMonsters() {
+        return livingMonsters;
+    }
+
+    /**
+     * Count living heroes and monsters by scanning the whole map and compare against the tracked counts
+     * Throws an IllegalStateException if they do not match
+     */
+    private void verifyLivingCounts() {
+        int heroes = 0;
+        int monsters = 0;
+        for (int row = 0; row < getRows(); row++) {
+            for (int column = 0; column < getColumns(); column++) {
+                Entity entity = world.get(row, column);
+                if (entity != null && entity.isAlive()) {
+                    if (entity instanceof Hero) {
+                        heroes++;
+                    } else if (entity instanceof Monster) {
+                        monsters++;
+                    }
+                }
+            }
+        }
+        if (heroes != livingHeroes || monsters != livingMonsters) {
+            throw new IllegalStateException(String.format("Living counts drifted! Tracked %d heroes/%d monsters but map has %d heroes/%d monsters", livingHeroes, livingMonsters, heroes, monsters));
+        }
     }
 
     /**
@@ -185,12 +936,34 @@ public class World {
      * @param d      The direction to move the entity in
      */
     public void moveEntity(int row, int column, Direction d) {
+        FlightEvents.Move event = new FlightEvents.Move();
+        event.begin();
         Entity entity = getEntity(row, column);
         int moveRow = row + d.getRowChange();
         int moveColumn = column + d.getColumnChange();
-        this.world[moveRow][moveColumn] = entity;
-        this.world[row][column] = null;
-        this.locations.put(entity, new Integer[]{moveRow, moveColumn});
+        //Whatever was moved on top of is gone from the map (moving onto itself leaves floor)
+        Entity target = getEntity(moveRow, moveColumn);
+        count(target, -1);
+        this.world.move(row, column, moveRow, moveColumn);
+        changed(row);
+        changed(moveRow);
+        int slot = slotOf(entity);
+        if (slot >= 0) {
+            this.locations[slot] = pack(moveRow, moveColumn);
+        }
+        if (occupancy != null) {
+            occupancy.remove(slotOf(target));
+            occupancy.move(slot, moveRow, moveColumn);
+        }
+        if (event.shouldCommit()) {
+            event.entityId = FlightEvents.id(entity);
+            event.kind = FlightEvents.kind(entity);
+            event.row = row;
+            event.column = column;
+            event.direction = d.name();
+            event.replaced = FlightEvents.kind(target == entity ? null : target);
+            event.commit();
+        }
     }
 
     /**
@@ -201,9 +974,282 @@ public class World {
      * @param entity The entity to add
      */
     public void addEntity(int row, int column, Entity entity) {
-        this.world[row][column] = entity;
+        setCell(row, column, entity);
+        int slot = entities.size();
         this.entities.add(entity);
-        locations.put(entity, new Integer[]{row, column});
+        if (slot == locations.length) {
+            locations = Arrays.copyOf(locations, slot * 2);
+        }
+        locations[slot] = pack(row, column);
+        claim(slot, entity);
+        if (entity != null) {
+            if (occupancy != null) {
+                occupancy.add(slot, entity, row, column);
+            }
+        }
+        schedule.add(slot, entity);
+    }
+
+    /**
+     * The entities of this world in the order they were added (the order they take their turns), DEAD ones included
+     *
+     * @return Read-only list of the entities
+     */
+    public List<Entity> getEntities() {
+        return Collections.unmodifiableList(entities);
+    }
+
+    /**
+     * Where an entity is on the map
+     *
+     * @param entity The entity to look for
+     * @return {row, column} of the entity, null if it is not on the map (never added, or since moved on top of)
+     */
+    public int[] locate(Entity entity) {
+        int slot = slotOf(entity);
+        if (slot < 0) {
+            return null;
+        }
+        int row = unpackRow(locations[slot]);
+        int column = unpackColumn(locations[slot]);
+        if (getEntity(row, column) != entity) {
+            return null;
+        }
+        return new int[]{row, column};
+    }
+
+    /**
+     * Place an entity (or floor if null) on the map, keeping the living counts up to date for whatever was there before
+     *
+     * @param row    The row to set
+     * @param column The column to set
+     * @param entity The entity to place there
+     */
+    private void setCell(int row, int column, Entity entity) {
+        count(this.world.get(row, column), -1);
+        if (occupancy != null) {
+            occupancy.remove(slotOf(this.world.get(row, column)));
+        }
+        this.world.set(row, column, entity);
+        count(entity, 1);
+        changed(row);
+    }
+
+    /**
+     * Adjust the living count for an entity's type (does nothing for DEAD entities, walls, or floor)
+     *
+     * @param entity The entity being counted
+     * @param change +1 if arriving on the map, -1 if leaving it
+     */
+    private void count(Entity entity, int change) {
+        if (entity != null && entity.isAlive()) {
+            if (entity instanceof Hero) {
+                livingHeroes += change;
+            } else if (entity instanceof Monster) {
+                livingMonsters += change;
+            }
+        }
+    }
+
+    /**
+     * An entity on the map has just gone from ALIVE to DEAD
+     *
+     * @param entity The entity that died
+     */
+    private void countDeath(Entity entity) {
+        if (occupancy != null) {
+            occupancy.remove(slotOf(entity));
+        }
+        if (entity instanceof Hero) {
+            livingHeroes--;
+        } else if (entity instanceof Monster) {
+            livingMonsters--;
+        }
+    }
+
+    /**
+     * Heroes and monsters died while a tile was being resolved
+     *
+     * @param heroes   Number of heroes that died
+     * @param monsters Number of monsters that died
+     */
+    void countDeaths(int heroes, int monsters) {
+        livingHeroes -= heroes;
+        livingMonsters -= monsters;
+    }
+
+    /**
+     * Add the next entity slot exactly as it was when a snapshot was taken
+     *
+     * @param entity The entity of the slot (may be null)
+     * @param row    The row the entity was last placed on
+     * @param column The column the entity was last placed on
+     * @param onMap  True if the entity is still on the map there, false if it has since been moved on top of
+     */
+    void restoreSlot(Entity entity, int row, int column, boolean onMap) {
+        if (onMap) {
+            addEntity(row, column, entity);
+            return;
+        }
+        int slot = entities.size();
+        this.entities.add(entity);
+        if (slot == locations.length) {
+            locations = Arrays.copyOf(locations, slot * 2);
+        }
+        locations[slot] = pack(row, column);
+        claim(slot, entity);
+        schedule.add(slot, entity);
+    }
+
+    /**
+     * Set the turn and state a snapshot was taken at
+     *
+     * @param turn   Number of turns played
+     * @param active True if the simulation was still ACTIVE
+     */
+    void restoreTurn(long turn, boolean active) {
+        this.turn = turn;
+        this.state = active ? State.ACTIVE : State.INACTIVE;
+    }
+
+    /**
+     * How the grid is stored
+     *
+     * @return The storage this world was made with
+     */
+    public Storage getStorage() {
+        return storage;
+    }
+
+    /**
+     * Where an entity slot was last placed
+     *
+     * @param slot The entity's index in the entities list
+     * @return The packed location (row in the high 32 bits, column in the low 32 bits)
+     */
+    long location(int slot) {
+        return locations[slot];
+    }
+
+    /**
+     * The slots of ALIVE entities in the order they were added
+     *
+     * @return The turn schedule
+     */
+    TurnSchedule schedule() {
+        return schedule;
+    }
+
+    /**
+     * Number of ALIVE heroes or monsters still taking turns (on the map or not), as of the end of the last turn
+     *
+     * @param faction The side
+     * @return The count
+     */
+    public int getActing(Faction faction) {
+        return schedule.living(faction);
+    }
+
+    /**
+     * Number of entity slots (the size of the entities list)
+     *
+     * @return Number of entities ever added
+     */
+    int slots() {
+        return entities.size();
+    }
+
+    /**
+     * Is the entity in a slot ALIVE
+     *
+     * @param slot The entity's index in the entities list
+     * @return True if the entity is ALIVE
+     */
+    boolean isAlive(int slot) {
+        Entity entity = entities.get(slot);
+        return entity != null && entity.isAlive();
+    }
+
+    /**
+     * The entity in a slot
+     *
+     * @param slot The entity's index in the entities list
+     * @return The entity
+     */
+    Entity entity(int slot) {
+        return entities.get(slot);
+    }
+
+    /**
+     * Record the slot an entity was added to (the last one if it is added more than once)
+     * The first World an entity is added to owns it and keeps the slot in the entity, so looking it up needs no
+     * hashing, any other World keeps it in its borrowed map so it never overwrites the owner's slot
+     *
+     * @param slot   The entity's index in the entities list
+     * @param entity The entity (may be null)
+     */
+    private void claim(int slot, Entity entity) {
+        if (entity == null) {
+            return;
+        }
+        if (entity.owner == this || (entity.owner == null && !(entity instanceof Wall))) {
+            entity.owner = this;
+            entity.slot = slot;
+        } else {
+            if (borrowed == null) {
+                borrowed = new IdentityHashMap<>();
+            }
+            borrowed.put(entity, slot);
+        }
+    }
+
+    /**
+     * Find where an entity sits in the entities list (and so the locations array)
+     * O(1) for entities this World owns, one identity hash lookup for borrowed ones
+     *
+     * @param entity The entity to look up
+     * @return The index of the entity, -1 if not in this World
+     */
+    private int slotOf(Entity entity) {
+        if (entity == null) {
+            return -1;
+        }
+        if (entity.owner == this) {
+            return entity.slot;
+        }
+        Integer slot = borrowed == null ? null : borrowed.get(entity);
+        return slot != null ? slot : -1;
+    }
+
+    /**
+     * Pack a row, column pair into one long
+     *
+     * @param row    The row
+     * @param column The column
+     * @return row in the high 32 bits, column in the low 32 bits
+     */
+    static long pack(int row, int column) {
+        return ((long) row << 32) | (column & 0xFFFFFFFFL);
+    }
+
+    /**
+     * Row of a packed location
+     *
+     * @param location The packed location
+     * @return The row
+     */
+    static int unpackRow(long location) {
+        return (int) (location >>> 32);
+    }
+
+    /**
+     * Column of a packed location
+     *
+     * @param location The packed location
+     * @return The column
+     */
+    static int unpackColumn(long location) {
+        return (int) location;
     }
 
     /**
@@ -214,7 +1260,7 @@ public class World {
      * @return The Entity at the given row, column
      */
     public Entity getEntity(int row, int column) {
-        return this.world[row][column];
+        return this.world.get(row, column);
     }
 
     /**
@@ -237,11 +1283,28 @@ public class World {
      * @return True if we can move to that location
      */
     public boolean canMoveOnTopOf(int row, int column) {
-        Entity entity = getEntity(row, column);
-        if (entity == null) {
+        return canMoveOnTopOf(world.kind(row, column), row, column);
+    }
+
+    /**
+     * See if we can move to a location of a known kind
+     * Heroes and monsters can be moved on top of once DEAD, walls never, floor always
+     *
+     * @param kind   The kind code of the location
+     * @param row    The row of the location (only used for unknown kinds of entity)
+     * @param column The column of the location (only used for unknown kinds of entity)
+     * @return True if we can move to that location
+     */
+    boolean canMoveOnTopOf(byte kind, int row, int column) {
+        int type = kind & CellStore.TYPE_MASK;
+        if (type == CellStore.FLOOR) {
             return true;
+        } else if (type == CellStore.HERO || type == CellStore.MONSTER) {
+            return (kind & CellStore.ALIVE) == 0;
+        } else if (type == CellStore.WALL) {
+            return false;
         }
-        return entity.canMoveOnTopOf();
+        return getEntity(row, column).canMoveOnTopOf();
     }
 
     /**
@@ -264,12 +1327,14 @@ public class World {
      * @return True if we can attack entity at that location
      */
     public boolean canBeAttacked(int row, int column) {
-        Entity entity = getEntity(row, column);
-        if (entity == null) {
+        byte kind = world.kind(row, column);
+        int type = kind & CellStore.TYPE_MASK;
+        if (type == CellStore.FLOOR || type == CellStore.WALL) {
             return false;
+        } else if (type == CellStore.HERO || type == CellStore.MONSTER) {
+            return (kind & CellStore.ALIVE) != 0;
         }
-        return entity.canBeAttacked();
-
+        return getEntity(row, column).canBeAttacked();
     }
 
     /**
@@ -293,11 +1358,7 @@ public class World {
      * @return True if entity is a hero at that location
      */
     public boolean isHero(int row, int column) {
-        Entity entity = getEntity(row, column);
-        if (entity == null) {
-            return false;
-        }
-        return entity instanceof Hero;
+        return (world.kind(row, column) & CellStore.TYPE_MASK) == CellStore.HERO;
     }
 
 
@@ -309,11 +1370,21 @@ public class World {
      * @return True if entity is a monster at that location
      */
     public boolean isMonster(int row, int column) {
-        Entity entity = getEntity(row, column);
-        if (entity == null) {
-            return false;
+        return (world.kind(row, column) & CellStore.TYPE_MASK) == CellStore.MONSTER;
+    }
+
+    /**
+     * The kind code of a location (see CellStore), spots outside the world are WALL
+     *
+     * @param row    The row to check
+     * @param column The column to check
+     * @return The kind code of that location
+     */
+    byte kind(int row, int column) {
+        if (row < 0 || row >= getRows() || column < 0 || column >= getColumns()) {
+            return CellStore.WALL;
         }
-        return entity instanceof Monster;
+        return world.kind(row, column);
     }
 
     /**
@@ -327,16 +1398,16 @@ public class World {
      */
     public World getLocal(int size, int row, int column) {
         World localView = new World(size,size);
+        localView.random = random;
 
-        Entity center = world[row][column];
         int newRow = 0;
         for (int i = row - (size-1)/2; i <= row + (size-1)/2; i++) {
             int newCol = 0;
             for (int j = column - (size-1)/2; j <= column + (size-1)/2; j++) {
-                if (i > world.length-1 || i < 0 || j > world[0].length-1 || j < 0) {
+                if (i > getRows()-1 || i < 0 || j > getColumns()-1 || j < 0) {
                     localView.addEntity(newRow, newCol, Wall.getWall());
                 } else {
-                    localView.addEntity(newRow, newCol, world[i][j]);
+                    localView.addEntity(newRow, newCol, world.get(i, j));
                 }
                 newCol++;
             }
@@ -346,74 +1417,105 @@ public class World {
         return localView;
     }
 
+    /**
+     * Return a nxn read-only window onto the world (nothing is copied)
+     *
+     * @param size   Size of local world view we want (Must be odd)
+     * @param row    Desired row to be centered on
+     * @param column Desired column to be centered on
+     * @return view of size nxn centered at desired location, spots outside the world are Wall
+     */
+    public LocalView getLocalView(int size, int row, int column) {
+        return new LocalView(this, size, row, column);
+    }
+
     /**
      * Writes a view of the map into a string
      *
      * @return view of the map using symbols to represent everything in one big string
      */
     public String worldString() {
-        StringBuilder output = new StringBuilder();
-        for (int i = 0; i < world[0].length+2; i++) {
-            output.append(Symbol.WALL.getSymbol());
-        }
-        output.append("\n");
-
-        for (int row = 0; row < world.length; row++) {
-            output.append(Symbol.WALL.getSymbol());
-            for (int column = 0; column < world[0].length; column++) {
-                if (world[row][column] instanceof Wall) {
-                    output.append(Symbol.WALL.getSymbol());
-                } else if (world[row][column] instanceof Monster) {
-                    if (world[row][column].isAlive()) {
-                        output.append(world[row][column].getSymbol());
-                    } else if (world[row][column].isDead()) {
-                        output.append(Symbol.DEAD.getSymbol());
-                    }
-                } else if (world[row][column] instanceof Hero) {
-                    if (world[row][column].isAlive()) {
-                        output.append(world[row][column].getSymbol());
-                    } else if (world[row][column].isDead()) {
-                        output.append(Symbol.DEAD.getSymbol());
-                    }
-                } else {
-                    output.append(Symbol.FLOOR.getSymbol());
-                }
-            }
-            output.append(Symbol.WALL.getSymbol()+ "\n");
+        return frame().worldString();
+    }
+
+    /**
+     * Takes worldString and adds onto it, including data for each hero and monster
+     * Only rows that changed since the last call are rendered again (see FrameCache)
+     *
+     * @return worldString with all data beneath it in one big string
+     */
+    public String gameString() {
+        return frame().gameString();
+    }
+
+    /**
+     * Rows whose map or entity table text changed since this was last called (the first call gives every row)
+     * Used to log only what changed each turn, rows that were touched but render the same are left out
+     *
+     * @return The changed rows, in no particular order
+     */
+    public int[] takeChangedRows() {
+        return frame().takeChangedRows();
+    }
+
+    /**
+     * One row of worldString
+     *
+     * @param row The row of the world
+     * @return The row with its border walls, without the new line
+     */
+    public String mapRow(int row) {
+        if (row < 0 || row >= getRows()) {
+            throw new IllegalArgumentException("Row " + row + " is outside the world!");
         }
+        return frame().mapRow(row);
+    }
 
-        for (int i = 0; i < world[0].length+2; i++) {
-            output.append(Symbol.WALL.getSymbol());
+    /**
+     * The lines of the gameString entity table for the heroes and monsters on one row
+     *
+     * @param row The row of the world
+     * @return The lines, each ending in a new line (empty if the row has none)
+     */
+    public String tableRows(int row) {
+        if (row < 0 || row >= getRows()) {
+            throw new IllegalArgumentException("Row " + row + " is outside the world!");
         }
-        output.append("\n");
+        return frame().tableRows(row);
+    }
 
-        return output.toString();
+    /**
+     * The render cache, made the first time the world is rendered
+     *
+     * @return The render cache
+     */
+    private FrameCache frame() {
+        if (frame == null) {
+            frame = new FrameCache(this);
+        }
+        return frame;
     }
 
     /**
-     * Takes worldString and adds onto it, including data for each hero and monster
+     * Something on a row changed and it needs rendering again (does nothing until the world has been rendered)
      *
-     * @return worldString with all data beneath it in one big string
+     * @param row The row that changed
      */
-    public String gameString() {
-        StringBuilder output = new StringBuilder();
-        output.append(worldString());
-        //Adds world view to the StringBuilder
-        output.append("NAME   \tS\tH\tSTATE\tINFO\n");
-        for (int row = 0; row < world.length; row++) {
-            for (int column = 0; column < world[0].length; column++) {
-                if (world[row][column] instanceof Monster) {
-                    String data = world[row][column].toString();
-
-                    output.append(data + "\n");
-                } else if (world[row][column] instanceof Hero) {
-                    String data = world[row][column].toString();
-
-                    output.append(data + "\n");
-                }
-            }
+    private void changed(int row) {
+        if (frame != null) {
+            frame.markDirty(row);
         }
-        return output.toString();
+    }
+
+    /**
+     * Map symbol of a location
+     *
+     * @param row    The row
+     * @param column The column
+     * @return The symbol shown on the map (DEAD for dead heroes and monsters)
+     */
+    char mapSymbol(int row, int column) {
+        return world.mapSymbol(row, column);
     }
 
     @Override
@@ -426,7 +1528,7 @@ public class World {
      * @return The rows of the world
      */
     public int getRows(){
-        return world.length;
+        return world.getRows();
     }
 
     /**
@@ -434,7 +1536,7 @@ public class World {
      * @return The columns of the world
      */
     public int getColumns(){
-        return world[0].length;
+        return world.getColumns();
     }
 
 }
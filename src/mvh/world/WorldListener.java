@@ -0,0 +1,51 @@
+package mvh.world;
+
+import mvh.enums.Direction;
+
+/**
+ * Told about everything that changes a World while it is being advanced, in the order it happens
+ * When turns are resolved in parallel the events of each tile are held and handed over in tile order, so a listener
+ * is only ever called from one thread at a time
+ * @author Hasan Salhi
+ * @version 1.0
+ */
+public interface WorldListener {
+
+    /**
+     * An entity moved one step
+     *
+     * @param entity    The entity that moved
+     * @param row       The row it moved from
+     * @param column    The column it moved from
+     * @param direction The direction it moved in
+     */
+    void moved(Entity entity, int row, int column, Direction direction);
+
+    /**
+     * An entity was attacked
+     *
+     * @param attacker   The entity attacking
+     * @param attacked   The entity being attacked
+     * @param row        The row of the entity being attacked
+     * @param column     The column of the entity being attacked
+     * @param damage     The damage rolled
+     * @param trueDamage The damage taken once armor is taken off
+     */
+    void attacked(Entity attacker, Entity attacked, int row, int column, int damage, int trueDamage);
+
+    /**
+     * An entity went from ALIVE to DEAD
+     *
+     * @param entity The entity that died
+     * @param row    The row it died on
+     * @param column The column it died on
+     */
+    void died(Entity entity, int row, int column);
+
+    /**
+     * Every entity has had its turn
+     *
+     * @param turn The turn that ended
+     */
+    void turnEnded(long turn);
+}
@@ -0,0 +1,67 @@
+package mvh.world;
+
+import java.util.Random;
+
+/**
+ * A read-only view of a 2D grid of entities, null spots are floor spots
+ * Entities are given one of these when they are deciding to attack or to move
+ * @author Hasan Salhi
+ * @version 1.0
+ */
+public interface WorldView {
+
+    /**
+     * The rows of the view
+     * @return The rows of the view
+     */
+    int getRows();
+
+    /**
+     * The columns of the view
+     * @return The columns of the view
+     */
+    int getColumns();
+
+    /**
+     * Get entity at a location
+     *
+     * @param row    The row of the entity
+     * @param column The column of the entity
+     * @return The Entity at the given row, column (null if floor)
+     */
+    Entity getEntity(int row, int column);
+
+    /**
+     * See if we can move to location
+     *
+     * @param row    The row to check
+     * @param column The column to check
+     * @return True if we can move to that location
+     */
+    boolean canMoveOnTopOf(int row, int column);
+
+    /**
+     * See if entity is hero at this location
+     *
+     * @param row    The row to check
+     * @param column The column to check
+     * @return True if entity is a hero at that location
+     */
+    boolean isHero(int row, int column);
+
+    /**
+     * See if entity is monster at this location
+     *
+     * @param row    The row to check
+     * @param column The column to check
+     * @return True if entity is a monster at that location
+     */
+    boolean isMonster(int row, int column);
+
+    /**
+     * The random number generator entities looking at this view should use for any random choices
+     *
+     * @return The random number generator of the world being viewed
+     */
+    Random getRandom();
+}